@@ -0,0 +1,28 @@
+package com.zuijianren.excel.benchmark;
+
+import java.io.OutputStream;
+
+/**
+ * 丢弃写入内容 仅统计字节数的输出流 (避免磁盘 IO 干扰测试结果)
+ *
+ * @author zuijianren
+ * @date 2023/3/24 15:20
+ */
+public class CountingOutputStream extends OutputStream {
+
+    private long count;
+
+    @Override
+    public void write(int b) {
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        count += len;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,62 @@
+package com.zuijianren.excel.benchmark;
+
+import com.zuijianren.excel.benchmark.model.ImageModel;
+import com.zuijianren.excel.config.WriteMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 图片写入性能测试
+ * <p>
+ * distinct: 不同图片的数量 (数据循环使用这些图片)
+ *
+ * @author zuijianren
+ * @date 2023/3/24 15:20
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true"})
+@State(Scope.Benchmark)
+public class ImageBenchmark {
+
+    @Param({"100", "1000"})
+    private int rows;
+
+    @Param({"1", "16"})
+    private int distinct;
+
+    @Param({"MEMORY", "STREAMING"})
+    private WriteMode writeMode;
+
+    private List<ImageModel> dataList;
+
+    @Setup
+    public void setup() {
+        List<BufferedImage> imageList = new ArrayList<>();
+        for (int i = 0; i < distinct; i++) {
+            BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = image.createGraphics();
+            graphics.setColor(new Color(i * 15, 128, 255 - i * 15));
+            graphics.fillRect(0, 0, 64, 64);
+            graphics.dispose();
+            imageList.add(image);
+        }
+        dataList = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            dataList.add(new ImageModel(i, "姓名" + i, imageList.get(i % distinct)));
+        }
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        return Writes.write(ImageModel.class, dataList, writeMode);
+    }
+}
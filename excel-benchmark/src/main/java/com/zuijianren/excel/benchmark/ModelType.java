@@ -0,0 +1,52 @@
+package com.zuijianren.excel.benchmark;
+
+import com.zuijianren.excel.benchmark.model.FlatModel;
+import com.zuijianren.excel.benchmark.model.MultiModel;
+import com.zuijianren.excel.benchmark.model.NestedModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * 基准测试使用的模型
+ *
+ * @author zuijianren
+ * @date 2023/3/24 15:20
+ */
+public enum ModelType {
+
+    FLAT(FlatModel.class, FlatModel::of),
+
+    NESTED(NestedModel.class, NestedModel::of),
+
+    MULTI(MultiModel.class, MultiModel::of);
+
+    private final Class<?> modelClass;
+    private final IntFunction<?> factory;
+
+    ModelType(Class<?> modelClass, IntFunction<?> factory) {
+        this.modelClass = modelClass;
+        this.factory = factory;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Class<T> getModelClass() {
+        return (Class<T>) modelClass;
+    }
+
+    /**
+     * 创建测试数据
+     *
+     * @param rows 数据量
+     * @return 数据
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> createData(int rows) {
+        List<T> dataList = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            dataList.add((T) factory.apply(i));
+        }
+        return dataList;
+    }
+}
@@ -0,0 +1,43 @@
+package com.zuijianren.excel.benchmark;
+
+import com.zuijianren.excel.config.WriteMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一对多写入性能测试 (每条数据占 3 行, 包含纵向合并单元格)
+ * <p>
+ * 直接写入模式不支持一对多, 因此单独测试
+ *
+ * @author zuijianren
+ * @date 2023/3/24 15:20
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class MultiWriterBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"MEMORY", "STREAMING"})
+    private WriteMode writeMode;
+
+    private List<Object> dataList;
+
+    @Setup
+    public void setup() {
+        dataList = ModelType.MULTI.createData(rows);
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        return Writes.write(ModelType.MULTI.getModelClass(), dataList, writeMode);
+    }
+}
@@ -0,0 +1,47 @@
+package com.zuijianren.excel.benchmark;
+
+import com.zuijianren.excel.config.SheetConfig;
+import com.zuijianren.excel.core.ExcelParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 解析性能测试
+ * <p>
+ * cold: 清空缓存后解析 (包括注解解析, 样式配置及访问器的生成); warm: 命中缓存
+ *
+ * @author zuijianren
+ * @date 2023/3/24 15:20
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+    @Param({"FLAT", "NESTED", "MULTI"})
+    private ModelType model;
+
+    private final ExcelParser parser = ExcelParser.getInstance();
+
+    private Class<?> modelClass;
+
+    @Setup
+    public void setup() {
+        modelClass = model.getModelClass();
+    }
+
+    @Benchmark
+    public SheetConfig cold() {
+        parser.clearCache();
+        return parser.getSheetConfig(modelClass);
+    }
+
+    @Benchmark
+    public SheetConfig warm() {
+        return parser.getSheetConfig(modelClass);
+    }
+}
@@ -0,0 +1,65 @@
+package com.zuijianren.excel.benchmark;
+
+import com.zuijianren.excel.config.style.*;
+import com.zuijianren.excel.core.CellStyleRegistry;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 样式性能测试
+ * <p>
+ * hit: 命中注册表缓存 (每个单元格写入时的开销); miss: 在新工作簿中创建默认的 4 种样式
+ *
+ * @author zuijianren
+ * @date 2023/3/24 15:20
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StyleBenchmark {
+
+    private static final AbstractCellStyleConfig[] STYLE_CONFIGS = {
+            new SheetNameStyleConfig(), new SerialNumberStyleConfig(), new HeadCellStyleConfig(), new ContentCellStyleConfig()
+    };
+
+    @State(Scope.Benchmark)
+    public static class WarmRegistry {
+        CellStyleRegistry registry;
+
+        @Setup
+        public void setup() {
+            registry = new CellStyleRegistry(new XSSFWorkbook());
+            for (AbstractCellStyleConfig styleConfig : STYLE_CONFIGS) {
+                registry.getCellStyle(styleConfig);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ColdRegistry {
+        CellStyleRegistry registry;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            registry = new CellStyleRegistry(new XSSFWorkbook());
+        }
+    }
+
+    @Benchmark
+    public CellStyle hit(WarmRegistry state) {
+        return state.registry.getCellStyle(STYLE_CONFIGS[3]);
+    }
+
+    @Benchmark
+    public void miss(ColdRegistry state, Blackhole blackhole) {
+        for (AbstractCellStyleConfig styleConfig : STYLE_CONFIGS) {
+            blackhole.consume(state.registry.getCellStyle(styleConfig));
+        }
+    }
+}
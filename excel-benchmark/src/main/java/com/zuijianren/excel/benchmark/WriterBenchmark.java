@@ -0,0 +1,46 @@
+package com.zuijianren.excel.benchmark;
+
+import com.zuijianren.excel.config.WriteMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 写入性能测试 (扁平及内嵌模型)
+ * <p>
+ * 一次操作即导出全部数据, 每秒导出行数 = 吞吐量 * rows
+ *
+ * @author zuijianren
+ * @date 2023/3/24 15:20
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class WriterBenchmark {
+
+    @Param({"FLAT", "NESTED"})
+    private ModelType model;
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"MEMORY", "STREAMING", "DIRECT"})
+    private WriteMode writeMode;
+
+    private List<Object> dataList;
+
+    @Setup
+    public void setup() {
+        dataList = model.createData(rows);
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        return Writes.write(model.getModelClass(), dataList, writeMode);
+    }
+}
@@ -0,0 +1,36 @@
+package com.zuijianren.excel.benchmark;
+
+import com.zuijianren.excel.config.ExcelConfig;
+import com.zuijianren.excel.config.WriteMode;
+import com.zuijianren.excel.core.ExcelWriter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 基准测试的写入入口
+ *
+ * @author zuijianren
+ * @date 2023/3/24 15:20
+ */
+final class Writes {
+
+    private Writes() {
+    }
+
+    /**
+     * 导出数据 (每次导出使用新的工作簿)
+     *
+     * @return 输出的字节数
+     */
+    static <T> long write(Class<T> modelClass, List<T> dataList, WriteMode writeMode) throws IOException {
+        CountingOutputStream os = new CountingOutputStream();
+        ExcelConfig excelConfig = ExcelConfig.builder()
+                .writeMode(writeMode)
+                .build();
+        ExcelWriter.createExcelWriter(os, excelConfig)
+                .write(modelClass, dataList)
+                .doWrite();
+        return os.getCount();
+    }
+}
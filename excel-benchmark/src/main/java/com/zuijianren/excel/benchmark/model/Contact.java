@@ -0,0 +1,26 @@
+package com.zuijianren.excel.benchmark.model;
+
+import com.zuijianren.excel.annotations.ExcelProperty;
+import com.zuijianren.excel.annotations.ExcelSheet;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 联系方式 (内嵌模型)
+ *
+ * @author zuijianren
+ * @date 2023/3/24 15:20
+ */
+@ExcelSheet("联系方式")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Contact {
+    @ExcelProperty(value = {"电话"}, order = 0)
+    private String phone;
+    @ExcelProperty(value = {"邮箱"}, order = 1)
+    private String email;
+    @ExcelProperty(value = {"地址"}, order = 2)
+    private String address;
+}
@@ -0,0 +1,43 @@
+package com.zuijianren.excel.benchmark.model;
+
+import com.zuijianren.excel.annotations.ExcelProperty;
+import com.zuijianren.excel.annotations.ExcelSheet;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * 扁平模型 (无内嵌及一对多)
+ *
+ * @author zuijianren
+ * @date 2023/3/24 15:20
+ */
+@ExcelSheet("扁平表")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlatModel {
+    @ExcelProperty(value = {"id"}, order = 0)
+    private Integer id;
+    @ExcelProperty(value = {"基本信息", "名字"}, order = 1)
+    private String name;
+    @ExcelProperty(value = {"基本信息", "年龄"}, order = 2)
+    private Integer age;
+    @ExcelProperty(value = {"成绩"}, order = 3)
+    private Double score;
+    @ExcelProperty(value = {"生日"}, order = 4)
+    private Date birthday;
+    @ExcelProperty(value = {"联系方式", "电话"}, order = 5)
+    private String phone;
+    @ExcelProperty(value = {"联系方式", "地址"}, order = 6)
+    private String address;
+    @ExcelProperty(value = {"备注"}, order = 7)
+    private String remark;
+
+    public static FlatModel of(int i) {
+        return new FlatModel(i, "姓名" + i, 18 + i % 10, i * 0.5, new Date(1672502400000L + i * 1000L),
+                "1380000" + i, "地址" + i, i % 3 == 0 ? null : "备注" + i);
+    }
+}
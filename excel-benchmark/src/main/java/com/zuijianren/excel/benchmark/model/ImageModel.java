@@ -0,0 +1,28 @@
+package com.zuijianren.excel.benchmark.model;
+
+import com.zuijianren.excel.annotations.ExcelProperty;
+import com.zuijianren.excel.annotations.ExcelSheet;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * 图片模型
+ *
+ * @author zuijianren
+ * @date 2023/3/24 15:20
+ */
+@ExcelSheet("图片表")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageModel {
+    @ExcelProperty(value = {"id"}, order = 0)
+    private Integer id;
+    @ExcelProperty(value = {"名字"}, order = 1)
+    private String name;
+    @ExcelProperty(value = {"头像"}, order = 2)
+    private BufferedImage avatar;
+}
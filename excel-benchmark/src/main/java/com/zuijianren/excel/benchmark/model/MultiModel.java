@@ -0,0 +1,34 @@
+package com.zuijianren.excel.benchmark.model;
+
+import com.zuijianren.excel.annotations.ExcelMultiProperty;
+import com.zuijianren.excel.annotations.ExcelProperty;
+import com.zuijianren.excel.annotations.ExcelSheet;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 一对多模型 (每条数据占 3 行)
+ *
+ * @author zuijianren
+ * @date 2023/3/24 15:20
+ */
+@ExcelSheet("一对多表")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiModel {
+    @ExcelProperty(value = {"id"}, order = 0)
+    private Integer id;
+    @ExcelProperty(value = {"名字"}, order = 1)
+    private String name;
+    @ExcelMultiProperty(value = {"成绩"}, order = 2, nested = true, showCurrentName = true)
+    private List<Score> scoreList;
+
+    public static MultiModel of(int i) {
+        return new MultiModel(i, "姓名" + i, Arrays.asList(new Score("语文", 80.0 + i % 20), new Score("数学", 90.0 - i % 20), new Score("英语", 85.0)));
+    }
+}
@@ -0,0 +1,32 @@
+package com.zuijianren.excel.benchmark.model;
+
+import com.zuijianren.excel.annotations.ExcelProperty;
+import com.zuijianren.excel.annotations.ExcelSheet;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 内嵌模型
+ *
+ * @author zuijianren
+ * @date 2023/3/24 15:20
+ */
+@ExcelSheet("内嵌表")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NestedModel {
+    @ExcelProperty(value = {"id"}, order = 0)
+    private Integer id;
+    @ExcelProperty(value = {"名字"}, order = 1)
+    private String name;
+    @ExcelProperty(value = {"年龄"}, order = 2)
+    private Integer age;
+    @ExcelProperty(value = {"联系方式"}, order = 3, nested = true, showCurrentName = true)
+    private Contact contact;
+
+    public static NestedModel of(int i) {
+        return new NestedModel(i, "姓名" + i, 18 + i % 10, new Contact("1380000" + i, i + "@example.com", "地址" + i));
+    }
+}
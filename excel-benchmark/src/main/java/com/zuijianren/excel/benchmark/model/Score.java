@@ -0,0 +1,24 @@
+package com.zuijianren.excel.benchmark.model;
+
+import com.zuijianren.excel.annotations.ExcelProperty;
+import com.zuijianren.excel.annotations.ExcelSheet;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 成绩 (一对多模型)
+ *
+ * @author zuijianren
+ * @date 2023/3/24 15:20
+ */
+@ExcelSheet("成绩")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Score {
+    @ExcelProperty(value = {"科目"}, order = 0)
+    private String course;
+    @ExcelProperty(value = {"分数"}, order = 1)
+    private Double score;
+}
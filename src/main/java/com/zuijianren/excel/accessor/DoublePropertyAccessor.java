@@ -0,0 +1,26 @@
+package com.zuijianren.excel.accessor;
+
+/**
+ * double 类型的属性访问器
+ * <p>
+ * get 方法返回 double 时生成, 写入单元格时直接读取基本类型的值 (不装箱)
+ *
+ * @author zuijianren
+ * @date 2023/3/30 15:00
+ */
+@FunctionalInterface
+public interface DoublePropertyAccessor extends PropertyAccessor {
+
+    /**
+     * 获取属性值
+     *
+     * @param target 属性所属对象 (不为空)
+     * @return 属性值
+     */
+    double getDouble(Object target);
+
+    @Override
+    default Object get(Object target) {
+        return getDouble(target);
+    }
+}
@@ -0,0 +1,21 @@
+package com.zuijianren.excel.accessor;
+
+/**
+ * 属性访问器
+ * <p>
+ * 解析时根据属性的 get 方法编译生成, 写入数据时用于替代反射调用
+ *
+ * @author zuijianren
+ * @date 2023/3/21 09:40
+ */
+@FunctionalInterface
+public interface PropertyAccessor {
+
+    /**
+     * 获取属性值
+     *
+     * @param target 属性所属对象 (不为空)
+     * @return 属性值
+     */
+    Object get(Object target);
+}
@@ -0,0 +1,213 @@
+package com.zuijianren.excel.accessor;
+
+import com.zuijianren.excel.exceptions.PropertyAccessException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.*;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * 属性访问器 工厂
+ * <p>
+ * 按以下顺序尝试生成访问器, 前一种无法生成时 降级为后一种:
+ * <ol>
+ *     <li>LambdaMetafactory 生成的实现类 (效率接近直接调用)</li>
+ *     <li>MethodHandle 调用 (如: 类不可见, 类非 public, 方法声明了受检异常等情况)</li>
+ *     <li>反射调用</li>
+ * </ol>
+ * get 方法返回 int, long, double, boolean 时, 前两种方式生成对应的基本类型访问器 (如 {@link IntPropertyAccessor}), 读取时不装箱
+ *
+ * @author zuijianren
+ * @date 2023/3/21 09:45
+ */
+@Slf4j
+public final class PropertyAccessors {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType GET_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private PropertyAccessors() {
+    }
+
+    /**
+     * 根据 get 方法创建属性访问器
+     *
+     * @param method get 方法
+     * @return 属性访问器
+     */
+    public static PropertyAccessor of(Method method) {
+        try {
+            return compile(method);
+        } catch (Throwable e) {
+            log.debug("无法为方法: " + method + " 生成访问器, 降级为 MethodHandle 调用. 原因: " + e);
+        }
+        try {
+            return methodHandle(method);
+        } catch (IllegalAccessException | RuntimeException e) {
+            log.debug("无法为方法: " + method + " 创建 MethodHandle, 降级为反射调用. 原因: " + e);
+        }
+        return reflect(method);
+    }
+
+    /**
+     * 通过 LambdaMetafactory 生成访问器
+     * <p>
+     * 生成的实现类定义在当前类的类加载器中, 因此要求方法所在的类为 public 且对当前类加载器可见.
+     * 生成的实现类会直接抛出 get 方法的受检异常 (无法包装为 PropertyAccessException), 因此声明了受检异常的方法不生成实现类
+     */
+    private static PropertyAccessor compile(Method method) throws Throwable {
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (!Modifier.isPublic(declaringClass.getModifiers()) || !isVisible(declaringClass)) {
+            throw new IllegalAccessException(declaringClass.getName() + " 不是 public 类或对当前类加载器不可见");
+        }
+        for (Class<?> exceptionType : method.getExceptionTypes()) {
+            if (!RuntimeException.class.isAssignableFrom(exceptionType) && !Error.class.isAssignableFrom(exceptionType)) {
+                throw new IllegalAccessException("方法声明了受检异常: " + exceptionType.getName());
+            }
+        }
+        MethodHandle getter = LOOKUP.unreflect(method);
+        Class<?> returnType = method.getReturnType();
+        Class<?> accessorType = getAccessorType(returnType);
+        CallSite callSite;
+        if (accessorType == PropertyAccessor.class) {
+            MethodType instantiatedType = MethodType.methodType(wrap(returnType), declaringClass);
+            callSite = LambdaMetafactory.metafactory(LOOKUP, "get", MethodType.methodType(accessorType), GET_TYPE, getter, instantiatedType);
+        } else {
+            // 基本类型访问器: 方法名为 getInt, getLong 等
+            String name = "get" + Character.toUpperCase(returnType.getName().charAt(0)) + returnType.getName().substring(1);
+            MethodType instantiatedType = MethodType.methodType(returnType, declaringClass);
+            callSite = LambdaMetafactory.metafactory(LOOKUP, name, MethodType.methodType(accessorType), MethodType.methodType(returnType, Object.class), getter, instantiatedType);
+        }
+        return (PropertyAccessor) callSite.getTarget().invoke();
+    }
+
+    /**
+     * 通过 MethodHandle 调用
+     */
+    private static PropertyAccessor methodHandle(Method method) throws IllegalAccessException {
+        method.setAccessible(true);
+        Class<?> returnType = method.getReturnType();
+        MethodHandle getter = LOOKUP.unreflect(method);
+        String name = method.getName();
+        if (returnType == int.class) {
+            MethodHandle intGetter = getter.asType(MethodType.methodType(int.class, Object.class));
+            return (IntPropertyAccessor) target -> {
+                try {
+                    return (int) intGetter.invokeExact(target);
+                } catch (Throwable e) {
+                    throw rethrow(name, e);
+                }
+            };
+        }
+        if (returnType == long.class) {
+            MethodHandle longGetter = getter.asType(MethodType.methodType(long.class, Object.class));
+            return (LongPropertyAccessor) target -> {
+                try {
+                    return (long) longGetter.invokeExact(target);
+                } catch (Throwable e) {
+                    throw rethrow(name, e);
+                }
+            };
+        }
+        if (returnType == double.class) {
+            MethodHandle doubleGetter = getter.asType(MethodType.methodType(double.class, Object.class));
+            return (DoublePropertyAccessor) target -> {
+                try {
+                    return (double) doubleGetter.invokeExact(target);
+                } catch (Throwable e) {
+                    throw rethrow(name, e);
+                }
+            };
+        }
+        if (returnType == boolean.class) {
+            MethodHandle booleanGetter = getter.asType(MethodType.methodType(boolean.class, Object.class));
+            return (BooleanPropertyAccessor) target -> {
+                try {
+                    return (boolean) booleanGetter.invokeExact(target);
+                } catch (Throwable e) {
+                    throw rethrow(name, e);
+                }
+            };
+        }
+        MethodHandle objectGetter = getter.asType(GET_TYPE);
+        return target -> {
+            try {
+                return (Object) objectGetter.invokeExact(target);
+            } catch (Throwable e) {
+                throw rethrow(name, e);
+            }
+        };
+    }
+
+    /**
+     * 运行时异常及错误直接抛出, 其余异常包装为 PropertyAccessException
+     */
+    private static RuntimeException rethrow(String name, Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new PropertyAccessException(name, e);
+    }
+
+    /**
+     * 反射调用
+     */
+    private static PropertyAccessor reflect(Method method) {
+        String name = method.getName();
+        return target -> {
+            try {
+                return method.invoke(target);
+            } catch (InvocationTargetException e) {
+                throw new PropertyAccessException(name, e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new PropertyAccessException(name, e);
+            }
+        };
+    }
+
+    /**
+     * 判断类 对当前类加载器是否可见
+     */
+    private static boolean isVisible(Class<?> clazz) {
+        try {
+            return Class.forName(clazz.getName(), false, PropertyAccessors.class.getClassLoader()) == clazz;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 获取返回值类型对应的访问器类型 (int, long, double, boolean 使用基本类型访问器)
+     */
+    private static Class<?> getAccessorType(Class<?> returnType) {
+        if (returnType == int.class) {
+            return IntPropertyAccessor.class;
+        }
+        if (returnType == long.class) {
+            return LongPropertyAccessor.class;
+        }
+        if (returnType == double.class) {
+            return DoublePropertyAccessor.class;
+        }
+        if (returnType == boolean.class) {
+            return BooleanPropertyAccessor.class;
+        }
+        return PropertyAccessor.class;
+    }
+
+    /**
+     * 获取基本类型对应的包装类型
+     */
+    private static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        return MethodType.methodType(type).wrap().returnType();
+    }
+}
@@ -1,6 +1,7 @@
 package com.zuijianren.excel.annotations;
 
 
+import com.zuijianren.excel.config.StringStorage;
 import com.zuijianren.excel.converter.DefaultExcelConverter;
 import com.zuijianren.excel.converter.ExcelConverter;
 
@@ -34,4 +35,7 @@ public @interface ExcelProperty {
     // 是否展示当前的名字
     boolean showCurrentName() default false;
 
+    // 字符串存储方式 (默认使用全局配置, 仅内存模式下生效)
+    StringStorage stringStorage() default StringStorage.DEFAULT;
+
 }
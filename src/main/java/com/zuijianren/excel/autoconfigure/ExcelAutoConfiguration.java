@@ -0,0 +1,120 @@
+package com.zuijianren.excel.autoconfigure;
+
+import com.zuijianren.excel.core.ExcelParser;
+import com.zuijianren.excel.core.ExcelWriter;
+import com.zuijianren.excel.core.WorkbookTemplate;
+import com.zuijianren.excel.metrics.ExcelMetrics;
+import com.zuijianren.excel.metrics.MicrometerExcelMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.stream.Collectors;
+
+/**
+ * excel 自动配置
+ * <p>
+ * 提供解析器, 写入线程池 及 ExcelWriterFactory (均可通过同名或同类型的 bean 覆盖); 配置 excel.scan-packages 后 启动时预解析导出类.
+ * 存在 ExcelMetrics bean 时 (引入 micrometer 且存在 MeterRegistry 时 自动创建), 记录解析及写入指标; 配置 excel.template 后 每次写入使用工作簿模板的副本
+ *
+ * @author zuijianren
+ * @date 2023/3/29 16:00
+ */
+@AutoConfiguration(afterName = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
+@ConditionalOnClass(ExcelWriter.class)
+@EnableConfigurationProperties(ExcelProperties.class)
+public class ExcelAutoConfiguration {
+
+    /**
+     * 写入线程池的 bean 名
+     */
+    public static final String EXECUTOR_BEAN_NAME = "excelWriterExecutor";
+
+    /**
+     * 解析器 (与 ExcelWriter, ExcelReader 使用同一个实例, 共享解析缓存)
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ExcelParser excelParser(ObjectProvider<ExcelMetrics> metrics) {
+        ExcelParser excelParser = ExcelParser.getInstance();
+        metrics.ifAvailable(excelParser::setMetrics);
+        return excelParser;
+    }
+
+    /**
+     * 写入线程池 (以持有者类型注册, 不影响应用的默认线程池, 见 {@link ExcelWriterExecutor})
+     */
+    @Bean(name = EXECUTOR_BEAN_NAME)
+    @ConditionalOnMissingBean
+    public ExcelWriterExecutor excelWriterExecutor(ExcelProperties properties) {
+        ExcelProperties.Executor executor = properties.getExecutor();
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(executor.getCoreSize());
+        taskExecutor.setMaxPoolSize(Math.max(executor.getCoreSize(), executor.getMaxSize()));
+        taskExecutor.setQueueCapacity(executor.getQueueCapacity());
+        taskExecutor.setKeepAliveSeconds((int) executor.getKeepAlive().getSeconds());
+        taskExecutor.setThreadNamePrefix(executor.getThreadNamePrefix());
+        taskExecutor.setDaemon(true);
+        // 关闭时等待正在执行的写入完成
+        taskExecutor.setWaitForTasksToCompleteOnShutdown(true);
+        taskExecutor.setAwaitTerminationSeconds(30);
+        return new ExcelWriterExecutor(taskExecutor);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ExcelWriterFactory excelWriterFactory(ExcelProperties properties,
+                                                 ExcelWriterExecutor excelWriterExecutor,
+                                                 ObjectProvider<ExcelConfigCustomizer> customizers) {
+        return new ExcelWriterFactory(properties, excelWriterExecutor.getExecutor(), customizers.orderedStream().collect(Collectors.toList()));
+    }
+
+    /**
+     * 写入时记录指标 (存在 ExcelMetrics bean 时)
+     */
+    @Bean
+    public ExcelConfigCustomizer excelMetricsCustomizer(ObjectProvider<ExcelMetrics> metrics) {
+        return builder -> metrics.ifAvailable(builder::metrics);
+    }
+
+    /**
+     * 使用工作簿模板 (配置 excel.template 时): 模板仅在启动时读取一次, 写入开始时才创建模板的副本 (未写入的配置不创建)
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "excel", name = "template")
+    public ExcelConfigCustomizer excelTemplateCustomizer(ExcelProperties properties, ResourceLoader resourceLoader) throws IOException {
+        WorkbookTemplate template;
+        try (InputStream is = resourceLoader.getResource(properties.getTemplate()).getInputStream()) {
+            template = WorkbookTemplate.load(is);
+        }
+        return builder -> builder.xssfWorkbookSupplier(template::newWorkbook);
+    }
+
+    @Bean
+    public ExcelSheetPreloader excelSheetPreloader(ExcelParser excelParser, ExcelProperties properties) {
+        return new ExcelSheetPreloader(excelParser, properties.getScanPackages());
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    static class MicrometerMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnBean(MeterRegistry.class)
+        @ConditionalOnMissingBean(ExcelMetrics.class)
+        public MicrometerExcelMetrics excelMetrics(MeterRegistry meterRegistry) {
+            return new MicrometerExcelMetrics(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.zuijianren.excel.autoconfigure;
+
+import com.zuijianren.excel.config.ExcelConfig;
+
+/**
+ * excel 配置定制器
+ * <p>
+ * 由 ExcelWriterFactory 在创建每个写入对象的配置时调用 (例如 设置默认样式, 进度监听器). 按 Ordered 顺序执行
+ *
+ * @author zuijianren
+ * @date 2023/3/29 16:00
+ */
+@FunctionalInterface
+public interface ExcelConfigCustomizer {
+
+    /**
+     * 定制配置
+     *
+     * @param builder 已填充配置属性的构建器
+     */
+    void customize(ExcelConfig.ExcelConfigBuilder builder);
+}
@@ -0,0 +1,107 @@
+package com.zuijianren.excel.autoconfigure;
+
+import com.zuijianren.excel.config.StringStorage;
+import com.zuijianren.excel.config.WriteMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * excel 配置属性 (前缀: excel)
+ *
+ * @author zuijianren
+ * @date 2023/3/29 16:00
+ */
+@Data
+@ConfigurationProperties(prefix = "excel")
+public class ExcelProperties {
+
+    /**
+     * 默认写入模式
+     */
+    private WriteMode writeMode = WriteMode.MEMORY;
+
+    /**
+     * 工作簿模板的位置 (如 classpath:templates/report.xlsx). 启动时加载一次, 每次写入使用模板的副本
+     */
+    private String template;
+
+    /**
+     * 流式模式下 内存中保留的行数
+     */
+    private int windowSize = 100;
+
+    /**
+     * 流式模式下 是否压缩临时文件
+     */
+    private boolean compressTempFiles = false;
+
+    /**
+     * 流式模式下 临时文件所在目录 (为空时为系统临时目录)
+     */
+    private File tempDirectory;
+
+    /**
+     * 流式模式下 每次写入的临时文件总大小上限 (为空时 不限制)
+     */
+    private DataSize tempFileQuota;
+
+    /**
+     * 是否并行写入多个 sheet (仅流式模式下生效)
+     */
+    private boolean parallel = false;
+
+    /**
+     * 字符串存储方式
+     */
+    private StringStorage stringStorage = StringStorage.ADAPTIVE;
+
+    /**
+     * 进度通知间隔 (每写入多少条数据 通知一次监听器)
+     */
+    private int progressInterval = 1000;
+
+    /**
+     * 启动时预解析的包 (扫描包含 ExcelSheet 注解的类), 首次导出时无需再解析
+     */
+    private List<String> scanPackages = new ArrayList<>();
+
+    /**
+     * 写入线程池 (异步写入及并行写入 sheet 使用)
+     */
+    private Executor executor = new Executor();
+
+    @Data
+    public static class Executor {
+
+        /**
+         * 核心线程数
+         */
+        private int coreSize = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * 最大线程数
+         */
+        private int maxSize = Runtime.getRuntime().availableProcessors() * 2;
+
+        /**
+         * 队列容量 (超出时 提交的写入任务被拒绝)
+         */
+        private int queueCapacity = 1000;
+
+        /**
+         * 空闲线程的存活时间
+         */
+        private Duration keepAlive = Duration.ofSeconds(60);
+
+        /**
+         * 线程名前缀
+         */
+        private String threadNamePrefix = "excel-writer-";
+    }
+}
@@ -0,0 +1,60 @@
+package com.zuijianren.excel.autoconfigure;
+
+import com.zuijianren.excel.annotations.ExcelSheet;
+import com.zuijianren.excel.core.ExcelParser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+
+/**
+ * 启动时预解析导出类
+ * <p>
+ * 扫描配置的包中 包含 ExcelSheet 注解的类 并解析至 ExcelParser 的缓存中, 首次导出时无需再解析.
+ * 解析失败时 启动失败 (注解配置错误在启动时即可发现)
+ *
+ * @author zuijianren
+ * @date 2023/3/29 16:00
+ */
+@Slf4j
+public class ExcelSheetPreloader implements SmartInitializingSingleton, BeanClassLoaderAware {
+
+    private final ExcelParser parser;
+
+    private final List<String> scanPackages;
+
+    private ClassLoader classLoader;
+
+    public ExcelSheetPreloader(ExcelParser parser, List<String> scanPackages) {
+        this.parser = parser;
+        this.scanPackages = scanPackages;
+    }
+
+    @Override
+    public void setBeanClassLoader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (scanPackages.isEmpty()) {
+            return;
+        }
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(ExcelSheet.class));
+        int count = 0;
+        for (String scanPackage : scanPackages) {
+            for (BeanDefinition candidate : scanner.findCandidateComponents(scanPackage)) {
+                Class<?> clazz = ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader);
+                parser.getSheetConfig(clazz);
+                count++;
+            }
+        }
+        log.info("预解析导出类 {} 个. 扫描包: {}", count, scanPackages);
+    }
+}
@@ -0,0 +1,53 @@
+package com.zuijianren.excel.autoconfigure;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * excel 写入线程池的持有者
+ * <p>
+ * 线程池不以 Executor 类型注册为 bean: 否则 Spring Boot 的默认线程池 (applicationTaskExecutor, 缺少 Executor 类型的 bean 时才创建) 不再创建,
+ * 应用的 @Async, mvc 异步请求等都会改为使用写入线程池. 线程池随 bean 初始化及销毁
+ *
+ * @author zuijianren
+ * @date 2023/3/29 16:00
+ */
+public class ExcelWriterExecutor implements InitializingBean, DisposableBean {
+
+    private final ThreadPoolTaskExecutor taskExecutor;
+
+    public ExcelWriterExecutor(ThreadPoolTaskExecutor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * 获取线程池
+     *
+     * @return 线程池
+     */
+    public Executor getExecutor() {
+        return taskExecutor;
+    }
+
+    /**
+     * 获取线程池 (用于查看或调整线程池参数)
+     *
+     * @return 线程池
+     */
+    public ThreadPoolTaskExecutor getTaskExecutor() {
+        return taskExecutor;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        taskExecutor.initialize();
+    }
+
+    @Override
+    public void destroy() {
+        taskExecutor.shutdown();
+    }
+}
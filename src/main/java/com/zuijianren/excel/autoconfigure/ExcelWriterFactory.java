@@ -0,0 +1,75 @@
+package com.zuijianren.excel.autoconfigure;
+
+import com.zuijianren.excel.config.ExcelConfig;
+import com.zuijianren.excel.core.ExcelWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * ExcelWriter 工厂
+ * <p>
+ * 根据配置属性, 写入线程池及定制器 创建写入对象. 样式注册表及图片注册表与工作簿一一对应, 仍在每次写入时创建
+ *
+ * @author zuijianren
+ * @date 2023/3/29 16:00
+ */
+public class ExcelWriterFactory {
+
+    private final ExcelProperties properties;
+
+    private final Executor executor;
+
+    private final List<ExcelConfigCustomizer> customizers;
+
+    public ExcelWriterFactory(ExcelProperties properties, Executor executor, List<ExcelConfigCustomizer> customizers) {
+        this.properties = properties;
+        this.executor = executor;
+        this.customizers = customizers;
+    }
+
+    /**
+     * 创建已填充默认配置的构建器 (每次返回新的构建器)
+     *
+     * @return 配置构建器
+     */
+    public ExcelConfig.ExcelConfigBuilder configBuilder() {
+        ExcelConfig.ExcelConfigBuilder builder = ExcelConfig.builder()
+                .writeMode(properties.getWriteMode())
+                .windowSize(properties.getWindowSize())
+                .compressTempFiles(properties.isCompressTempFiles())
+                .tempDirectory(properties.getTempDirectory())
+                .tempFileQuota(properties.getTempFileQuota() == null ? 0 : properties.getTempFileQuota().toBytes())
+                .parallel(properties.isParallel())
+                .stringStorage(properties.getStringStorage())
+                .progressInterval(properties.getProgressInterval())
+                .executor(executor);
+        for (ExcelConfigCustomizer customizer : customizers) {
+            customizer.customize(builder);
+        }
+        return builder;
+    }
+
+    /**
+     * 使用默认配置创建写入对象
+     *
+     * @param os 输出流
+     * @return ExcelWriter 对象
+     */
+    public ExcelWriter createExcelWriter(OutputStream os) {
+        return ExcelWriter.createExcelWriter(os, configBuilder().build());
+    }
+
+    /**
+     * 使用默认配置创建写入对象
+     *
+     * @param filePath 文件路径
+     * @return ExcelWriter 对象
+     * @throws IOException 文件创建失败
+     */
+    public ExcelWriter createExcelWriter(String filePath) throws IOException {
+        return ExcelWriter.createExcelWriter(filePath, configBuilder().build());
+    }
+}
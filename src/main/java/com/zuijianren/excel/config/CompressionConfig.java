@@ -0,0 +1,88 @@
+package com.zuijianren.excel.config;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.zip.Deflater;
+
+/**
+ * 压缩配置
+ * <p>
+ * xlsx 为 zip 压缩包, 按部件分别设置压缩级别 (0 - 9, 0 为不压缩, -1 为默认级别). 例如 输出经由代理再次 gzip 压缩时,
+ * 可以降低 xml 的压缩级别以减少 cpu 占用; png, jpeg 图片本身已压缩, 再次压缩几乎没有收益.
+ * <p>
+ * 流式输出无法预先得知部件的大小及校验值, 因此不使用 STORED 方式, 级别为 0 时 以不压缩的 deflate 块写入 (开销可以忽略)
+ *
+ * @author zuijianren
+ * @date 2023/4/2 15:00
+ */
+@Builder
+@Data
+public class CompressionConfig {
+
+    /**
+     * sheet 的压缩级别 (xl/worksheets/sheetN.xml)
+     */
+    @Builder.Default
+    private int sheetLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * 共享字符串表的压缩级别 (xl/sharedStrings.xml)
+     */
+    @Builder.Default
+    private int sharedStringsLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * 样式的压缩级别 (xl/styles.xml)
+     */
+    @Builder.Default
+    private int stylesLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * 图片的压缩级别 (xl/media/)
+     */
+    @Builder.Default
+    private int mediaLevel = Deflater.NO_COMPRESSION;
+
+    /**
+     * 其余部件的压缩级别 (工作簿, 关系, 绘图等)
+     */
+    @Builder.Default
+    private int otherLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * 快速压缩: xml 使用最快的压缩级别, 图片不压缩 (文件变大, 吞吐量提高)
+     *
+     * @return 压缩配置
+     */
+    public static CompressionConfig fast() {
+        return CompressionConfig.builder()
+                .sheetLevel(Deflater.BEST_SPEED)
+                .sharedStringsLevel(Deflater.BEST_SPEED)
+                .stylesLevel(Deflater.BEST_SPEED)
+                .otherLevel(Deflater.BEST_SPEED)
+                .build();
+    }
+
+    /**
+     * 获取部件的压缩级别
+     *
+     * @param entryName 压缩包中的部件名 (如 xl/worksheets/sheet1.xml)
+     * @return 压缩级别
+     */
+    public int getLevel(String entryName) {
+        if (entryName.startsWith("xl/worksheets/sheet")) {
+            return sheetLevel;
+        }
+        if (entryName.equals("xl/sharedStrings.xml")) {
+            return sharedStringsLevel;
+        }
+        if (entryName.equals("xl/styles.xml")) {
+            return stylesLevel;
+        }
+        if (entryName.startsWith("xl/media/")) {
+            return mediaLevel;
+        }
+        return otherLevel;
+    }
+}
@@ -1,10 +1,18 @@
 package com.zuijianren.excel.config;
 
 import com.zuijianren.excel.config.style.*;
+import com.zuijianren.excel.listener.WriteProgressListener;
+import com.zuijianren.excel.metrics.ExcelMetrics;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
+import java.io.File;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
 /**
  * excel 文件整体配置
  *
@@ -13,12 +21,104 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
  */
 @Builder
 @Data
+@ToString(doNotUseGetters = true)
+@EqualsAndHashCode(doNotUseGetters = true)
 public class ExcelConfig {
 
-    // 工作簿
+    // 工作簿 (为空时 首次获取时创建, 见 getXssfWorkbook. toString, equals 及 hashCode 直接读取字段, 不会创建)
+    private XSSFWorkbook xssfWorkbook;
+
+    /**
+     * 工作簿的提供者 (未指定 xssfWorkbook 时, 写入开始获取工作簿时调用一次)
+     * <p>
+     * 用于延迟创建工作簿, 如 工作簿模板的副本 (template::newWorkbook): 创建配置后 未写入 或 另行指定工作簿时 不解析模板.
+     * 为空时 创建新的工作簿
+     */
+    private Supplier<XSSFWorkbook> xssfWorkbookSupplier;
+
+    /**
+     * 写入模式
+     * <p>
+     * 默认为内存模式, 大数据量导出时 建议使用流式模式
+     */
+    @Builder.Default
+    private WriteMode writeMode = WriteMode.MEMORY;
+
+    /**
+     * 流式模式下 内存中保留的行数 (滑动窗口大小)
+     * <p>
+     * 一条数据(一对多时可能占多行)写入完成后 才会刷出窗口外的行, 保证纵向合并单元格时 所需的行仍在内存中
+     */
+    @Builder.Default
+    private int windowSize = 100;
+
+    /**
+     * 流式模式下 是否压缩临时文件
+     */
     @Builder.Default
-    private XSSFWorkbook xssfWorkbook = new XSSFWorkbook();
+    private boolean compressTempFiles = false;
+
+    /**
+     * 流式模式下 临时文件所在目录
+     * <p>
+     * 为空时为系统临时目录. 每次写入在其中创建独立的子目录, 写入完成 (或失败) 后删除
+     */
+    private File tempDirectory;
 
+    /**
+     * 流式模式下 每次写入的临时文件总字节数上限 (超出时抛出 TempFileQuotaExceededException)
+     * <p>
+     * 小于等于 0 时 不限制
+     */
+    @Builder.Default
+    private long tempFileQuota = 0;
+
+    /**
+     * 是否并行写入多个 sheet
+     * <p>
+     * 仅在流式模式下生效: 各 sheet 的内容在线程池中并发生成, 分别写入各自的临时文件, 最终统一打包
+     */
+    @Builder.Default
+    private boolean parallel = false;
+
+    /**
+     * 压缩配置 (按部件设置压缩级别, 见 {@link CompressionConfig#fast()})
+     * <p>
+     * 为空时 使用默认压缩级别
+     */
+    private CompressionConfig compressionConfig;
+
+    /**
+     * 字符串存储方式 (属性可以通过注解单独配置, 见 {@link StringStorage})
+     * <p>
+     * 流式模式下 仅 SHARED 使用共享字符串表 (此时不支持并行写入); 直接写入模式下 始终以内联方式写入
+     */
+    @Builder.Default
+    private StringStorage stringStorage = StringStorage.ADAPTIVE;
+
+    /**
+     * 异步写入 (doWriteAsync) 及并行写入 sheet 时使用的线程池
+     * <p>
+     * 两者可以共用同一个有界线程池: 并行写入时 发起写入的线程同样参与写入 sheet, 不会等待线程池中排队的任务.
+     * 为空时 异步写入使用默认线程池, 并行写入每次创建临时线程池 (线程数不超过 sheet 数及 cpu 核数)
+     */
+    private Executor executor;
+
+    /**
+     * 写入进度监听器
+     */
+    private WriteProgressListener progressListener;
+
+    /**
+     * 导出指标 (为空时 不记录)
+     */
+    private ExcelMetrics metrics;
+
+    /**
+     * 进度通知间隔 (每写入多少条数据 通知一次监听器)
+     */
+    @Builder.Default
+    private int progressInterval = 1000;
 
     /**
      * sheet 名字 配置
@@ -44,5 +144,16 @@ public class ExcelConfig {
     @Builder.Default
     private AbstractCellStyleConfig contentCellStyleConfig = new ContentCellStyleConfig();
 
+    /**
+     * 获取工作簿 (未指定时 首次获取时通过 xssfWorkbookSupplier 创建, 之后返回同一个工作簿)
+     *
+     * @return 工作簿
+     */
+    public XSSFWorkbook getXssfWorkbook() {
+        if (xssfWorkbook == null) {
+            xssfWorkbook = xssfWorkbookSupplier != null ? xssfWorkbookSupplier.get() : new XSSFWorkbook();
+        }
+        return xssfWorkbook;
+    }
 
 }
@@ -0,0 +1,259 @@
+package com.zuijianren.excel.config;
+
+import com.zuijianren.excel.config.style.AbstractCellStyleConfig;
+import lombok.Getter;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 表头模板
+ * <p>
+ * 包含表名行及多级表头的单元格值, 样式及合并区域. 每个 SheetConfig 解析时生成一次, 写入时直接按模板写入 sheet,
+ * 无需重复计算表头及检测同名表头 (也无需从已写入的单元格中回读表头的值)
+ * <p>
+ * 样式以槽位的方式保存: 槽位记录样式类型及注解配置的样式, 写入时根据 ExcelConfig 解析为单元格样式 (未配置时使用默认样式)
+ *
+ * @author zuijianren
+ * @date 2023/3/27 10:05
+ */
+public class HeadTemplate {
+
+    /**
+     * 样式类型
+     */
+    public enum StyleType {
+        SHEET_NAME, SERIAL_NUMBER, HEAD
+    }
+
+    /**
+     * 样式槽位
+     */
+    @Getter
+    public static class StyleSlot {
+
+        private final StyleType type;
+
+        /**
+         * 配置的样式 (为空时 使用 ExcelConfig 中对应类型的样式)
+         */
+        private final AbstractCellStyleConfig styleConfig;
+
+        StyleSlot(StyleType type, AbstractCellStyleConfig styleConfig) {
+            this.type = type;
+            this.styleConfig = styleConfig;
+        }
+
+        /**
+         * 获取最终使用的样式配置
+         *
+         * @param excelConfig excel 配置
+         * @return 样式配置
+         */
+        public AbstractCellStyleConfig resolve(ExcelConfig excelConfig) {
+            if (styleConfig != null) {
+                return styleConfig;
+            }
+            switch (type) {
+                case SHEET_NAME:
+                    return excelConfig.getSheetNameStyleConfig();
+                case SERIAL_NUMBER:
+                    return excelConfig.getSerialNumberStyleConfig();
+                default:
+                    return excelConfig.getHeadCellStyleConfig();
+            }
+        }
+    }
+
+    /**
+     * 行数 (包括表名行)
+     */
+    @Getter
+    private final int rowNum;
+
+    /**
+     * 列数
+     */
+    @Getter
+    private final int colNum;
+
+    private final String[][] values; // 单元格的值 (null 表示无值)
+
+    private final int[][] styles; // 单元格的样式槽位 (-1 表示无样式)
+
+    private final List<StyleSlot> styleSlotList = new ArrayList<>();
+
+    private final List<CellRangeAddress> mergedRegionList = new ArrayList<>();
+
+    private HeadTemplate(int rowNum, int colNum) {
+        this.rowNum = rowNum;
+        this.colNum = colNum;
+        this.values = new String[rowNum][colNum];
+        this.styles = new int[rowNum][colNum];
+        for (int[] row : styles) {
+            Arrays.fill(row, -1);
+        }
+    }
+
+    /**
+     * 获取单元格的值
+     *
+     * @return 值 (null 表示无值)
+     */
+    public String getValue(int row, int col) {
+        return values[row][col];
+    }
+
+    /**
+     * 获取单元格的样式槽位
+     *
+     * @return 槽位下标 (-1 表示无样式)
+     */
+    public int getStyleSlotIndex(int row, int col) {
+        return styles[row][col];
+    }
+
+    /**
+     * 样式槽位 (下标即槽位)
+     */
+    public List<StyleSlot> getStyleSlots() {
+        return Collections.unmodifiableList(styleSlotList);
+    }
+
+    /**
+     * 合并区域 (互不重叠)
+     */
+    public List<CellRangeAddress> getMergedRegions() {
+        return Collections.unmodifiableList(mergedRegionList);
+    }
+
+    /**
+     * 根据 sheet 配置生成表头模板 (配置需已完成布局计算)
+     *
+     * @param sheetConfig sheet 配置
+     * @return 表头模板
+     */
+    static HeadTemplate of(SheetConfig sheetConfig) {
+        int colNum = sheetConfig.getColNum();
+        int size = sheetConfig.getRowNum();
+        int rowPosition = sheetConfig.getHeadRowPosition();
+        HeadTemplate template = new HeadTemplate(rowPosition + size, colNum);
+
+        // 表名 (横向合并所有列)
+        if (sheetConfig.isShowSheetName() && colNum > 0) {
+            int style = template.slot(StyleType.SHEET_NAME, sheetConfig.getSheetNameStyleConfig());
+            template.set(0, 0, sheetConfig.getSheetName(), style);
+            template.merge(0, 0, 0, colNum - 1, style);
+        }
+
+        // 序号列 (纵向合并所有表头行)
+        int colPosition = 0;
+        if (sheetConfig.isShowSerialNumber()) {
+            int style = template.slot(StyleType.SERIAL_NUMBER, sheetConfig.getSerialNumberStyleConfig());
+            template.merge(rowPosition, rowPosition + size - 1, 0, 0, style);
+            template.set(rowPosition, colPosition++, "序号", style);
+        }
+
+        // 表头
+        template.fillHead(sheetConfig.getPropertyConfigList(), rowPosition, colPosition, size);
+
+        // 合并同名表头 (横向)
+        template.mergeSameHead(rowPosition, size);
+        return template;
+    }
+
+    /**
+     * 填充表头 (根据 propertyConfigList)
+     */
+    private void fillHead(List<PropertyConfig> propertyConfigList, int rowPosition, int colPosition, int size) {
+        for (PropertyConfig propertyConfig : propertyConfigList) {
+            int style = slot(StyleType.HEAD, propertyConfig.getHeadCellStyleConfig());
+            String[] value = propertyConfig.getValue();
+            int currentRowPosition = rowPosition; // 当前行数 每个属性单独计算
+            int rem = size; // 剩余可分配行数
+            if (!propertyConfig.isNested()) {
+                // 每一个值占一行  最后一行占剩余所有行
+                for (int i = 0; i < value.length; i++) {
+                    if (i == value.length - 1) {
+                        merge(currentRowPosition, currentRowPosition + rem - 1, colPosition, colPosition, style);
+                    }
+                    set(currentRowPosition++, colPosition, value[i], style);
+                    rem--;
+                }
+            } else {
+                // 如果要展示当前表头 则写入当前表头 (横向合并所占的列)
+                if (propertyConfig.isShowCurrentName()) {
+                    for (String currentValue : value) {
+                        merge(currentRowPosition, currentRowPosition, colPosition, colPosition + propertyConfig.getColNum() - 1, style);
+                        set(currentRowPosition++, colPosition, currentValue, style);
+                        rem--;
+                    }
+                }
+                fillHead(propertyConfig.getChildPropertyConfigList(), currentRowPosition, colPosition, rem);
+            }
+            colPosition += propertyConfig.getColNum();
+        }
+    }
+
+    /**
+     * 合并同名表头: 同一行中 相邻且值相同(非空)的单元格 横向合并, 使用最后一个单元格的样式
+     */
+    private void mergeSameHead(int rowPosition, int size) {
+        for (int r = rowPosition; r < rowPosition + size; r++) {
+            int start = 0;
+            for (int c = 1; c <= colNum; c++) {
+                String startValue = values[r][start];
+                if (c < colNum && startValue != null && !startValue.isEmpty() && startValue.equals(values[r][c])) {
+                    continue;
+                }
+                merge(r, r, start, c - 1, styles[r][c - 1]);
+                start = c;
+            }
+        }
+    }
+
+    private void set(int row, int col, String value, int style) {
+        values[row][col] = value;
+        styles[row][col] = style;
+    }
+
+    /**
+     * 合并区域 并为区域内的单元格设置样式
+     * <p>
+     * 单个单元格无需合并; 与已有区域重叠时 跳过
+     */
+    private void merge(int firstRow, int lastRow, int firstCol, int lastCol, int style) {
+        if (firstRow >= lastRow && firstCol >= lastCol) {
+            return;
+        }
+        CellRangeAddress region = new CellRangeAddress(firstRow, lastRow, firstCol, lastCol);
+        for (CellRangeAddress mergedRegion : mergedRegionList) {
+            if (mergedRegion.intersects(region)) {
+                return;
+            }
+        }
+        mergedRegionList.add(region);
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstCol; c <= lastCol; c++) {
+                styles[r][c] = style;
+            }
+        }
+    }
+
+    /**
+     * 获取样式槽位 (相同类型及配置的样式共用一个槽位)
+     */
+    private int slot(StyleType type, AbstractCellStyleConfig styleConfig) {
+        for (int i = 0; i < styleSlotList.size(); i++) {
+            StyleSlot styleSlot = styleSlotList.get(i);
+            if (styleSlot.type == type && styleSlot.styleConfig == styleConfig) {
+                return i;
+            }
+        }
+        styleSlotList.add(new StyleSlot(type, styleConfig));
+        return styleSlotList.size() - 1;
+    }
+}
@@ -1,23 +1,34 @@
 package com.zuijianren.excel.config;
 
+import com.zuijianren.excel.accessor.PropertyAccessor;
 import com.zuijianren.excel.config.style.AbstractCellStyleConfig;
 import com.zuijianren.excel.converter.ExcelConverter;
+import com.zuijianren.excel.writer.CellWriter;
+import com.zuijianren.excel.writer.CellWriters;
+import lombok.AccessLevel;
 import lombok.Builder;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * 属性配置
+ * <p>
+ * 与 {@link SheetConfig} 一同缓存并在多个线程之间共享, 因此不提供 setter: 通过 builder 创建, {@link #initLayout()} 之后不再修改
  *
  * @author zuijianren
  * @date 2023/3/13 11:04
  */
 @Builder
-@Data
+@Getter
+@ToString
+@EqualsAndHashCode
 public class PropertyConfig implements Comparable<PropertyConfig> {
 
     /**
@@ -63,15 +74,29 @@ public class PropertyConfig implements Comparable<PropertyConfig> {
     private Field field;
 
     /**
-     * 反射字段的get方法
+     * 反射字段的get方法 (使用编译期元数据解析时为空, 见 SheetMetadata)
      */
     private Method method;
 
+    /**
+     * 属性访问器
+     * <p>
+     * 解析时根据 get 方法编译生成, 写入数据时 替代反射调用 method
+     */
+    private PropertyAccessor accessor;
+
     /**
      * 转换器
      */
     private ExcelConverter converter;
 
+    /**
+     * 单元格写入器 (解析时根据写入类型选择, 见 {@link CellWriters} 及 {@link #initLayout()})
+     * <p>
+     * 普通属性: 读取属性值并写入; multi 属性: 写入集合中的元素; 内嵌属性及图片: 为空
+     */
+    private CellWriter cellWriter;
+
     /**
      * 是否展示当前的名字(即 是否以当前名字包裹下一级的名字)
      * <p>
@@ -80,7 +105,14 @@ public class PropertyConfig implements Comparable<PropertyConfig> {
     private boolean showCurrentName;
 
     /**
-     * 子属性配置集合
+     * 字符串存储方式
+     * <p>
+     * 为空时 使用全局配置
+     */
+    private StringStorage stringStorage;
+
+    /**
+     * 子属性配置集合 (布局计算后不可修改)
      * <p>
      * 如果某个 property 为复杂对象, 则需要配置当前项
      */
@@ -107,40 +139,52 @@ public class PropertyConfig implements Comparable<PropertyConfig> {
     }
 
     /**
-     * 获取当前属性所占列数
+     * 当前属性所占列数
      * <p>
-     * 通常情况下为 1, 仅在 nested 为 true 时, 有变化
-     *
-     * @return 列数
+     * 通常情况下为 1, 仅在 nested 为 true 时, 有变化 (解析时计算, 见 {@link #initLayout()})
      */
-    public int getColNum() {
-        // 如果不是 内嵌 类型  则 只占一列
-        if (!this.nested) {
-            return 1;
-        }
-        int result = 0;
-        for (PropertyConfig propertyConfig : this.childPropertyConfigList) {
-            result = result + propertyConfig.getColNum();
-        }
-        return result;
-    }
+    private int colNum;
+
+    /**
+     * 当前属性表头所占行数 (解析时计算, 见 {@link #initLayout()})
+     */
+    private int rowNum;
 
     /**
-     * 获取总行数
+     * 布局是否已计算
+     */
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private boolean layoutInitialized;
+
+    /**
+     * 计算布局信息 (列数及表头行数) 并选择单元格写入器
+     * <p>
+     * 解析完成后调用一次, 子属性需已完成计算. 写入数据时 直接读取计算结果, 无需递归
      *
-     * @return 行数
+     * @throws IllegalStateException 已计算过布局
      */
-    public int getRowNum() {
+    public void initLayout() {
+        if (this.layoutInitialized) {
+            throw new IllegalStateException("属性配置的布局已计算, 不能再次修改: " + this.field);
+        }
+        this.layoutInitialized = true;
+        this.cellWriter = CellWriters.of(this);
+        // 如果不是 内嵌 类型  则 只占一列
         if (!this.nested) {
-            return this.value.length;
+            this.colNum = 1;
+            this.rowNum = this.value.length;
+            return;
         }
-        int result = 0;
-        if (showCurrentName) {
-            result = this.value.length;
+        this.childPropertyConfigList = Collections.unmodifiableList(new ArrayList<>(this.childPropertyConfigList));
+        int colNum = 0;
+        int childRowNum = 0; // 下一级的行数
+        for (PropertyConfig propertyConfig : this.childPropertyConfigList) {
+            colNum += propertyConfig.getColNum();
+            childRowNum = Math.max(childRowNum, propertyConfig.getRowNum());
         }
-        // 获取 下一级的行数
-        Integer nextRowNum = childPropertyConfigList.stream().map(PropertyConfig::getRowNum).max(Comparator.naturalOrder()).orElse(0);
-        result = result + nextRowNum;
-        return result;
+        this.colNum = colNum;
+        this.rowNum = (showCurrentName ? this.value.length : 0) + childRowNum;
     }
 }
@@ -1,22 +1,34 @@
 package com.zuijianren.excel.config;
 
 import com.zuijianren.excel.config.style.AbstractCellStyleConfig;
+import lombok.AccessLevel;
 import lombok.Builder;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * sheet 配置
+ * <p>
+ * 解析后缓存并在多个线程之间共享, 因此不提供 setter: 通过 builder 创建, {@link #initLayout()} 之后不再修改
  *
  * @author zuijianren
  * @date 2023/3/13 11:02
  */
 @Builder
-@Data
+@Getter
+@ToString
+@EqualsAndHashCode
 public class SheetConfig {
 
+    /**
+     * 对应的导出类
+     */
+    private Class<?> type;
 
     /**
      * 表名
@@ -39,7 +51,7 @@ public class SheetConfig {
     private boolean freezeHead;
 
     /**
-     * 属性
+     * 属性 (布局计算后不可修改)
      */
     private List<PropertyConfig> propertyConfigList;
 
@@ -75,25 +87,98 @@ public class SheetConfig {
     private boolean hasMulti;
 
     /**
-     * 根据当前配置 计算列数
+     * 当前 sheet 表总列数 (包括序号列. 解析时计算, 见 {@link #initLayout()})
+     */
+    private int colNum;
+
+    /**
+     * 表头所占行数 (解析时计算, 见 {@link #initLayout()})
+     */
+    private int rowNum;
+
+    /**
+     * 每一列对应的属性 (内嵌属性按列展开, 序号列为 null. 解析时计算, 见 {@link #initLayout()})
+     * <p>
+     * 下标即列位置, 写入数据时 可直接根据列位置获取属性配置 (如内容样式)
+     */
+    @Getter(AccessLevel.NONE)
+    private PropertyConfig[] columns;
+
+    /**
+     * 表头模板 (包括表名行. 解析时生成, 见 {@link #initLayout()})
+     */
+    private HeadTemplate headTemplate;
+
+    /**
+     * 计算布局信息 (列数, 表头行数, 列对应的属性及表头模板)
+     * <p>
+     * 解析完成后调用一次, 属性需已完成计算
      *
-     * @return 当前 sheet 表总列数 (需要注意序号列)
+     * @throws IllegalStateException 已计算过布局
      */
-    public int getColNum() {
-        int result = 0;
-        if (this.showSerialNumber) {
-            result++;
+    public void initLayout() {
+        if (this.headTemplate != null) {
+            throw new IllegalStateException("sheet 配置的布局已计算, 不能再次修改: " + this.type);
         }
+        this.propertyConfigList = Collections.unmodifiableList(new ArrayList<>(this.propertyConfigList));
+        int colNum = this.showSerialNumber ? 1 : 0;
+        int rowNum = 0;
         for (PropertyConfig propertyConfig : this.propertyConfigList) {
-            result = result + propertyConfig.getColNum();
+            colNum += propertyConfig.getColNum();
+            rowNum = Math.max(rowNum, propertyConfig.getRowNum());
         }
-        return result;
+        this.colNum = colNum;
+        this.rowNum = rowNum;
+        this.columns = new PropertyConfig[colNum];
+        fillColumns(this.propertyConfigList, this.showSerialNumber ? 1 : 0);
+        this.headTemplate = HeadTemplate.of(this);
     }
 
     /**
-     * 计算行数
+     * 获取每一列对应的属性
+     *
+     * @return 属性 (副本, 下标即列位置, 序号列为 null)
      */
-    public int getRowNum() {
-        return propertyConfigList.stream().map(PropertyConfig::getRowNum).max(Comparator.naturalOrder()).orElse(0);
+    public PropertyConfig[] getColumns() {
+        return this.columns.clone();
+    }
+
+    /**
+     * 获取指定列对应的属性
+     *
+     * @param colPosition 列位置
+     * @return 属性 (序号列为 null)
+     */
+    public PropertyConfig getColumn(int colPosition) {
+        return this.columns[colPosition];
+    }
+
+    /**
+     * 获取表头的起始行 (首行展示表名时 表头从第二行开始)
+     *
+     * @return 起始行
+     */
+    public int getHeadRowPosition() {
+        return this.showSheetName ? 1 : 0;
+    }
+
+    /**
+     * 获取内容的起始行
+     *
+     * @return 起始行
+     */
+    public int getContentRowPosition() {
+        return getHeadRowPosition() + this.rowNum;
+    }
+
+    private int fillColumns(List<PropertyConfig> propertyConfigList, int colPosition) {
+        for (PropertyConfig propertyConfig : propertyConfigList) {
+            if (propertyConfig.isNested()) {
+                colPosition = fillColumns(propertyConfig.getChildPropertyConfigList(), colPosition);
+            } else {
+                this.columns[colPosition++] = propertyConfig;
+            }
+        }
+        return colPosition;
     }
 }
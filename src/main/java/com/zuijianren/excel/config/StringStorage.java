@@ -0,0 +1,38 @@
+package com.zuijianren.excel.config;
+
+/**
+ * 字符串存储方式
+ *
+ * @author zuijianren
+ * @date 2023/4/1 14:00
+ */
+public enum StringStorage {
+
+    /**
+     * 使用全局配置 (仅用于注解)
+     */
+    DEFAULT,
+
+    /**
+     * 共享字符串
+     * <p>
+     * 相同的字符串在共享字符串表中仅保存一次, 单元格中保存其下标. 适合重复值较多的列 (如 状态, 类别), 文件更小.
+     * 写入期间共享字符串表 (及用于去重的哈希表) 常驻内存
+     */
+    SHARED,
+
+    /**
+     * 内联字符串
+     * <p>
+     * 字符串直接保存在单元格中, 不经过共享字符串表. 适合几乎不重复的列 (如 id, uuid, 备注)
+     */
+    INLINE,
+
+    /**
+     * 自适应
+     * <p>
+     * 内存模式下 以每列写入的前若干个字符串为样本统计不同值的比例, 比例较高的列改为内联写入, 其余列继续使用共享字符串.
+     * 流式模式下 无法按列选择 (由工作簿统一决定), 按内联方式写入
+     */
+    ADAPTIVE
+}
@@ -0,0 +1,32 @@
+package com.zuijianren.excel.config;
+
+/**
+ * 写入模式
+ *
+ * @author zuijianren
+ * @date 2023/3/20 10:12
+ */
+public enum WriteMode {
+
+    /**
+     * 内存模式
+     * <p>
+     * 所有行均保存在 XSSFWorkbook 中, 写出时统一序列化 (适合数据量较小的场景)
+     */
+    MEMORY,
+
+    /**
+     * 流式模式
+     * <p>
+     * 基于 SXSSFWorkbook, 内存中仅保留滑动窗口内的行, 超出窗口的行会被刷入临时文件 (适合大数据量导出)
+     */
+    STREAMING,
+
+    /**
+     * 直接写入模式
+     * <p>
+     * 不创建 poi 的行及单元格对象, 直接生成 sheet xml 并边生成边写入输出流 (内存占用与数据量无关, 吞吐量最高).
+     * 字符串以内联方式写入; 不支持 multi 属性及图片
+     */
+    DIRECT
+}
@@ -1,9 +1,10 @@
 package com.zuijianren.excel.config.style;
 
 import lombok.Data;
-import lombok.experimental.SuperBuilder;
+import lombok.Value;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFFont;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 /**
@@ -34,10 +35,13 @@ public abstract class AbstractCellStyleConfig {
     public CellStyle createCellStyle(XSSFWorkbook xssfWorkbook) {
         XSSFCellStyle cellStyle = xssfWorkbook.createCellStyle();
 
-        // 设置字体样式
-        Font titleFont = xssfWorkbook.createFont();
-        titleFont.setBold(bold); // 设置为粗体
-        titleFont.setColor(fontColor);
+        // 设置字体样式 (工作簿中已存在相同字体时 直接复用)
+        Font titleFont = xssfWorkbook.findFont(bold, fontColor, (short) (XSSFFont.DEFAULT_FONT_SIZE * 20), XSSFFont.DEFAULT_FONT_NAME, false, false, Font.SS_NONE, Font.U_NONE);
+        if (titleFont == null) {
+            titleFont = xssfWorkbook.createFont();
+            titleFont.setBold(bold); // 设置为粗体
+            titleFont.setColor(fontColor);
+        }
         cellStyle.setFont(titleFont);
 
         // 设置背景样式
@@ -62,4 +66,29 @@ public abstract class AbstractCellStyleConfig {
 
         return cellStyle;
     }
+
+    /**
+     * 获取样式标识
+     * <p>
+     * 同一工作簿中, 标识相同的样式配置仅会创建一次 CellStyle (见 CellStyleRegistry).
+     * 默认根据配置类型及实际生效的属性生成; 如果子类重写了 createCellStyle 并引入了额外的属性, 需要同时重写当前方法
+     *
+     * @return 样式标识
+     */
+    public Object styleKey() {
+        return new StyleKey(getClass(), fontColor, bgColor, borderColor, borderStyle, bold);
+    }
+
+    /**
+     * 默认的样式标识
+     */
+    @Value
+    private static class StyleKey {
+        Class<?> type;
+        short fontColor;
+        short bgColor;
+        short borderColor;
+        BorderStyle borderStyle;
+        boolean bold;
+    }
 }
@@ -1,6 +1,8 @@
 package com.zuijianren.excel.converter;
 
 /**
+ * 转换器 (写入时使用). 读取时需要反向转换的 实现 {@link ReversibleExcelConverter}
+ *
  * @author zuijianren
  * @date 2023/3/13 10:38
  */
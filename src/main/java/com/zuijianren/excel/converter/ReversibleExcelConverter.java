@@ -0,0 +1,20 @@
+package com.zuijianren.excel.converter;
+
+/**
+ * 可反向转换的转换器
+ * <p>
+ * 读取时 使用了转换器的属性 需要转换器实现当前接口, 否则读取时抛出异常
+ *
+ * @author zuijianren
+ * @date 2023/4/3 14:00
+ */
+public interface ReversibleExcelConverter<T, R> extends ExcelConverter<T, R> {
+
+    /**
+     * 反向转换 (读取时使用, 将单元格中的值 转换为属性值)
+     *
+     * @param r 单元格中的值
+     * @return 属性值
+     */
+    T reverseConvert(R r);
+}
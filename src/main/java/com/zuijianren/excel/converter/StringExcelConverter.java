@@ -6,13 +6,18 @@ package com.zuijianren.excel.converter;
  * @author zuijianren
  * @date 2023/3/13 10:38
  */
-public class StringExcelConverter implements ExcelConverter<Integer, String> {
+public class StringExcelConverter implements ReversibleExcelConverter<Integer, String> {
 
     @Override
     public String convert(Integer i) {
         return i + "";
     }
 
+    @Override
+    public Integer reverseConvert(String s) {
+        return s == null || s.isEmpty() ? null : Integer.valueOf(s);
+    }
+
     public StringExcelConverter() {
         System.out.println("construct");
     }
@@ -0,0 +1,56 @@
+package com.zuijianren.excel.core;
+
+import com.zuijianren.excel.config.style.AbstractCellStyleConfig;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 单元格样式注册表
+ * <p>
+ * 与工作簿一一对应. 根据 {@link AbstractCellStyleConfig#styleKey()} 缓存已创建的样式,
+ * 相同的样式在同一工作簿中仅创建一次, 之后所有单元格复用同一对象 (避免触发 excel 样式及字体数量上限)
+ * <p>
+ * 线程安全: 命中缓存时无锁, 创建样式时加锁 (工作簿的样式表非线程安全), 可供并行写入的多个 sheet 共同使用
+ *
+ * @author zuijianren
+ * @date 2023/3/20 14:35
+ */
+public class CellStyleRegistry {
+
+    private final XSSFWorkbook xssfWorkbook; // 样式所属的工作簿 (流式模式下为模板工作簿)
+
+    private final Map<Object, CellStyle> cellStyleCache = new ConcurrentHashMap<>();
+
+    public CellStyleRegistry(XSSFWorkbook xssfWorkbook) {
+        this.xssfWorkbook = xssfWorkbook;
+    }
+
+    /**
+     * 获取样式 (不存在时创建)
+     *
+     * @param styleConfig 样式配置
+     * @return 单元格样式
+     */
+    public CellStyle getCellStyle(AbstractCellStyleConfig styleConfig) {
+        Object styleKey = styleConfig.styleKey();
+        CellStyle cellStyle = cellStyleCache.get(styleKey);
+        if (cellStyle != null) {
+            return cellStyle;
+        }
+        synchronized (this) {
+            return cellStyleCache.computeIfAbsent(styleKey, key -> styleConfig.createCellStyle(xssfWorkbook));
+        }
+    }
+
+    /**
+     * 已创建的样式数量
+     *
+     * @return 样式数量
+     */
+    public int size() {
+        return cellStyleCache.size();
+    }
+}
@@ -0,0 +1,157 @@
+package com.zuijianren.excel.core;
+
+import com.zuijianren.excel.exceptions.ParserException;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 以类为键的并发缓存
+ * <p>
+ * 缓存值通过 {@link ClassValue} 挂载在对应的 Class 对象上:
+ * <ul>
+ *     <li>读取无锁 (命中缓存时仅为一次 ClassValue 查找)</li>
+ *     <li>每个类仅计算一次: 未命中时由第一个线程计算, 同一个类的其他线程等待其结果. 计算在锁外进行, 不同的类可以同时计算</li>
+ *     <li>计算过程中可以再次访问缓存: 同一线程再次获取正在计算的类时 直接重新计算 (由计算方法自行检测循环, 见 ExcelParser)</li>
+ *     <li>跨线程的循环等待 (线程 1 计算 A 时等待 B, 线程 2 计算 B 时等待 A) 在等待前检测, 抛出 {@link ParserException} 而不是死锁</li>
+ *     <li>感知类加载器: 缓存值随 Class 对象一起回收, 热部署时不会导致旧的类加载器无法卸载</li>
+ * </ul>
+ * 计算过程中抛出异常时 不会缓存结果, 下次获取时重新计算 (等待中的线程之一接手计算)
+ *
+ * @author zuijianren
+ * @date 2023/3/21 15:20
+ */
+final class ConcurrentClassCache<V> {
+
+    /**
+     * 计算状态的锁 (所有缓存共用, 仅在登记 / 释放计算者及等待时持有, 不在锁内计算)
+     */
+    private static final Object LOCK = new Object();
+
+    /**
+     * 正在等待的线程 及其等待的容器 (用于检测跨线程的循环等待, 受 LOCK 保护)
+     */
+    private static final Map<Thread, Holder<?>> WAITING = new IdentityHashMap<>();
+
+    private final Function<Class<?>, V> loader; // 缓存值的计算方法
+
+    private volatile ClassValue<Holder<V>> values = newClassValue();
+
+    ConcurrentClassCache(Function<Class<?>, V> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * 获取缓存值 (不存在时计算)
+     *
+     * @param clazz 类
+     * @return 缓存值
+     */
+    V get(Class<?> clazz) {
+        Holder<V> holder = values.get(clazz);
+        V value = holder.value;
+        if (value != null) {
+            return value;
+        }
+        Thread current = Thread.currentThread();
+        boolean reentrant;
+        synchronized (LOCK) {
+            boolean interrupted = false;
+            try {
+                while (holder.value == null && holder.owner != null && holder.owner != current) {
+                    checkDeadlock(holder, current, clazz);
+                    WAITING.put(current, holder);
+                    try {
+                        LOCK.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    } finally {
+                        WAITING.remove(current);
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    current.interrupt();
+                }
+            }
+            if (holder.value != null) {
+                return holder.value;
+            }
+            reentrant = holder.owner == current;
+            holder.owner = current;
+        }
+        try {
+            value = loader.apply(clazz);
+            synchronized (LOCK) {
+                if (holder.value == null) {
+                    holder.value = value;
+                }
+                return holder.value;
+            }
+        } finally {
+            if (!reentrant) {
+                synchronized (LOCK) {
+                    holder.owner = null;
+                    LOCK.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * 等待前检测循环等待: 沿 "计算者 -> 其等待的容器 -> 容器的计算者" 查找, 回到当前线程即为循环
+     *
+     * @param holder  将要等待的容器
+     * @param current 当前线程
+     * @param clazz   将要等待的类
+     */
+    private static void checkDeadlock(Holder<?> holder, Thread current, Class<?> clazz) {
+        Thread owner = holder.owner;
+        // 等待链的长度不超过等待中的线程数
+        for (int i = 0; owner != null && i <= WAITING.size(); i++) {
+            if (owner == current) {
+                throw new ParserException("导出类之间存在循环引用 (与其他线程的解析互相等待): " + clazz);
+            }
+            Holder<?> waitingFor = WAITING.get(owner);
+            owner = waitingFor == null ? null : waitingFor.owner;
+        }
+    }
+
+    /**
+     * 移除指定类的缓存
+     *
+     * @param clazz 类
+     */
+    void remove(Class<?> clazz) {
+        values.remove(clazz);
+    }
+
+    /**
+     * 清空缓存
+     * <p>
+     * 替换 ClassValue 对象后, 旧的缓存值将不再可达, 随之被回收
+     */
+    void clear() {
+        values = newClassValue();
+    }
+
+    private static <V> ClassValue<Holder<V>> newClassValue() {
+        return new ClassValue<Holder<V>>() {
+            @Override
+            protected Holder<V> computeValue(Class<?> type) {
+                return new Holder<>();
+            }
+        };
+    }
+
+    /**
+     * 缓存值的容器
+     * <p>
+     * ClassValue 在并发时可能多次调用 computeValue, 但最终只有一个容器生效, 因此实际的计算放在容器中进行
+     */
+    private static final class Holder<V> {
+        private volatile V value;
+        private Thread owner; // 正在计算的线程 (受 LOCK 保护)
+    }
+}
@@ -0,0 +1,569 @@
+package com.zuijianren.excel.core;
+
+import com.zuijianren.excel.config.CompressionConfig;
+import com.zuijianren.excel.config.ExcelConfig;
+import com.zuijianren.excel.config.HeadTemplate;
+import com.zuijianren.excel.config.PropertyConfig;
+import com.zuijianren.excel.config.SheetConfig;
+import com.zuijianren.excel.config.style.AbstractCellStyleConfig;
+import com.zuijianren.excel.converter.ExcelConverter;
+import com.zuijianren.excel.pojo.ExcelData;
+import com.zuijianren.excel.writer.CellValueSink;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.WorkbookUtil;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 直接写入模式的工作簿写入器
+ * <p>
+ * 绕过 poi usermodel (不创建 Row / Cell 对象), 根据 PropertyConfig 直接生成 sheet xml, 边生成边写入 zip 输出流.
+ * 依次调用 {@link #open}, {@link #writeSheet} 及 {@link #finish}, 每个对象仅写入一个工作簿.
+ * 字符串以内联方式写入, 样式仍通过 {@link CellStyleRegistry} 在模板工作簿中创建, 最终序列化为 styles.xml.
+ * <p>
+ * 仅支持扁平的导出类: 不支持 multi 属性及图片 (内嵌对象按列展开写入)
+ *
+ * @author zuijianren
+ * @date 2023/3/24 10:15
+ */
+class DirectWorkbookWriter {
+
+    private static final String XML_HEAD = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String NS_MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String NS_RELATIONSHIPS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String NS_PACKAGE_RELATIONSHIPS = "http://schemas.openxmlformats.org/package/2006/relationships";
+
+    private final ExcelConfig excelConfig;
+    private final CellStyleRegistry cellStyleRegistry;
+
+    private ZipOutputStream zos;
+    private XmlOutput out;
+    private final List<String> sheetNameList = new ArrayList<>();
+    private final Set<String> sheetNameSet = new HashSet<>(); // 大写的 sheet 名 (校验重名)
+
+    DirectWorkbookWriter(ExcelConfig excelConfig, CellStyleRegistry cellStyleRegistry) {
+        this.excelConfig = excelConfig;
+        this.cellStyleRegistry = cellStyleRegistry;
+    }
+
+    /**
+     * 开始写入工作簿
+     * <p>
+     * 压缩包中的部件顺序无关紧要: sheet 依次写入后, 工作簿结构 (依赖 sheet 数量及名称) 及样式在 {@link #finish()} 时写入
+     *
+     * @param os 输出流 (不会被关闭)
+     */
+    void open(OutputStream os) {
+        zos = new ZipOutputStream(os);
+        out = new XmlOutput(new OutputStreamWriter(zos, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 写入一个 sheet (写入完成后 对应的数据可以立即释放)
+     *
+     * @param excelData     渲染数据
+     * @param sheetProgress 写入进度
+     * @throws IOException 写入失败
+     */
+    void writeSheet(ExcelData excelData, WriteProgress.SheetProgress sheetProgress) throws IOException {
+        SheetConfig sheetConfig = excelData.getSheetConfig();
+        sheetNameList.add(validate(sheetConfig, sheetNameSet));
+        int sheetNum = sheetNameList.size();
+        putEntry(zos, "xl/worksheets/sheet" + sheetNum + ".xml");
+        if (sheetNum == 1) {
+            zos.flush(); // 尽早输出首个字节 (如 http 响应)
+        }
+        writeSheet(out, sheetConfig, excelData.getDataIterator(), sheetNum == 1, sheetProgress);
+    }
+
+    /**
+     * 完成工作簿的写入 (输出流不会被关闭)
+     *
+     * @return 写入 sheet 之后 (包结构, 样式及压缩包结尾) 的耗时 (纳秒)
+     * @throws IOException 写入失败
+     */
+    long finish() throws IOException {
+        long serializeStart = System.nanoTime();
+        int sheetNum = sheetNameList.size();
+
+        // 包结构
+        putEntry(zos, "[Content_Types].xml");
+        writeContentTypes(out, sheetNum);
+        out.flush();
+
+        putEntry(zos, "_rels/.rels");
+        out.write(XML_HEAD).write("<Relationships xmlns=\"").write(NS_PACKAGE_RELATIONSHIPS).write("\">")
+                .write("<Relationship Id=\"rId1\" Type=\"").write(NS_RELATIONSHIPS).write("/officeDocument\" Target=\"xl/workbook.xml\"/>")
+                .write("</Relationships>");
+        out.flush();
+
+        putEntry(zos, "xl/workbook.xml");
+        writeWorkbook(out, sheetNameList);
+        out.flush();
+
+        putEntry(zos, "xl/_rels/workbook.xml.rels");
+        writeWorkbookRelationships(out, sheetNum);
+        out.flush();
+
+        // 样式 (写入 sheet 时按需创建, 因此最后写入)
+        putEntry(zos, "xl/styles.xml");
+        excelConfig.getXssfWorkbook().getStylesSource().writeTo(zos);
+
+        zos.finish();
+        zos.flush();
+        return System.nanoTime() - serializeStart;
+    }
+
+    /**
+     * 校验所有 sheet 配置 (写入前校验, 避免输出不完整的内容)
+     *
+     * @param dataSource 渲染数据
+     */
+    static void validate(List<ExcelData> dataSource) {
+        Set<String> sheetNameSet = new HashSet<>();
+        for (ExcelData excelData : dataSource) {
+            validate(excelData.getSheetConfig(), sheetNameSet);
+        }
+    }
+
+    /**
+     * 校验 sheet 配置
+     *
+     * @param sheetConfig  sheet 配置
+     * @param sheetNameSet 已有的 sheet 名 (大写)
+     * @return sheet 名
+     */
+    private static String validate(SheetConfig sheetConfig, Set<String> sheetNameSet) {
+        String sheetName = sheetConfig.getSheetName();
+        if (!supports(sheetConfig)) {
+            throw new IllegalArgumentException("直接写入模式不支持 multi 属性及图片. sheet: " + sheetName);
+        }
+        WorkbookUtil.validateSheetName(sheetName);
+        if (!sheetNameSet.add(sheetName.toUpperCase(Locale.ROOT))) {
+            throw new IllegalArgumentException("The workbook already contains a sheet named '" + sheetName + "'");
+        }
+        return sheetName;
+    }
+
+    /**
+     * 是否支持直接写入 (不含 multi 属性及图片)
+     *
+     * @param sheetConfig sheet 配置
+     * @return 是否支持
+     */
+    static boolean supports(SheetConfig sheetConfig) {
+        if (sheetConfig.isHasMulti()) {
+            return false;
+        }
+        for (PropertyConfig column : sheetConfig.getColumns()) {
+            if (column != null && PictureRegistry.isPictureType(column.getWriteType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeContentTypes(XmlOutput out, int sheetNum) throws IOException {
+        out.write(XML_HEAD).write("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                .write("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                .write("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                .write("<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>")
+                .write("<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>");
+        for (int i = 1; i <= sheetNum; i++) {
+            out.write("<Override PartName=\"/xl/worksheets/sheet").write(i)
+                    .write(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+        out.write("</Types>");
+    }
+
+    private void writeWorkbook(XmlOutput out, List<String> sheetNameList) throws IOException {
+        out.write(XML_HEAD).write("<workbook xmlns=\"").write(NS_MAIN).write("\" xmlns:r=\"").write(NS_RELATIONSHIPS).write("\">")
+                .write("<bookViews><workbookView activeTab=\"0\"/></bookViews><sheets>");
+        for (int i = 1; i <= sheetNameList.size(); i++) {
+            out.write("<sheet name=\"").writeEscaped(sheetNameList.get(i - 1)).write("\" sheetId=\"").write(i)
+                    .write("\" r:id=\"rId").write(i).write("\"/>");
+        }
+        out.write("</sheets></workbook>");
+    }
+
+    private void writeWorkbookRelationships(XmlOutput out, int sheetNum) throws IOException {
+        out.write(XML_HEAD).write("<Relationships xmlns=\"").write(NS_PACKAGE_RELATIONSHIPS).write("\">");
+        for (int i = 1; i <= sheetNum; i++) {
+            out.write("<Relationship Id=\"rId").write(i).write("\" Type=\"").write(NS_RELATIONSHIPS)
+                    .write("/worksheet\" Target=\"worksheets/sheet").write(i).write(".xml\"/>");
+        }
+        out.write("<Relationship Id=\"rId").write(sheetNum + 1).write("\" Type=\"").write(NS_RELATIONSHIPS)
+                .write("/styles\" Target=\"styles.xml\"/>");
+        out.write("</Relationships>");
+    }
+
+    /**
+     * 写入 sheet xml
+     *
+     * @param out           输出
+     * @param sheetConfig   sheet 配置
+     * @param dataIterator  数据
+     * @param selected      是否为选中的 sheet
+     * @param sheetProgress 写入进度
+     */
+    private void writeSheet(XmlOutput out, SheetConfig sheetConfig, Iterator<?> dataIterator, boolean selected, WriteProgress.SheetProgress sheetProgress) throws IOException {
+        int colNum = sheetConfig.getColNum();
+        String[] colNames = new String[colNum];
+        for (int i = 0; i < colNum; i++) {
+            colNames[i] = CellReference.convertNumToColString(i);
+        }
+        HeadTemplate headTemplate = sheetConfig.getHeadTemplate();
+        int headRowNum = headTemplate.getRowNum();
+
+        out.write(XML_HEAD).write("<worksheet xmlns=\"").write(NS_MAIN).write("\" xmlns:r=\"").write(NS_RELATIONSHIPS).write("\">");
+
+        // 视图 (冻结首行和表头)
+        out.write("<sheetViews><sheetView workbookViewId=\"0\"");
+        if (selected) {
+            out.write(" tabSelected=\"1\"");
+        }
+        if (sheetConfig.isFreezeHead()) {
+            out.write("><pane xSplit=\"").write(colNum).write("\" ySplit=\"").write(headRowNum)
+                    .write("\" topLeftCell=\"").write(CellReference.convertNumToColString(colNum)).write(headRowNum + 1)
+                    .write("\" activePane=\"bottomRight\" state=\"frozen\"/></sheetView></sheetViews>");
+        } else {
+            out.write("/></sheetViews>");
+        }
+        out.write("<sheetFormatPr defaultRowHeight=\"15\"/><sheetData>");
+
+        // 表名及表头 (按照表头模板写入)
+        List<HeadTemplate.StyleSlot> styleSlots = headTemplate.getStyleSlots();
+        int[] headStyleIndexes = new int[styleSlots.size()];
+        for (int i = 0; i < headStyleIndexes.length; i++) {
+            headStyleIndexes[i] = cellStyleRegistry.getCellStyle(styleSlots.get(i).resolve(excelConfig)).getIndex();
+        }
+        for (int r = 0; r < headRowNum; r++) {
+            out.write("<row r=\"").write(r + 1).write("\">");
+            for (int c = 0; c < colNum; c++) {
+                String value = headTemplate.getValue(r, c);
+                int styleSlotIndex = headTemplate.getStyleSlotIndex(r, c);
+                int styleIndex = styleSlotIndex < 0 ? 0 : headStyleIndexes[styleSlotIndex];
+                if (value != null) {
+                    writeStringCell(out, colNames[c], r + 1, styleIndex, value);
+                } else if (styleSlotIndex >= 0) {
+                    writeBlankCell(out, colNames[c], r + 1, styleIndex);
+                }
+            }
+            out.write("</row>");
+        }
+
+        // 内容
+        List<PropertyConfig> propertyConfigList = sheetConfig.getPropertyConfigList();
+        int[] contentStyleIndexes = getContentStyleIndexes(sheetConfig);
+        int rowPosition = headRowNum + 1; // xml 中的行号从 1 开始
+        int index = 1; // 序号 从1开始计数
+        XmlCellValueSink sink = new XmlCellValueSink(out);
+        while (dataIterator.hasNext()) {
+            Object data = dataIterator.next();
+            out.write("<row r=\"").write(rowPosition).write("\">");
+            int colPosition = 0;
+            if (sheetConfig.isShowSerialNumber()) {
+                writeNumberCell(out, colNames[colPosition++], rowPosition, 0, index++);
+            }
+            try {
+                writeData(colNames, contentStyleIndexes, rowPosition, colPosition, data, propertyConfigList, sink);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.write("</row>");
+            rowPosition++;
+            sheetProgress.recordWritten();
+        }
+        out.write("</sheetData>");
+
+        // 合并单元格
+        List<CellRangeAddress> mergedRegions = headTemplate.getMergedRegions();
+        if (!mergedRegions.isEmpty()) {
+            out.write("<mergeCells count=\"").write(mergedRegions.size()).write("\">");
+            for (CellRangeAddress region : mergedRegions) {
+                out.write("<mergeCell ref=\"").write(region.formatAsString()).write("\"/>");
+            }
+            out.write("</mergeCells>");
+        }
+        out.write("</worksheet>");
+        out.flush();
+
+        // 内嵌属性按列展开, 每条数据占一行 且写入所有列 (包括序号列)
+        long rows = rowPosition - headRowNum - 1;
+        sheetProgress.complete(rows, rows * colNum, mergedRegions.size());
+    }
+
+    /**
+     * 写入一条数据 (内嵌属性按列展开)
+     *
+     * @return 写入后的列位置
+     */
+    private int writeData(String[] colNames, int[] contentStyleIndexes, int rowPosition, int colPosition, Object data, List<PropertyConfig> propertyConfigList, XmlCellValueSink sink) {
+        for (PropertyConfig propertyConfig : propertyConfigList) {
+            if (propertyConfig.isNested()) {
+                colPosition = writeData(colNames, contentStyleIndexes, rowPosition, colPosition, getValue(propertyConfig, data), propertyConfig.getChildPropertyConfigList(), sink);
+            } else {
+                // 解析时选择的写入器 直接从数据中读取并写入
+                propertyConfig.getCellWriter().write(data, sink.at(colNames[colPosition], rowPosition, contentStyleIndexes[colPosition]));
+                colPosition++;
+            }
+        }
+        return colPosition;
+    }
+
+    /**
+     * 获取每一列内容样式的下标 (每个 sheet 仅解析一次)
+     */
+    private int[] getContentStyleIndexes(SheetConfig sheetConfig) {
+        PropertyConfig[] columns = sheetConfig.getColumns();
+        int[] styleIndexes = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] != null) {
+                AbstractCellStyleConfig styleConfig = columns[i].getContentCellStyleConfig();
+                if (styleConfig == null) {
+                    styleConfig = excelConfig.getContentCellStyleConfig();
+                }
+                styleIndexes[i] = cellStyleRegistry.getCellStyle(styleConfig).getIndex();
+            }
+        }
+        return styleIndexes;
+    }
+
+    private static void writeStringCell(XmlOutput out, String colName, int rowPosition, int styleIndex, String value) throws IOException {
+        out.write("<c r=\"").write(colName).write(rowPosition).write("\" s=\"").write(styleIndex)
+                .write("\" t=\"inlineStr\"><is><t xml:space=\"preserve\">").writeEscaped(value).write("</t></is></c>");
+    }
+
+    private static void writeNumberCell(XmlOutput out, String colName, int rowPosition, int styleIndex, String value) throws IOException {
+        out.write("<c r=\"").write(colName).write(rowPosition).write("\" s=\"").write(styleIndex)
+                .write("\"><v>").write(value).write("</v></c>");
+    }
+
+    private static void writeNumberCell(XmlOutput out, String colName, int rowPosition, int styleIndex, long value) throws IOException {
+        out.write("<c r=\"").write(colName).write(rowPosition).write("\" s=\"").write(styleIndex)
+                .write("\"><v>").write(value).write("</v></c>");
+    }
+
+    private static void writeErrorCell(XmlOutput out, String colName, int rowPosition, int styleIndex, FormulaError error) throws IOException {
+        out.write("<c r=\"").write(colName).write(rowPosition).write("\" s=\"").write(styleIndex)
+                .write("\" t=\"e\"><v>").writeEscaped(error.getString()).write("</v></c>");
+    }
+
+    private static void writeBlankCell(XmlOutput out, String colName, int rowPosition, int styleIndex) throws IOException {
+        out.write("<c r=\"").write(colName).write(rowPosition).write("\" s=\"").write(styleIndex).write("\"/>");
+    }
+
+    /**
+     * 获取写入数据
+     */
+    @SuppressWarnings("unchecked")
+    private static Object getValue(PropertyConfig propertyConfig, Object data) {
+        if (data == null) {
+            return null;
+        }
+        Object value = propertyConfig.getAccessor().get(data);
+        ExcelConverter converter = propertyConfig.getConverter();
+        if (converter != null) {
+            value = converter.convert(value);
+        }
+        return value;
+    }
+
+    private void putEntry(ZipOutputStream zos, String name) throws IOException {
+        CompressionConfig compressionConfig = excelConfig.getCompressionConfig();
+        if (compressionConfig != null) {
+            zos.setLevel(compressionConfig.getLevel(name)); // 对之后写入的部件生效
+        }
+        zos.putNextEntry(new ZipEntry(name));
+    }
+
+    /* ================= 输出 ================= */
+
+    /**
+     * sheet xml 的单元格写入目标 (每个 sheet 复用, 写入前指定单元格位置及样式)
+     * <p>
+     * 整数直接写入字符缓冲, 不产生字符串对象. 写入失败时抛出 UncheckedIOException (由 writeSheet 还原)
+     */
+    private static final class XmlCellValueSink implements CellValueSink {
+
+        private final XmlOutput out;
+        private String colName;
+        private int rowPosition;
+        private int styleIndex;
+
+        XmlCellValueSink(XmlOutput out) {
+            this.out = out;
+        }
+
+        XmlCellValueSink at(String colName, int rowPosition, int styleIndex) {
+            this.colName = colName;
+            this.rowPosition = rowPosition;
+            this.styleIndex = styleIndex;
+            return this;
+        }
+
+        @Override
+        public void writeLong(long value) {
+            try {
+                writeNumberCell(out, colName, rowPosition, styleIndex, value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void writeDouble(double value) {
+            try {
+                if (Double.isNaN(value)) {
+                    // excel 不支持 NaN 及无穷大, 与 poi 的 setCellValue(double) 一致 写入错误值
+                    writeErrorCell(out, colName, rowPosition, styleIndex, FormulaError.NUM);
+                } else if (Double.isInfinite(value)) {
+                    writeErrorCell(out, colName, rowPosition, styleIndex, FormulaError.DIV0);
+                } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+                    writeNumberCell(out, colName, rowPosition, styleIndex, (long) value);
+                } else {
+                    writeNumberCell(out, colName, rowPosition, styleIndex, Double.toString(value));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void writeBoolean(boolean value) {
+            try {
+                out.write("<c r=\"").write(colName).write(rowPosition).write("\" s=\"").write(styleIndex)
+                        .write("\" t=\"b\"><v>").write(value ? "1" : "0").write("</v></c>");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void writeString(String value) {
+            try {
+                writeStringCell(out, colName, rowPosition, styleIndex, value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void writeRichText(RichTextString value) {
+            writeString(value.getString());
+        }
+    }
+
+    /**
+     * xml 输出 (非线程安全的字符缓冲, 避免 BufferedWriter 逐字符加锁)
+     */
+    private static final class XmlOutput {
+
+        private final Writer writer;
+        private final char[] buffer = new char[8192];
+        private int position = 0;
+
+        XmlOutput(Writer writer) {
+            this.writer = writer;
+        }
+
+        XmlOutput write(String value) throws IOException {
+            int length = value.length();
+            if (length > buffer.length - position) {
+                flushBuffer();
+                if (length > buffer.length) {
+                    writer.write(value);
+                    return this;
+                }
+            }
+            value.getChars(0, length, buffer, position);
+            position += length;
+            return this;
+        }
+
+        XmlOutput write(int value) throws IOException {
+            return write((long) value);
+        }
+
+        /**
+         * 写入整数 (直接写入字符缓冲)
+         */
+        XmlOutput write(long value) throws IOException {
+            if (value == Long.MIN_VALUE) {
+                return write(Long.toString(value));
+            }
+            if (buffer.length - position < 20) {
+                flushBuffer();
+            }
+            if (value < 0) {
+                buffer[position++] = '-';
+                value = -value;
+            }
+            int start = position;
+            do {
+                buffer[position++] = (char) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            // 反转数字
+            for (int i = start, j = position - 1; i < j; i++, j--) {
+                char c = buffer[i];
+                buffer[i] = buffer[j];
+                buffer[j] = c;
+            }
+            return this;
+        }
+
+        XmlOutput writeEscaped(String value) throws IOException {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '&':
+                        write("&amp;");
+                        break;
+                    case '<':
+                        write("&lt;");
+                        break;
+                    case '>':
+                        write("&gt;");
+                        break;
+                    case '"':
+                        write("&quot;");
+                        break;
+                    default:
+                        // 忽略 xml 中不允许出现的控制字符
+                        if ((c < 0x20 && c != '\t' && c != '\n' && c != '\r') || c == 0xFFFE || c == 0xFFFF) {
+                            break;
+                        }
+                        if (position == buffer.length) {
+                            flushBuffer();
+                        }
+                        buffer[position++] = c;
+                }
+            }
+            return this;
+        }
+
+        void flush() throws IOException {
+            flushBuffer();
+            writer.flush();
+        }
+
+        private void flushBuffer() throws IOException {
+            if (position > 0) {
+                writer.write(buffer, 0, position);
+                position = 0;
+            }
+        }
+    }
+}
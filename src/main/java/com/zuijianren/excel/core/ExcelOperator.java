@@ -1,23 +1,22 @@
 package com.zuijianren.excel.core;
 
 import com.zuijianren.excel.exceptions.WriteToCellException;
-import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.ClientAnchor;
-import org.apache.poi.ss.usermodel.RichTextString;
-import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.xssf.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Calendar;
 import java.util.Date;
 
 /**
+ * 单元格操作工具类
+ * <p>
+ * 基于 ss.usermodel 接口实现, 同时支持 XSSF (内存模式) 与 SXSSF (流式模式)
+ *
  * @author zuijianren
  * @date 2023/3/15 13:04
  */
@@ -31,130 +30,99 @@ public class ExcelOperator {
      * @param colPosition 列
      * @param value       值
      */
-    public static XSSFCell writeCell(XSSFSheet sheet, int rowPosition, int colPosition, boolean value) {
-        XSSFRow row = sheet.getRow(rowPosition);
+    public static Cell writeCell(Sheet sheet, int rowPosition, int colPosition, boolean value) {
+        Row row = sheet.getRow(rowPosition);
         if (row == null) {
             row = sheet.createRow(rowPosition);
         }
-        XSSFCell cell = row.createCell(colPosition);
+        Cell cell = row.createCell(colPosition);
         cell.setCellValue(value);
         return cell;
     }
 
-    public static XSSFCell writeCell(XSSFSheet sheet, int rowPosition, int colPosition, double value) {
-        XSSFRow row = sheet.getRow(rowPosition);
+    public static Cell writeCell(Sheet sheet, int rowPosition, int colPosition, double value) {
+        Row row = sheet.getRow(rowPosition);
         if (row == null) {
             row = sheet.createRow(rowPosition);
         }
-        XSSFCell cell = row.createCell(colPosition);
+        Cell cell = row.createCell(colPosition);
         cell.setCellValue(value);
         return cell;
     }
 
-    public static XSSFCell writeCell(XSSFSheet sheet, int rowPosition, int colPosition, Date value) {
-        XSSFRow row = sheet.getRow(rowPosition);
+    public static Cell writeCell(Sheet sheet, int rowPosition, int colPosition, Date value) {
+        Row row = sheet.getRow(rowPosition);
         if (row == null) {
             row = sheet.createRow(rowPosition);
         }
-        XSSFCell cell = row.createCell(colPosition);
+        Cell cell = row.createCell(colPosition);
         cell.setCellValue(value);
         return cell;
     }
 
-    public static XSSFCell writeCell(XSSFSheet sheet, int rowPosition, int colPosition, LocalDateTime value) {
-        XSSFRow row = sheet.getRow(rowPosition);
+    public static Cell writeCell(Sheet sheet, int rowPosition, int colPosition, LocalDateTime value) {
+        Row row = sheet.getRow(rowPosition);
         if (row == null) {
             row = sheet.createRow(rowPosition);
         }
-        XSSFCell cell = row.createCell(colPosition);
+        Cell cell = row.createCell(colPosition);
         cell.setCellValue(value);
         return cell;
     }
 
-    public static XSSFCell writeCell(XSSFSheet sheet, int rowPosition, int colPosition, LocalDate value) {
-        XSSFRow row = sheet.getRow(rowPosition);
+    public static Cell writeCell(Sheet sheet, int rowPosition, int colPosition, LocalDate value) {
+        Row row = sheet.getRow(rowPosition);
         if (row == null) {
             row = sheet.createRow(rowPosition);
         }
-        XSSFCell cell = row.createCell(colPosition);
+        Cell cell = row.createCell(colPosition);
         cell.setCellValue(value);
         return cell;
     }
 
-    public static XSSFCell writeCell(XSSFSheet sheet, int rowPosition, int colPosition, Calendar value) {
-        XSSFRow row = sheet.getRow(rowPosition);
+    public static Cell writeCell(Sheet sheet, int rowPosition, int colPosition, Calendar value) {
+        Row row = sheet.getRow(rowPosition);
         if (row == null) {
             row = sheet.createRow(rowPosition);
         }
-        XSSFCell cell = row.createCell(colPosition);
+        Cell cell = row.createCell(colPosition);
         cell.setCellValue(value);
         return cell;
     }
 
-    public static XSSFCell writeCell(XSSFSheet sheet, int rowPosition, int colPosition, String value) {
-        XSSFRow row = sheet.getRow(rowPosition);
+    public static Cell writeCell(Sheet sheet, int rowPosition, int colPosition, String value) {
+        Row row = sheet.getRow(rowPosition);
         if (row == null) {
             row = sheet.createRow(rowPosition);
         }
-        XSSFCell cell = row.createCell(colPosition);
+        Cell cell = row.createCell(colPosition);
         cell.setCellValue(value);
         return cell;
     }
 
-    public static XSSFCell writeCell(XSSFSheet sheet, int rowPosition, int colPosition, RichTextString value) {
-        XSSFRow row = sheet.getRow(rowPosition);
+    public static Cell writeCell(Sheet sheet, int rowPosition, int colPosition, RichTextString value) {
+        Row row = sheet.getRow(rowPosition);
         if (row == null) {
             row = sheet.createRow(rowPosition);
         }
-        XSSFCell cell = row.createCell(colPosition);
+        Cell cell = row.createCell(colPosition);
         cell.setCellValue(value);
         return cell;
     }
 
 
-    public static XSSFCell writeCell(XSSFSheet sheet, int rowPosition, int colPosition, BufferedImage image) {
-        XSSFRow row = sheet.getRow(rowPosition);
-        if (row == null) {
-            row = sheet.createRow(rowPosition);
-        }
-        XSSFCell cell = row.createCell(colPosition);
-
-
-        int imageHeight = image.getHeight();
-        int imageWidth = image.getWidth();
-
-        // 设置宽高
-        row.setHeight((short) (imageHeight * 20));
-        sheet.setColumnWidth(colPosition, (int) (imageWidth * 20 * 2.2));
-
-        // 获取字节数组
-        byte[] bytes;
-        try {
-            bytes = getBytes(image);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-
-        // 创建一个绘图对象
-        XSSFDrawing drawing = sheet.createDrawingPatriarch();
-        ClientAnchor clientAnchor = new XSSFClientAnchor(0, 0, 0, 0, colPosition, rowPosition, colPosition, rowPosition);
-        clientAnchor.setAnchorType(ClientAnchor.AnchorType.MOVE_AND_RESIZE);
-
-        // 创建一个图片对象
-        int pictureIndex = sheet.getWorkbook().addPicture(bytes, Workbook.PICTURE_TYPE_PNG);
-        XSSFPicture picture = drawing.createPicture(clientAnchor, pictureIndex);
-        picture.resize(1, 1); // 相对于图像的当前大小调整图像的大小
-
-
-        return cell;
-    }
-
-    private static byte[] getBytes(BufferedImage image) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(image, "png", baos);
-        byte[] bytes = baos.toByteArray();
-        baos.close();
-        return bytes;
+    /**
+     * 向指定单元格中写入图片
+     * <p>
+     * 每次调用均会重新添加图片, 批量写入时 应使用 {@link PictureRegistry} 复用相同的图片
+     *
+     * @param sheet       sheet 对象
+     * @param rowPosition 行
+     * @param colPosition 列
+     * @param image       图片
+     */
+    public static Cell writeCell(Sheet sheet, int rowPosition, int colPosition, BufferedImage image) {
+        return new PictureRegistry(sheet.getWorkbook()).writePicture(sheet, rowPosition, colPosition, image);
     }
 
     /**
@@ -166,13 +134,28 @@ public class ExcelOperator {
      * @param value       值
      * @param type        对应类型
      */
-    public static void writeCell(XSSFSheet sheet, int rowPosition, int colPosition, Object value, Class<?> type, CellStyle cellStyle) {
+    public static void writeCell(Sheet sheet, int rowPosition, int colPosition, Object value, Class<?> type, CellStyle cellStyle) {
+        writeCell(sheet, rowPosition, colPosition, value, type, cellStyle, null);
+    }
+
+    /**
+     * 写入 Object 对象的方法
+     *
+     * @param sheet           sheet 对象
+     * @param rowPosition     行
+     * @param colPosition     列
+     * @param value           值
+     * @param type            对应类型
+     * @param cellStyle       单元格样式
+     * @param pictureRegistry 图片注册表 (写入图片时使用, 为空时 不复用图片)
+     */
+    public static void writeCell(Sheet sheet, int rowPosition, int colPosition, Object value, Class<?> type, CellStyle cellStyle, PictureRegistry pictureRegistry) {
         // 如果数据为空 则按照空字符串写入
         if (value == null) {
             writeCell(sheet, rowPosition, colPosition, "", String.class, cellStyle);
             return;
         }
-        XSSFCell cell = null;
+        Cell cell = null;
         // 根据 type 进行解析
         if (Integer.class.isAssignableFrom(type)) {
             cell = writeCell(sheet, rowPosition, colPosition, (Integer) value);
@@ -190,8 +173,11 @@ public class ExcelOperator {
             cell = writeCell(sheet, rowPosition, colPosition, (String) value);
         } else if (RichTextString.class.isAssignableFrom(type)) {
             cell = writeCell(sheet, rowPosition, colPosition, (RichTextString) value);
-        }  else if (BufferedImage.class.isAssignableFrom(type)) {
-            cell = writeCell(sheet, rowPosition, colPosition, (BufferedImage) value);
+        } else if (PictureRegistry.isPictureType(type)) {
+            if (pictureRegistry == null) {
+                pictureRegistry = new PictureRegistry(sheet.getWorkbook());
+            }
+            cell = pictureRegistry.writePicture(sheet, rowPosition, colPosition, value);
         } else {
             throw new WriteToCellException(type.getName());
         }
@@ -209,7 +195,7 @@ public class ExcelOperator {
      * @param value       值
      * @param type        对应类型
      */
-    public static void writeCell(XSSFSheet sheet, int rowPosition, int colPosition, Object value, Class<?> type) {
+    public static void writeCell(Sheet sheet, int rowPosition, int colPosition, Object value, Class<?> type) {
         writeCell(sheet, rowPosition, colPosition, value, type, null);
     }
 
@@ -223,7 +209,7 @@ public class ExcelOperator {
      * @param num         合并数量
      * @param cellStyle   单元格样式
      */
-    public static void mergeColCell(XSSFSheet sheet, int rowPosition, int colPosition, int num, CellStyle cellStyle) {
+    public static void mergeColCell(Sheet sheet, int rowPosition, int colPosition, int num, CellStyle cellStyle) {
         // 小于2 则 无需合并
         if (num < 2) {
             return;
@@ -232,11 +218,11 @@ public class ExcelOperator {
         sheet.addMergedRegion(region);
         // 合并后 追加样式
         for (int i = region.getFirstColumn(); i <= region.getLastColumn(); i++) {
-            XSSFRow row = sheet.getRow(rowPosition);
+            Row row = sheet.getRow(rowPosition);
             if (row == null) {
                 row = sheet.createRow(rowPosition);
             }
-            XSSFCell cell = row.getCell(i);
+            Cell cell = row.getCell(i);
             if (cell == null) {
                 cell = row.createCell(i);
             }
@@ -253,7 +239,7 @@ public class ExcelOperator {
      * @param num         合并数量
      * @param cellStyle   单元格样式
      */
-    public static void mergeRowCell(XSSFSheet sheet, int rowPosition, int colPosition, int num, CellStyle cellStyle) {
+    public static void mergeRowCell(Sheet sheet, int rowPosition, int colPosition, int num, CellStyle cellStyle) {
         // 小于2 则 无需合并
         if (num < 2) {
             return;
@@ -262,11 +248,11 @@ public class ExcelOperator {
         sheet.addMergedRegion(region);
         // 合并后 追加样式
         for (int i = region.getFirstRow(); i <= region.getLastRow(); i++) {
-            XSSFRow row = sheet.getRow(i);
+            Row row = sheet.getRow(i);
             if (row == null) {
                 row = sheet.createRow(i);
             }
-            XSSFCell cell = row.getCell(colPosition);
+            Cell cell = row.getCell(colPosition);
             if (cell == null) {
                 cell = row.createCell(colPosition);
             }
@@ -274,5 +260,109 @@ public class ExcelOperator {
         }
     }
 
+    /* ================= 兼容 XSSF 的方法 (保持原有的参数及返回值类型, 委托给 ss.usermodel 的实现) ================= */
+
+    /**
+     * 向指定单元格中写入值
+     *
+     * @param sheet       sheet 对象
+     * @param rowPosition 行
+     * @param colPosition 列
+     * @param value       值
+     */
+    public static XSSFCell writeCell(XSSFSheet sheet, int rowPosition, int colPosition, boolean value) {
+        return (XSSFCell) writeCell((Sheet) sheet, rowPosition, colPosition, value);
+    }
+
+    public static XSSFCell writeCell(XSSFSheet sheet, int rowPosition, int colPosition, double value) {
+        return (XSSFCell) writeCell((Sheet) sheet, rowPosition, colPosition, value);
+    }
+
+    public static XSSFCell writeCell(XSSFSheet sheet, int rowPosition, int colPosition, Date value) {
+        return (XSSFCell) writeCell((Sheet) sheet, rowPosition, colPosition, value);
+    }
+
+    public static XSSFCell writeCell(XSSFSheet sheet, int rowPosition, int colPosition, LocalDateTime value) {
+        return (XSSFCell) writeCell((Sheet) sheet, rowPosition, colPosition, value);
+    }
+
+    public static XSSFCell writeCell(XSSFSheet sheet, int rowPosition, int colPosition, LocalDate value) {
+        return (XSSFCell) writeCell((Sheet) sheet, rowPosition, colPosition, value);
+    }
 
+    public static XSSFCell writeCell(XSSFSheet sheet, int rowPosition, int colPosition, Calendar value) {
+        return (XSSFCell) writeCell((Sheet) sheet, rowPosition, colPosition, value);
+    }
+
+    public static XSSFCell writeCell(XSSFSheet sheet, int rowPosition, int colPosition, String value) {
+        return (XSSFCell) writeCell((Sheet) sheet, rowPosition, colPosition, value);
+    }
+
+    public static XSSFCell writeCell(XSSFSheet sheet, int rowPosition, int colPosition, RichTextString value) {
+        return (XSSFCell) writeCell((Sheet) sheet, rowPosition, colPosition, value);
+    }
+
+    /**
+     * 向指定单元格中写入图片
+     *
+     * @param sheet       sheet 对象
+     * @param rowPosition 行
+     * @param colPosition 列
+     * @param image       图片
+     */
+    public static XSSFCell writeCell(XSSFSheet sheet, int rowPosition, int colPosition, BufferedImage image) {
+        return (XSSFCell) writeCell((Sheet) sheet, rowPosition, colPosition, image);
+    }
+
+    /**
+     * 写入 Object 对象的方法
+     *
+     * @param sheet       sheet 对象
+     * @param rowPosition 行
+     * @param colPosition 列
+     * @param value       值
+     * @param type        对应类型
+     */
+    public static void writeCell(XSSFSheet sheet, int rowPosition, int colPosition, Object value, Class<?> type, CellStyle cellStyle) {
+        writeCell((Sheet) sheet, rowPosition, colPosition, value, type, cellStyle);
+    }
+
+    /**
+     * 写入 Object 对象的方法
+     *
+     * @param sheet       sheet 对象
+     * @param rowPosition 行
+     * @param colPosition 列
+     * @param value       值
+     * @param type        对应类型
+     */
+    public static void writeCell(XSSFSheet sheet, int rowPosition, int colPosition, Object value, Class<?> type) {
+        writeCell((Sheet) sheet, rowPosition, colPosition, value, type);
+    }
+
+    /**
+     * 纵向合并单元格
+     *
+     * @param sheet       sheet对象
+     * @param rowPosition 行
+     * @param colPosition 列
+     * @param num         合并数量
+     * @param cellStyle   单元格样式
+     */
+    public static void mergeColCell(XSSFSheet sheet, int rowPosition, int colPosition, int num, CellStyle cellStyle) {
+        mergeColCell((Sheet) sheet, rowPosition, colPosition, num, cellStyle);
+    }
+
+    /**
+     * 横向合并单元格
+     *
+     * @param sheet       sheet对象
+     * @param rowPosition 行
+     * @param colPosition 列
+     * @param num         合并数量
+     * @param cellStyle   单元格样式
+     */
+    public static void mergeRowCell(XSSFSheet sheet, int rowPosition, int colPosition, int num, CellStyle cellStyle) {
+        mergeRowCell((Sheet) sheet, rowPosition, colPosition, num, cellStyle);
+    }
 }
@@ -1,5 +1,7 @@
 package com.zuijianren.excel.core;
 
+import com.zuijianren.excel.accessor.PropertyAccessor;
+import com.zuijianren.excel.accessor.PropertyAccessors;
 import com.zuijianren.excel.annotations.ExcelMultiProperty;
 import com.zuijianren.excel.annotations.ExcelProperty;
 import com.zuijianren.excel.annotations.ExcelSheet;
@@ -9,19 +11,22 @@ import com.zuijianren.excel.annotations.style.ExcelSerialNumberCellStyle;
 import com.zuijianren.excel.annotations.style.ExcelSheetNameStyle;
 import com.zuijianren.excel.config.PropertyConfig;
 import com.zuijianren.excel.config.SheetConfig;
+import com.zuijianren.excel.config.StringStorage;
 import com.zuijianren.excel.config.style.*;
 import com.zuijianren.excel.converter.DefaultExcelConverter;
 import com.zuijianren.excel.converter.ExcelConverter;
 import com.zuijianren.excel.exceptions.ParserException;
+import com.zuijianren.excel.metadata.PropertyMetadata;
+import com.zuijianren.excel.metadata.SheetMetadata;
+import com.zuijianren.excel.metrics.ExcelMetrics;
 import lombok.extern.slf4j.Slf4j;
-import sun.reflect.generics.reflectiveObjects.ParameterizedTypeImpl;
 
 import java.lang.reflect.*;
 import java.util.*;
 
 /**
  * excel 解析器
- * <p>单例模式: 懒汉式 无线程安全问题</p>
+ * <p>单例模式: 饿汉式. 解析结果及转换器均缓存于并发缓存中, 可以被多个线程同时使用</p>
  *
  * @author zuijianren
  * @date 2023/3/13 12:57
@@ -29,9 +34,23 @@ import java.util.*;
 @Slf4j
 public class ExcelParser {
 
-    private final Map<Class<?>, SheetConfig> sheetConfigCache = new HashMap<>();
+    private final ConcurrentClassCache<SheetConfig> sheetConfigCache = new ConcurrentClassCache<>(this::parseSheetConfig);
 
-    private final Map<Class<? extends ExcelConverter>, ExcelConverter> converterMap = new HashMap<>();
+    private final ConcurrentClassCache<Optional<SheetMetadata>> metadataCache = new ConcurrentClassCache<>(this::loadSheetMetadata);
+
+    private final ConcurrentClassCache<ExcelConverter<?, ?>> converterCache = new ConcurrentClassCache<>(this::createExcelConverter);
+
+    /**
+     * 当前线程正在解析的类 (用于检测循环引用)
+     * <p>
+     * 不同的类可以在多个线程中同时解析, 因此按线程记录. 跨线程的循环等待由 {@link ConcurrentClassCache} 检测
+     */
+    private final ThreadLocal<Set<Class<?>>> parsingClasses = ThreadLocal.withInitial(LinkedHashSet::new);
+
+    /**
+     * 导出指标 (记录解析耗时)
+     */
+    private volatile ExcelMetrics metrics;
 
     private static final ExcelParser instance = new ExcelParser();
 
@@ -45,18 +64,69 @@ public class ExcelParser {
     /**
      * 获取 sheet 表配置
      * <p>
-     * todo 循环依赖问题解决
+     * 每个类仅解析一次, 之后直接从缓存中获取
      *
      * @param clazz 对应对象
      * @return sheet 表配置
      */
     public SheetConfig getSheetConfig(Class<?> clazz) {
-        // 获取缓存的配置
-        SheetConfig sheetConfig = sheetConfigCache.get(clazz);
-        if (sheetConfig != null) {
+        return sheetConfigCache.get(clazz);
+    }
+
+    /**
+     * 移除指定类的缓存配置 (下次获取时重新解析)
+     *
+     * @param clazz 对应对象
+     */
+    public void evict(Class<?> clazz) {
+        sheetConfigCache.remove(clazz);
+    }
+
+    /**
+     * 清空所有缓存的配置及转换器
+     * <p>
+     * 缓存本身会随类的卸载而回收, 通常无需手动清空. 仅在需要强制重新解析时使用
+     */
+    public void clearCache() {
+        sheetConfigCache.clear();
+        converterCache.clear();
+    }
+
+    /**
+     * 设置导出指标 (记录每个类的解析耗时)
+     *
+     * @param metrics 导出指标 (为空时 不记录)
+     */
+    public void setMetrics(ExcelMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 解析 sheet 配置
+     *
+     * @param clazz 对应对象
+     * @return sheet 表配置
+     */
+    private SheetConfig parseSheetConfig(Class<?> clazz) {
+        // 循环引用校验 (A 内嵌 B, B 又内嵌 A)
+        Set<Class<?>> parsingClasses = this.parsingClasses.get();
+        if (!parsingClasses.add(clazz)) {
+            throw new ParserException("导出类之间存在循环引用: " + parsingClasses + " -> " + clazz);
+        }
+        long startNanos = System.nanoTime();
+        try {
+            SheetConfig sheetConfig = doParseSheetConfig(clazz);
+            ExcelMetrics metrics = this.metrics;
+            if (metrics != null) {
+                metrics.onClassParsed(clazz, System.nanoTime() - startNanos);
+            }
             return sheetConfig;
+        } finally {
+            parsingClasses.remove(clazz);
+            if (parsingClasses.isEmpty()) {
+                this.parsingClasses.remove();
+            }
         }
-        return parseSheetConfig(clazz);
     }
 
     /**
@@ -65,7 +135,7 @@ public class ExcelParser {
      * @param clazz 对应对象
      * @return sheet 表配置
      */
-    private SheetConfig parseSheetConfig(Class<?> clazz) {
+    private SheetConfig doParseSheetConfig(Class<?> clazz) {
 
         // 校验当前类是否添加 ExcelSheet 注解
         if (!clazz.isAnnotationPresent(ExcelSheet.class)) {
@@ -87,6 +157,10 @@ public class ExcelParser {
         String sheetName = sheetAnnotation.value(); // 获取 sheet 名
         Field[] fields = clazz.getDeclaredFields();
 
+        // 编译期生成的元数据 (字段名 -> 属性元数据)
+        Map<String, PropertyMetadata> metadataMap = new HashMap<>();
+        metadataCache.get(clazz).ifPresent(metadata -> metadata.properties().forEach(property -> metadataMap.put(property.getName(), property)));
+
         int multiNum = 0; // multi 属性统计
         Field multiFieldCache = null; // multi 属性缓存  用于提示错误
 
@@ -95,9 +169,9 @@ public class ExcelParser {
             field.setAccessible(true);
             PropertyConfig propertyConfig = null;
             if (field.isAnnotationPresent(ExcelProperty.class)) {
-                propertyConfig = parsePropertyConfig(field);
+                propertyConfig = parsePropertyConfig(field, metadataMap.get(field.getName()), headStyle, contentStyle);
             } else if (field.isAnnotationPresent(ExcelMultiProperty.class)) {
-                propertyConfig = parseMultiPropertyConfig(field);
+                propertyConfig = parseMultiPropertyConfig(field, metadataMap.get(field.getName()), headStyle, contentStyle);
             } else {
                 // 忽略未添加 ExcelProperty 或者 ExcelMultiProperty 注解的属性
                 continue;
@@ -113,14 +187,6 @@ public class ExcelParser {
                 }
                 multiFieldCache = field;
             }
-            // 处理样式
-            if (propertyConfig.getHeadCellStyleConfig() == null) {
-                propertyConfig.setHeadCellStyleConfig(headStyle);
-            }
-            if (propertyConfig.getContentCellStyleConfig() == null) {
-                propertyConfig.setContentCellStyleConfig(contentStyle);
-            }
-
             propertyConfigList.add(propertyConfig);
         }
 
@@ -129,6 +195,7 @@ public class ExcelParser {
 
         // 创建 sheetConfig 对象
         SheetConfig sheetConfig = SheetConfig.builder()
+                .type(clazz)
                 .sheetName(sheetName)
                 .showSheetName(sheetAnnotation.showSheetName())
                 .showSerialNumber(sheetAnnotation.showSerialNumber())
@@ -142,34 +209,78 @@ public class ExcelParser {
                 // 集合属性
                 .hasMulti(multiNum != 0)
                 .build();
-
-        // 存入缓存
-        sheetConfigCache.put(clazz, sheetConfig);
+        sheetConfig.initLayout();
 
         return sheetConfig;
     }
 
+    /**
+     * 加载编译期生成的元数据 (见 ExcelSheetProcessor)
+     * <p>
+     * 按命名规则 ({@link SheetMetadata#className(String)}) 从导出类的类加载器中直接加载, 每次仅加载及实例化对应的元数据类
+     *
+     * @param clazz 对应对象
+     * @return 元数据 (未使用注解处理器时为空)
+     */
+    private Optional<SheetMetadata> loadSheetMetadata(Class<?> clazz) {
+        String className = SheetMetadata.className(clazz.getName());
+        try {
+            Class<?> metadataClass = Class.forName(className, false, clazz.getClassLoader());
+            if (SheetMetadata.class.isAssignableFrom(metadataClass)) {
+                SheetMetadata metadata = (SheetMetadata) metadataClass.getDeclaredConstructor().newInstance();
+                // 类名可能与其他类冲突 (如 Outer$Inner 与 Outer_Inner)
+                if (metadata.type() == clazz) {
+                    return Optional.of(metadata);
+                }
+            }
+        } catch (ClassNotFoundException e) {
+            // 未使用注解处理器
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.debug("元数据加载失败, 使用反射解析. 类: " + clazz, e);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 获取属性访问器
+     * <p>
+     * 存在编译期元数据时 直接使用生成的访问器, 否则根据 get 方法生成
+     *
+     * @param getMethod        get 方法 (存在元数据时为空)
+     * @param propertyMetadata 编译期元数据 (可以为空)
+     * @return 属性访问器
+     */
+    private PropertyAccessor getAccessor(Method getMethod, PropertyMetadata propertyMetadata) {
+        return propertyMetadata != null ? propertyMetadata.getAccessor() : PropertyAccessors.of(getMethod);
+    }
+
     /**
      * 解析 multi property 属性
      *
-     * @param field property 对应的字段
+     * @param field             property 对应的字段
+     * @param propertyMetadata  编译期元数据 (可以为空)
+     * @param sheetHeadStyle    所在类的标题样式 (属性未配置时使用, 可以为空)
+     * @param sheetContentStyle 所在类的内容样式 (属性未配置时使用, 可以为空)
      */
-    private PropertyConfig parseMultiPropertyConfig(Field field) {
+    private PropertyConfig parseMultiPropertyConfig(Field field, PropertyMetadata propertyMetadata,
+            AbstractCellStyleConfig sheetHeadStyle, AbstractCellStyleConfig sheetContentStyle) {
 
         if (!Collection.class.isAssignableFrom(field.getType())) {
             throw new ParserException(field.getName() + "属性不是集合类, 无法使用ExcelMultiProperty注解.");
         }
 
         // 样式解析
-        AbstractCellStyleConfig headStyle = Optional.ofNullable(field.getAnnotation(ExcelHeadCellStyle.class)).map(this::parseExcelHeadCellStyle).orElse(null);
-        AbstractCellStyleConfig contentStyle = Optional.ofNullable(field.getAnnotation(ExcelContentCellStyle.class)).map(this::parseExcelContentCellStyle).orElse(null);
+        AbstractCellStyleConfig headStyle = Optional.ofNullable(field.getAnnotation(ExcelHeadCellStyle.class)).map(this::parseExcelHeadCellStyle).orElse(sheetHeadStyle);
+        AbstractCellStyleConfig contentStyle = Optional.ofNullable(field.getAnnotation(ExcelContentCellStyle.class)).map(this::parseExcelContentCellStyle).orElse(sheetContentStyle);
 
-        // 根据 field 获取get方法
+        // 根据 field 获取get方法 (存在元数据时 无需获取)
         Method getMethod = null;
-        try {
-            getMethod = getGetMethod(field);
-        } catch (NoSuchMethodException e) {
-            throw new ParserException("未找到对应属性的get方法. 属性: " + field.getName());
+        if (propertyMetadata == null) {
+            try {
+                getMethod = getGetMethod(field);
+            } catch (NoSuchMethodException e) {
+                throw new ParserException("未找到对应属性的get方法. 属性: " + field.getName());
+            }
         }
 
 
@@ -177,8 +288,13 @@ public class ExcelParser {
         ExcelMultiProperty multiPropertyAnnotation = field.getAnnotation(ExcelMultiProperty.class);
 
         // 获取 泛型
-        ParameterizedType type = (ParameterizedType) field.getGenericType();
-        Class<?> genericClass = (Class<?>) type.getActualTypeArguments()[0];
+        Class<?> genericClass;
+        if (propertyMetadata != null) {
+            genericClass = propertyMetadata.getElementType();
+        } else {
+            ParameterizedType type = (ParameterizedType) field.getGenericType();
+            genericClass = (Class<?>) type.getActualTypeArguments()[0];
+        }
 
         List<PropertyConfig> childPropertyConfigList = new ArrayList<>();
         if (multiPropertyAnnotation.nested()) {
@@ -202,12 +318,13 @@ public class ExcelParser {
         }
 
         // 创建 propertyConfig 对象
-        return PropertyConfig.builder()
+        PropertyConfig propertyConfig = PropertyConfig.builder()
                 // 基础属性
                 .order(multiPropertyAnnotation.order())
                 .value(multiPropertyAnnotation.value())
                 .field(field)
                 .method(getMethod)
+                .accessor(getAccessor(getMethod, propertyMetadata))
                 .writeType(writeType)
                 // 样式属性
                 .headCellStyleConfig(headStyle)
@@ -217,18 +334,25 @@ public class ExcelParser {
                 // 内嵌属性相关
                 .nested(multiPropertyAnnotation.nested())
                 .showCurrentName(multiPropertyAnnotation.showCurrentName())
+                .stringStorage(getStringStorage(multiPropertyAnnotation.stringStorage()))
                 .childPropertyConfigList(childPropertyConfigList)
                 // 集合属性
                 .multi(true)
                 .build();
+        propertyConfig.initLayout();
+        return propertyConfig;
     }
 
     /**
      * 解析 property 属性
      *
-     * @param field property 对应的字段
+     * @param field             property 对应的字段
+     * @param propertyMetadata  编译期元数据 (可以为空)
+     * @param sheetHeadStyle    所在类的标题样式 (属性未配置时使用, 可以为空)
+     * @param sheetContentStyle 所在类的内容样式 (属性未配置时使用, 可以为空)
      */
-    private PropertyConfig parsePropertyConfig(Field field) {
+    private PropertyConfig parsePropertyConfig(Field field, PropertyMetadata propertyMetadata,
+            AbstractCellStyleConfig sheetHeadStyle, AbstractCellStyleConfig sheetContentStyle) {
         // 获取 注解 进行解析
         ExcelProperty propertyAnnotation = field.getAnnotation(ExcelProperty.class);
 
@@ -236,15 +360,17 @@ public class ExcelParser {
         boolean hasMulti = false; // 当前 field 是否含有 multi 属性
 
         // 样式解析
-        AbstractCellStyleConfig headStyle = Optional.ofNullable(field.getAnnotation(ExcelHeadCellStyle.class)).map(this::parseExcelHeadCellStyle).orElse(null);
-        AbstractCellStyleConfig contentStyle = Optional.ofNullable(field.getAnnotation(ExcelContentCellStyle.class)).map(this::parseExcelContentCellStyle).orElse(null);
+        AbstractCellStyleConfig headStyle = Optional.ofNullable(field.getAnnotation(ExcelHeadCellStyle.class)).map(this::parseExcelHeadCellStyle).orElse(sheetHeadStyle);
+        AbstractCellStyleConfig contentStyle = Optional.ofNullable(field.getAnnotation(ExcelContentCellStyle.class)).map(this::parseExcelContentCellStyle).orElse(sheetContentStyle);
 
-        // 根据 field 获取get方法
+        // 根据 field 获取get方法 (存在元数据时 无需获取)
         Method getMethod = null;
-        try {
-            getMethod = getGetMethod(field);
-        } catch (NoSuchMethodException e) {
-            throw new ParserException("未找到对应属性的get方法. 属性: " + field.getName(), e);
+        if (propertyMetadata == null) {
+            try {
+                getMethod = getGetMethod(field);
+            } catch (NoSuchMethodException e) {
+                throw new ParserException("未找到对应属性的get方法. 属性: " + field.getName(), e);
+            }
         }
 
 
@@ -272,12 +398,13 @@ public class ExcelParser {
         }
 
         // 创建 propertyConfig 对象
-        return PropertyConfig.builder()
+        PropertyConfig propertyConfig = PropertyConfig.builder()
                 // 基础属性
                 .order(propertyAnnotation.order())
                 .value(propertyAnnotation.value())
                 .field(field)
                 .method(getMethod)
+                .accessor(getAccessor(getMethod, propertyMetadata))
                 .writeType(writeType)
                 // 样式属性
                 .headCellStyleConfig(headStyle)
@@ -286,11 +413,24 @@ public class ExcelParser {
                 .converter(converter)
                 // 内嵌属性相关
                 .showCurrentName(propertyAnnotation.showCurrentName())
+                .stringStorage(getStringStorage(propertyAnnotation.stringStorage()))
                 .nested(propertyAnnotation.nested())
                 .childPropertyConfigList(childPropertyConfigList)
                 // 集合属性
                 .multi(hasMulti)
                 .build();
+        propertyConfig.initLayout();
+        return propertyConfig;
+    }
+
+    /**
+     * 获取属性的字符串存储方式
+     *
+     * @param stringStorage 注解中配置的存储方式
+     * @return 存储方式 (使用全局配置时 为空)
+     */
+    private static StringStorage getStringStorage(StringStorage stringStorage) {
+        return stringStorage == StringStorage.DEFAULT ? null : stringStorage;
     }
 
     /**
@@ -302,7 +442,7 @@ public class ExcelParser {
      */
     private Class<?> getUpdatedWriteType(Field field, Class<? extends ExcelConverter<?, ?>> converterClazz) {
         Class<?> writeType;// 更新目标对象
-        Type[] actualTypeArguments = ((ParameterizedTypeImpl) converterClazz.getGenericInterfaces()[0]).getActualTypeArguments();
+        Type[] actualTypeArguments = ((ParameterizedType) converterClazz.getGenericInterfaces()[0]).getActualTypeArguments();
         Class<?> argClass = (Class<?>) actualTypeArguments[0]; // 参数类型  ExcelConverter<T,R> 中的 T
         // 校验 当前属性类型 是否是 argClass 的子类(如果不是则会导致调用异常 解析时提前抛出)
         if (!argClass.isAssignableFrom(field.getType())) {
@@ -319,19 +459,23 @@ public class ExcelParser {
      * @return 转换器
      */
     private ExcelConverter<?, ?> getExcelConverter(Class<? extends ExcelConverter<?, ?>> converterClazz) {
-        ExcelConverter<?, ?> converter;
-        converter = converterMap.get(converterClazz);
-        if (converter == null) {
-            try {
-                converter = converterClazz.getConstructor().newInstance();
-            } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
-                e.printStackTrace();
-            } catch (NoSuchMethodException e) {
-                throw new ParserException("未找到转换器: " + converterClazz.getName() + " 的空参构造器");
-            }
-            converterMap.put(converterClazz, converter);
+        return converterCache.get(converterClazz);
+    }
+
+    /**
+     * 创建转换器
+     *
+     * @param converterClazz 转换器类
+     * @return 转换器
+     */
+    private ExcelConverter<?, ?> createExcelConverter(Class<?> converterClazz) {
+        try {
+            return (ExcelConverter<?, ?>) converterClazz.getConstructor().newInstance();
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new ParserException("转换器: " + converterClazz.getName() + " 创建失败", e);
+        } catch (NoSuchMethodException e) {
+            throw new ParserException("未找到转换器: " + converterClazz.getName() + " 的空参构造器");
         }
-        return converter;
     }
 
 
@@ -438,10 +582,20 @@ public class ExcelParser {
     }
 
 
+    /**
+     * 获取 get 方法 (boolean 类型的字段 未找到 get 方法时 使用 is 方法)
+     */
     private Method getGetMethod(Field field) throws NoSuchMethodException {
         String fieldName = field.getName();
-        String methodName = "get" + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
+        String suffix = fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
         Class<?> declaringClass = field.getDeclaringClass();
-        return declaringClass.getMethod(methodName);
+        try {
+            return declaringClass.getMethod("get" + suffix);
+        } catch (NoSuchMethodException e) {
+            if (field.getType() == boolean.class) {
+                return declaringClass.getMethod("is" + suffix);
+            }
+            throw e;
+        }
     }
 }
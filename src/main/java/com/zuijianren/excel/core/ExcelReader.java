@@ -0,0 +1,541 @@
+package com.zuijianren.excel.core;
+
+import com.zuijianren.excel.config.PropertyConfig;
+import com.zuijianren.excel.config.SheetConfig;
+import com.zuijianren.excel.converter.ExcelConverter;
+import com.zuijianren.excel.converter.ReversibleExcelConverter;
+import com.zuijianren.excel.exceptions.ParserException;
+import com.zuijianren.excel.exceptions.ReadFromCellException;
+import com.zuijianren.excel.exceptions.ReadFromFileException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * excel 读取数据 工具类
+ * <p>
+ * 与 {@link ExcelWriter} 相对应, 根据导出类的 SheetConfig 将 xlsx 文件中的数据 转换为对象.
+ * 基于 poi 的 SAX 事件模型逐行解析 sheet, 不会加载整个工作簿. 内存中仅保留当前一条数据(一对多时可能占多行)
+ * <p>
+ * 读取规则:
+ * <ul>
+ *     <li>跳过表名行及表头行, 序号列</li>
+ *     <li>含有 multi 属性时: 显示序号列时 序号不为空的行 视为一条新数据的开始; 否则 非 multi 属性所在的列(合并单元格)不为空的行 视为一条新数据的开始.
+ *     不显示序号列时 非 multi 属性均为空的数据 无法与上一条数据区分, 将被合并至上一条数据 (需要区分时 请开启序号列)</li>
+ *     <li>使用了转换器的属性 需要转换器实现 {@link ReversibleExcelConverter}, 否则读取前抛出 ParserException</li>
+ *     <li>图片等无法转换的类型 忽略</li>
+ *     <li>导出类及内嵌类 需要拥有空参构造器</li>
+ * </ul>
+ *
+ * @author zuijianren
+ * @date 2023/3/22 11:10
+ */
+public class ExcelReader implements Closeable {
+
+    private static ExcelParser parser = ExcelParser.getInstance();  // 解析器
+
+    private final OPCPackage opcPackage; // xlsx 文件
+    private final File tempFile; // 通过输入流读取时 复制出的临时文件
+
+    private ReadOnlySharedStringsTable sharedStrings; // 共享字符串表 (延迟加载)
+
+    private final Map<Class<?>, Constructor<?>> constructorCache = new HashMap<>(); // 空参构造器缓存
+    private final Set<SheetConfig> checkedSheetConfigSet = Collections.newSetFromMap(new IdentityHashMap<>()); // 已校验转换器的 sheet 配置
+
+    public static ExcelReader createExcelReader(String filePath) {
+        return createExcelReader(new File(filePath));
+    }
+
+    /**
+     * 创建 ExcelReader 对象
+     *
+     * @param file 文件
+     * @return ExcelReader 对象
+     */
+    public static ExcelReader createExcelReader(File file) {
+        // 校验文件格式
+        String fileName = file.getName();
+        if (!fileName.endsWith(".xlsx")) {
+            throw new IllegalArgumentException("文件类型错误. 仅允许读取 xlsx 类型文件");
+        }
+        return new ExcelReader(file, null);
+    }
+
+    /**
+     * 创建 ExcelReader 对象
+     * <p>
+     * 输入流会先被复制到临时文件中, 避免将整个文件加载至内存. 临时文件在 close 时删除
+     *
+     * @param is 输入流
+     * @return ExcelReader 对象
+     */
+    public static ExcelReader createExcelReader(InputStream is) {
+        File tempFile = null;
+        try {
+            tempFile = Files.createTempFile("excel-reader", ".xlsx").toFile();
+            Files.copy(is, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return new ExcelReader(tempFile, tempFile);
+        } catch (IOException | RuntimeException e) {
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+            throw e instanceof RuntimeException ? (RuntimeException) e : new ReadFromFileException(e);
+        }
+    }
+
+    // 构造方法
+    private ExcelReader(File file, File tempFile) {
+        this.tempFile = tempFile;
+        try {
+            this.opcPackage = OPCPackage.open(file, PackageAccess.READ);
+        } catch (OpenXML4JException e) {
+            throw new ReadFromFileException(e);
+        }
+    }
+
+    /**
+     * 读取数据 (根据导出类配置的表名 查找 sheet)
+     *
+     * @param clazz 读取的类
+     * @param <T>   读取的类型
+     * @return 数据集合
+     */
+    public <T> List<T> read(Class<T> clazz) {
+        List<T> result = new ArrayList<>();
+        read(clazz, result::add);
+        return result;
+    }
+
+    /**
+     * 逐条读取数据 (根据导出类配置的表名 查找 sheet)
+     * <p>
+     * 每读取完成一条数据 回调一次 consumer, 数据无需全部保存于内存中
+     *
+     * @param clazz    读取的类
+     * @param consumer 数据处理方法
+     * @param <T>      读取的类型
+     */
+    public <T> void read(Class<T> clazz, Consumer<? super T> consumer) {
+        SheetConfig sheetConfig = parser.getSheetConfig(clazz);
+        String sheetName = sheetConfig.getSheetName();
+        readSheet(clazz, sheetConfig, consumer, (index, name) -> sheetName.equals(name), "名为: '" + sheetName + "'");
+    }
+
+    /**
+     * 逐条读取指定位置 sheet 的数据
+     *
+     * @param clazz      读取的类
+     * @param sheetIndex sheet 位置 (从 0 开始)
+     * @param consumer   数据处理方法
+     * @param <T>        读取的类型
+     */
+    public <T> void read(Class<T> clazz, int sheetIndex, Consumer<? super T> consumer) {
+        SheetConfig sheetConfig = parser.getSheetConfig(clazz);
+        readSheet(clazz, sheetConfig, consumer, (index, name) -> index == sheetIndex, "位置为: " + sheetIndex);
+    }
+
+    /**
+     * 查找并读取 sheet
+     */
+    private <T> void readSheet(Class<T> clazz, SheetConfig sheetConfig, Consumer<? super T> consumer, SheetMatcher matcher, String description) {
+        if (checkedSheetConfigSet.add(sheetConfig)) {
+            try {
+                checkConverters(sheetConfig.getPropertyConfigList());
+            } catch (ParserException e) {
+                checkedSheetConfigSet.remove(sheetConfig);
+                throw e;
+            }
+        }
+        try {
+            XSSFReader xssfReader = new XSSFReader(opcPackage);
+            XSSFReader.SheetIterator sheetIterator = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            int index = 0;
+            while (sheetIterator.hasNext()) {
+                try (InputStream sheetStream = sheetIterator.next()) {
+                    if (matcher.matches(index++, sheetIterator.getSheetName())) {
+                        parseSheet(sheetStream, new RecordCollector<>(clazz, sheetConfig, consumer));
+                        return;
+                    }
+                }
+            }
+        } catch (IOException | OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new ReadFromFileException(e);
+        }
+        throw new ParserException("未找到" + description + "的 sheet");
+    }
+
+    /**
+     * 校验转换器均支持反向转换 (包括内嵌属性), 读取前校验 避免读取时丢失数据
+     */
+    private static void checkConverters(List<PropertyConfig> propertyConfigList) {
+        for (PropertyConfig propertyConfig : propertyConfigList) {
+            ExcelConverter<?, ?> converter = propertyConfig.getConverter();
+            if (converter != null && !(converter instanceof ReversibleExcelConverter)) {
+                throw new ParserException("转换器不支持反向转换, 无法读取. 属性: " + propertyConfig.getField().getName()
+                        + ", 转换器: " + converter.getClass().getName() + " (需实现 ReversibleExcelConverter)");
+            }
+            if (propertyConfig.isNested()) {
+                checkConverters(propertyConfig.getChildPropertyConfigList());
+            }
+        }
+    }
+
+    /**
+     * SAX 解析 sheet
+     */
+    private void parseSheet(InputStream sheetStream, RecordCollector<?> collector) throws IOException, SAXException, ParserConfigurationException {
+        if (sharedStrings == null) {
+            sharedStrings = new ReadOnlySharedStringsTable(opcPackage);
+        }
+        XMLReader xmlReader = XMLHelper.newXMLReader();
+        xmlReader.setContentHandler(new SheetRowHandler(sharedStrings, collector.colNum, collector::accept));
+        xmlReader.parse(new InputSource(sheetStream));
+        collector.finish();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            opcPackage.revert(); // 只读打开 无需保存
+        } finally {
+            if (tempFile != null) {
+                Files.deleteIfExists(tempFile.toPath());
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface SheetMatcher {
+        boolean matches(int index, String sheetName);
+    }
+
+    /**
+     * 数据收集器
+     * <p>
+     * 缓存当前数据所占的行, 遇到下一条数据的起始行时 将缓存的行转换为对象
+     */
+    private class RecordCollector<T> {
+
+        private final Class<T> clazz;
+        private final SheetConfig sheetConfig;
+        private final Consumer<? super T> consumer;
+
+        private final int dataRowPosition; // 数据起始行 (跳过表名行及表头行)
+        private final int dataColPosition; // 数据起始列 (跳过序号列)
+        private final int colNum; // 总列数
+        private final int[] anchorCols; // 标识一条新数据开始的列 (非 multi 属性所在的列)
+
+        private final List<Object[]> rows = new ArrayList<>(); // 当前数据的行
+        private int firstRowPosition; // 当前数据的起始行
+
+        RecordCollector(Class<T> clazz, SheetConfig sheetConfig, Consumer<? super T> consumer) {
+            this.clazz = clazz;
+            this.sheetConfig = sheetConfig;
+            this.consumer = consumer;
+            this.dataRowPosition = sheetConfig.getContentRowPosition();
+            this.dataColPosition = sheetConfig.isShowSerialNumber() ? 1 : 0;
+            this.colNum = sheetConfig.getColNum();
+            if (sheetConfig.isShowSerialNumber()) {
+                // 每条数据均有序号 (一对多时合并), 仅以序号列判断
+                this.anchorCols = new int[]{0};
+            } else {
+                List<Integer> anchorColList = new ArrayList<>();
+                collectAnchorCols(sheetConfig.getPropertyConfigList(), dataColPosition, anchorColList);
+                this.anchorCols = anchorColList.stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+
+        void accept(int rowPosition, Object[] cells) {
+            if (rowPosition < dataRowPosition) {
+                return;
+            }
+            boolean recordStart = !sheetConfig.isHasMulti() || anchorCols.length == 0 || !isEmpty(cells, anchorCols);
+            if (recordStart) {
+                finish();
+                // 空行 不作为一条数据
+                if (isEmpty(cells, 0, colNum)) {
+                    return;
+                }
+                firstRowPosition = rowPosition;
+            } else if (rows.isEmpty()) {
+                // 没有起始行的延续行 (如: 表头后的空行) 忽略
+                return;
+            }
+            rows.add(cells);
+        }
+
+        void finish() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            T data = readRecord(clazz, sheetConfig.getPropertyConfigList(), rows, 0, rows.size(), dataColPosition, firstRowPosition);
+            rows.clear();
+            consumer.accept(data);
+        }
+    }
+
+    /**
+     * 将 rows 中 [from, to) 范围内的行 转换为对象
+     *
+     * @param type               对象类型
+     * @param propertyConfigList 属性配置
+     * @param rows               行数据
+     * @param from               起始行 (包含)
+     * @param to                 结束行 (不包含)
+     * @param colPosition        起始列
+     * @param firstRowPosition   rows 中第一行在 sheet 中的行号 (用于提示错误)
+     * @return 对象
+     */
+    private <T> T readRecord(Class<T> type, List<PropertyConfig> propertyConfigList, List<Object[]> rows, int from, int to, int colPosition, int firstRowPosition) {
+        T data = newInstance(type);
+        for (PropertyConfig propertyConfig : propertyConfigList) {
+            Field field = propertyConfig.getField();
+            Object value;
+            if (!propertyConfig.isNested()) {
+                if (!propertyConfig.isMulti()) {
+                    // 普通属性 读取首行
+                    value = readCell(propertyConfig, rows.get(from)[colPosition], firstRowPosition + from, colPosition);
+                } else {
+                    // 集合属性 读取每一行
+                    Collection<Object> collection = newCollection(field.getType());
+                    for (int i = from; i < to; i++) {
+                        Object cellValue = readCell(propertyConfig, rows.get(i)[colPosition], firstRowPosition + i, colPosition);
+                        if (cellValue != null) {
+                            collection.add(cellValue);
+                        }
+                    }
+                    value = collection;
+                }
+            } else {
+                int colNum = propertyConfig.getColNum();
+                List<PropertyConfig> childPropertyConfigList = propertyConfig.getChildPropertyConfigList();
+                if (!Collection.class.isAssignableFrom(field.getType())) {
+                    // 内嵌对象 所有列均为空时 视为 null
+                    value = isEmpty(rows, from, to, colPosition, colPosition + colNum) ? null
+                            : readRecord(field.getType(), childPropertyConfigList, rows, from, to, colPosition, firstRowPosition);
+                } else {
+                    // 内嵌对象集合 根据子属性中非 multi 的列 拆分为多个对象
+                    Collection<Object> collection = newCollection(field.getType());
+                    List<Integer> anchorColList = new ArrayList<>();
+                    collectAnchorCols(childPropertyConfigList, colPosition, anchorColList);
+                    int[] anchorCols = anchorColList.stream().mapToInt(Integer::intValue).toArray();
+                    int childFrom = from;
+                    for (int i = from + 1; i <= to; i++) {
+                        if (i == to || anchorCols.length == 0 || !isEmpty(rows.get(i), anchorCols)) {
+                            if (!isEmpty(rows, childFrom, i, colPosition, colPosition + colNum)) {
+                                collection.add(readRecord(propertyConfig.getWriteType(), childPropertyConfigList, rows, childFrom, i, colPosition, firstRowPosition));
+                            }
+                            childFrom = i;
+                        }
+                    }
+                    value = collection;
+                }
+                colPosition += colNum - 1;
+            }
+            colPosition++;
+            setValue(field, data, value);
+        }
+        return data;
+    }
+
+    /**
+     * 读取单元格的值 并转换为属性类型
+     */
+    @SuppressWarnings("unchecked")
+    private Object readCell(PropertyConfig propertyConfig, Object rawValue, int rowPosition, int colPosition) {
+        ExcelConverter converter = propertyConfig.getConverter(); // 读取前已校验 (见 checkConverters)
+        Class<?> writeType = propertyConfig.getWriteType();
+        String propertyName = propertyConfig.getField().getName();
+        Object value;
+        try {
+            value = convertValue(rawValue, writeType);
+        } catch (RuntimeException e) {
+            throw new ReadFromCellException(rowPosition, colPosition, propertyName, writeType, "单元格数据无法转换为属性的类型", e);
+        }
+        if (value == UNSUPPORTED) {
+            throw new ReadFromCellException(rowPosition, colPosition, propertyName, writeType,
+                    "不支持从" + (rawValue instanceof String ? "文本" : "数值") + "单元格读取该类型 (可通过 ReversibleExcelConverter 转换)", null);
+        }
+        if (converter != null) {
+            value = ((ReversibleExcelConverter) converter).reverseConvert(value);
+        }
+        return value;
+    }
+
+    /**
+     * 不支持的目标类型 (convertValue 的返回值)
+     */
+    private static final Object UNSUPPORTED = new Object();
+
+    /**
+     * 将单元格原始值 (String / Double / Boolean) 转换为目标类型
+     * <p>
+     * 数值转换为整数类型时 要求为整数且不超出范围, 否则抛出 ArithmeticException. 不支持的类型返回 {@link #UNSUPPORTED}
+     */
+    private static Object convertValue(Object rawValue, Class<?> type) {
+        if (rawValue == null || (rawValue instanceof String && ((String) rawValue).isEmpty())) {
+            return null;
+        }
+        if (String.class == type) {
+            if (rawValue instanceof Double) {
+                double number = (Double) rawValue;
+                return number == Math.rint(number) && !Double.isInfinite(number) ? String.valueOf((long) number) : String.valueOf(number);
+            }
+            return rawValue.toString();
+        }
+        if (Boolean.class == type || boolean.class == type) {
+            return rawValue instanceof Boolean ? rawValue : Boolean.valueOf(rawValue.toString().trim());
+        }
+        if (rawValue instanceof Boolean) {
+            throw new IllegalArgumentException("布尔值无法转换为类型: " + type.getName());
+        }
+        if (rawValue instanceof String) {
+            String text = ((String) rawValue).trim();
+            if (type == Integer.class || type == int.class) return Integer.valueOf(text);
+            if (type == Long.class || type == long.class) return Long.valueOf(text);
+            if (type == Short.class || type == short.class) return Short.valueOf(text);
+            if (type == Byte.class || type == byte.class) return Byte.valueOf(text);
+            if (type == Double.class || type == double.class) return Double.valueOf(text);
+            if (type == Float.class || type == float.class) return Float.valueOf(text);
+            if (type == BigDecimal.class) return new BigDecimal(text);
+            if (type == BigInteger.class) return new BigInteger(text);
+            if (type == LocalDate.class) return LocalDate.parse(text);
+            if (type == LocalDateTime.class) return LocalDateTime.parse(text);
+            return UNSUPPORTED;
+        }
+        double number = (Double) rawValue;
+        if (type == Integer.class || type == int.class) return BigDecimal.valueOf(number).intValueExact();
+        if (type == Long.class || type == long.class) return BigDecimal.valueOf(number).longValueExact();
+        if (type == Short.class || type == short.class) return BigDecimal.valueOf(number).shortValueExact();
+        if (type == Byte.class || type == byte.class) return BigDecimal.valueOf(number).byteValueExact();
+        if (type == Double.class || type == double.class) return number;
+        if (type == Float.class || type == float.class) return (float) number;
+        if (type == BigDecimal.class) return BigDecimal.valueOf(number);
+        if (type == BigInteger.class) return BigDecimal.valueOf(number).toBigIntegerExact();
+        if (Date.class.isAssignableFrom(type)) return DateUtil.getJavaDate(number);
+        if (type == LocalDateTime.class) return DateUtil.getLocalDateTime(number);
+        if (type == LocalDate.class) return DateUtil.getLocalDateTime(number).toLocalDate();
+        if (Calendar.class.isAssignableFrom(type)) return DateUtil.getJavaCalendar(number);
+        return UNSUPPORTED;
+    }
+
+    /**
+     * 收集 非 multi 属性所在的列
+     * <p>
+     * 写入时这些列会在一条数据所占的所有行中纵向合并, 值仅存在于首行. 因此可以根据这些列是否为空 判断一条数据的起始行
+     */
+    private static void collectAnchorCols(List<PropertyConfig> propertyConfigList, int colPosition, List<Integer> anchorColList) {
+        for (PropertyConfig propertyConfig : propertyConfigList) {
+            if (!propertyConfig.isMulti()) {
+                for (int i = 0; i < propertyConfig.getColNum(); i++) {
+                    anchorColList.add(colPosition + i);
+                }
+            }
+            colPosition += propertyConfig.getColNum();
+        }
+    }
+
+    private static boolean isEmpty(Object value) {
+        return value == null || (value instanceof String && ((String) value).isEmpty());
+    }
+
+    private static boolean isEmpty(Object[] cells, int[] cols) {
+        for (int col : cols) {
+            if (!isEmpty(cells[col])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isEmpty(Object[] cells, int fromCol, int toCol) {
+        for (int col = fromCol; col < toCol; col++) {
+            if (!isEmpty(cells[col])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isEmpty(List<Object[]> rows, int from, int to, int fromCol, int toCol) {
+        for (int i = from; i < to; i++) {
+            if (!isEmpty(rows.get(i), fromCol, toCol)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 设置属性值 (基本类型不允许设置 null)
+     */
+    private static void setValue(Field field, Object data, Object value) {
+        if (value == null && field.getType().isPrimitive()) {
+            return;
+        }
+        try {
+            field.set(data, value);
+        } catch (IllegalAccessException e) {
+            throw new ParserException("属性: " + field.getName() + " 赋值失败", e);
+        }
+    }
+
+    /**
+     * 根据空参构造器 创建对象
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T newInstance(Class<T> type) {
+        Constructor<?> constructor = constructorCache.computeIfAbsent(type, key -> {
+            try {
+                Constructor<?> declaredConstructor = key.getDeclaredConstructor();
+                declaredConstructor.setAccessible(true);
+                return declaredConstructor;
+            } catch (NoSuchMethodException e) {
+                throw new ParserException("读取数据需要类: " + key.getName() + " 拥有空参构造器");
+            }
+        });
+        try {
+            return (T) constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new ParserException(type.getName() + " 创建对象失败", e);
+        }
+    }
+
+    /**
+     * 根据属性类型 创建集合
+     */
+    @SuppressWarnings("unchecked")
+    private Collection<Object> newCollection(Class<?> type) {
+        if (type.isAssignableFrom(ArrayList.class)) {
+            return new ArrayList<>();
+        }
+        if (type.isAssignableFrom(LinkedHashSet.class)) {
+            return new LinkedHashSet<>();
+        }
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            throw new ParserException("无法创建集合类型: " + type.getName());
+        }
+        return (Collection<Object>) newInstance(type);
+    }
+}
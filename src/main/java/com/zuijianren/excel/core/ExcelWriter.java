@@ -1,33 +1,62 @@
 package com.zuijianren.excel.core;
 
+import com.zuijianren.excel.config.CompressionConfig;
 import com.zuijianren.excel.config.ExcelConfig;
+import com.zuijianren.excel.config.HeadTemplate;
 import com.zuijianren.excel.config.PropertyConfig;
 import com.zuijianren.excel.config.SheetConfig;
+import com.zuijianren.excel.config.StringStorage;
+import com.zuijianren.excel.config.WriteMode;
 import com.zuijianren.excel.config.style.AbstractCellStyleConfig;
 import com.zuijianren.excel.converter.ExcelConverter;
+import com.zuijianren.excel.exceptions.WriteCancelledException;
+import com.zuijianren.excel.exceptions.WriteToFileException;
 import com.zuijianren.excel.pojo.ExcelData;
+import com.zuijianren.excel.source.PageSupplier;
+import com.zuijianren.excel.source.PagedIterator;
+import com.zuijianren.excel.writer.CellWriter;
+import lombok.AccessLevel;
 import lombok.Data;
-import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.xssf.usermodel.*;
-
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 import static com.zuijianren.excel.core.ExcelOperator.*;
 
 /**
  * excel 写入数据 工具类
+ * <p>
+ * 两种用法:
+ * <ul>
+ *     <li>添加所有数据后 调用 {@link #doWrite()} 一次写入 (支持并行写入及异步写入)</li>
+ *     <li>调用 {@link #open()} 开启写入会话: 之后每次 write(...) 立即写入对应的 sheet 并释放其数据, {@link #close()} 时完成工作簿的写入</li>
+ * </ul>
+ * 由文件创建的 ExcelWriter 在写入完成或 {@link #close()} 时 关闭文件输出流; 由调用方传入的输出流不会被关闭
  *
  * @author zuijianren
  * @date 2023/3/14 10:16
  */
 @Data
-public class ExcelWriter {
+@Slf4j
+public class ExcelWriter implements Closeable {
 
     private static ExcelParser parser = ExcelParser.getInstance();  // 解析器
 
@@ -37,6 +66,21 @@ public class ExcelWriter {
 
     private List<ExcelData> dataSource = new ArrayList<>(); // 渲染数据的缓存
 
+    private CellStyleRegistry cellStyleRegistry; // 样式注册表 (与工作簿一一对应, 写入时创建)
+
+    @Setter(AccessLevel.NONE)
+    private volatile boolean cancelled; // 是否已取消 (见 cancel)
+
+    private PictureRegistry pictureRegistry; // 图片注册表 (与工作簿一一对应, 写入时创建)
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private WriteSession session; // 写入会话 (见 open)
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean ownsOutputStream; // 输出流是否由当前对象创建 (由文件创建时 写入完成后关闭)
+
 
     public static ExcelWriter createExcelWriter(String filePath) throws IOException {
         return createExcelWriter(filePath, null);
@@ -70,10 +114,10 @@ public class ExcelWriter {
         if (!".xlsx".equals(suffix)) {
             throw new IllegalArgumentException("文件类型错误. 仅允许写入 xlsx 类型文件");
         }
-        // 如果存在 则删除原文件
-        file.deleteOnExit();
-        file.createNewFile(); // 返回结果忽略
-        return createExcelWriter(new FileOutputStream(file), excelConfig);
+        // 文件不存在时创建, 存在时覆盖
+        ExcelWriter excelWriter = createExcelWriter(new FileOutputStream(file), excelConfig);
+        excelWriter.ownsOutputStream = true;
+        return excelWriter;
     }
 
     public static ExcelWriter createExcelWriter(OutputStream os) throws IOException {
@@ -101,7 +145,7 @@ public class ExcelWriter {
     }
 
     /**
-     * 添加 写入的数据
+     * 添加 写入的数据 (写入会话中 立即写入)
      *
      * @param clazz 写入的类
      * @param data  对应的数据
@@ -110,71 +154,460 @@ public class ExcelWriter {
      */
     public <T> ExcelWriter write(Class<T> clazz, Collection<T> data) {
         SheetConfig sheetConfig = parser.getSheetConfig(clazz); // 获取配置
-        dataSource.add(new ExcelData(sheetConfig, data)); // 存储配置和数据  等待写入
+        return addData(new ExcelData(sheetConfig, data)); // 存储配置和数据  等待写入
+    }
+
+    /**
+     * 添加 写入的数据 (迭代器)
+     * <p>
+     * 数据在写入 sheet 时才会被逐条拉取
+     *
+     * @param clazz 写入的类
+     * @param data  对应的数据
+     * @param <T>   限制写入的类型
+     * @return 当前对象 便于直接打点调用
+     */
+    public <T> ExcelWriter write(Class<T> clazz, Iterator<? extends T> data) {
+        SheetConfig sheetConfig = parser.getSheetConfig(clazz); // 获取配置
+        return addData(new ExcelData(sheetConfig, data, null));
+    }
+
+    /**
+     * 添加 写入的数据 (Stream)
+     * <p>
+     * 数据在写入 sheet 时才会被逐条拉取, 写入完成后 关闭 Stream
+     *
+     * @param clazz 写入的类
+     * @param data  对应的数据
+     * @param <T>   限制写入的类型
+     * @return 当前对象 便于直接打点调用
+     */
+    public <T> ExcelWriter write(Class<T> clazz, Stream<? extends T> data) {
+        SheetConfig sheetConfig = parser.getSheetConfig(clazz); // 获取配置
+        return addData(new ExcelData(sheetConfig, data.iterator(), data::close));
+    }
+
+    /**
+     * 添加 写入的数据 (分页拉取)
+     * <p>
+     * 数据在写入 sheet 时才会按页拉取, 内存中仅保留当前页
+     *
+     * @param clazz        写入的类
+     * @param pageSize     每页数量
+     * @param pageSupplier 分页数据提供者
+     * @param <T>          限制写入的类型
+     * @return 当前对象 便于直接打点调用
+     */
+    public <T> ExcelWriter write(Class<T> clazz, int pageSize, PageSupplier<? extends T> pageSupplier) {
+        return write(clazz, new PagedIterator<T>(pageSupplier, pageSize));
+    }
+
+    /**
+     * 添加渲染数据: 写入会话中 立即写入对应的 sheet, 否则等待 doWrite
+     *
+     * @param excelData 渲染数据
+     * @return 当前对象
+     */
+    private ExcelWriter addData(ExcelData excelData) {
+        if (session == null) {
+            dataSource.add(excelData);
+            return this;
+        }
+        try {
+            session.write(excelData);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
         return this;
     }
 
     /**
-     * 最终执行写入的方法
+     * 开启写入会话
      * <p>
-     * 文件将会被写入事先指定的位置
+     * 开启后 每次 write(...) 立即写入对应的 sheet 并释放其数据: 流式模式下 sheet 的行全部刷出到临时文件, 直接写入模式下 sheet 直接写入输出流,
+     * 内存中不再保留所有待写入的数据 (内存模式下 已写入的 sheet 仍保留在工作簿中). 开启前已添加的数据 立即按顺序写入.
+     * <p>
+     * 会话中的写入按顺序执行 (不支持并行写入), 写入失败时抛出异常 (io 异常包装为 UncheckedIOException), 之后 close 仅释放资源.
+     * 需调用 {@link #close()} 完成工作簿的写入, 建议使用 try-with-resources
      *
-     * @throws IOException 写入xlsx数据失败
+     * @return 当前对象
+     * @throws IOException 写入失败
      */
-    public void doWrite() throws IOException {
-        // 核心部分
-        XSSFWorkbook xssfWorkbook = excelConfig.getXssfWorkbook();
+    public ExcelWriter open() throws IOException {
+        if (session != null) {
+            throw new IllegalStateException("写入会话已开启");
+        }
+        session = new WriteSession();
+        try {
+            while (!dataSource.isEmpty()) {
+                session.write(dataSource.remove(0));
+            }
+        } finally {
+            dataSource.forEach(ExcelData::release);
+            dataSource.clear();
+        }
+        return this;
+    }
+
+    /**
+     * 完成写入会话 并释放资源
+     * <p>
+     * 写入会话中: 写入工作簿的剩余部分 (写入失败的会话 不再写入). 释放未写入的数据, 流式模式下删除临时文件.
+     * 由文件创建时 关闭文件输出流
+     *
+     * @throws IOException 写入失败
+     */
+    @Override
+    public void close() throws IOException {
+        WriteSession current = session;
+        session = null;
+        try {
+            if (current != null) {
+                current.finishAndRelease();
+            }
+        } finally {
+            dataSource.forEach(ExcelData::release);
+            dataSource.clear();
+            if (ownsOutputStream) {
+                ownsOutputStream = false;
+                os.close();
+            }
+        }
+    }
+
+    /**
+     * 当前添加的数据是否均支持直接写入模式 (不含 multi 属性及图片)
+     *
+     * @return 是否支持
+     */
+    public boolean isDirectWritable() {
         for (ExcelData excelData : dataSource) {
-            SheetConfig sheetConfig = excelData.getSheetConfig();
-            Collection dataList = excelData.getDataList();
+            if (!DirectWorkbookWriter.supports(excelData.getSheetConfig())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 异步写入 (使用配置的线程池, 未配置时使用默认线程池: JDK 21 及以上版本为虚拟线程)
+     * <p>
+     * 取消返回的 CompletableFuture 时, 写入在下一条数据处中止 (见 {@link #cancel()})
+     *
+     * @return 写入完成时完成
+     */
+    public CompletableFuture<Void> doWriteAsync() {
+        Executor executor = excelConfig.getExecutor();
+        return doWriteAsync(executor != null ? executor : WriteExecutors.defaultExecutor());
+    }
 
-            int rowPosition = 0; // 行号
+    /**
+     * 异步写入
+     * <p>
+     * 取消返回的 CompletableFuture 时, 写入在下一条数据处中止 (见 {@link #cancel()})
+     *
+     * @param executor 执行写入的线程池
+     * @return 写入完成时完成
+     */
+    public CompletableFuture<Void> doWriteAsync(Executor executor) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        future.whenComplete((result, e) -> {
+            if (future.isCancelled()) {
+                cancel();
+            }
+        });
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    doWrite();
+                    future.complete(null);
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
 
-            XSSFSheet sheet = xssfWorkbook.createSheet(sheetConfig.getSheetName());
+    /**
+     * 取消写入
+     * <p>
+     * 协作式取消: 正在进行的写入在下一条数据处中止, 并抛出 {@link WriteCancelledException}, 输出流中的内容不完整
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
 
-            // 首行创建
-            if (sheetConfig.isShowSheetName()) {
-                writeSheetName(sheet, sheetConfig, rowPosition++);
+    /**
+     * 最终执行写入的方法
+     * <p>
+     * 文件将会被写入事先指定的位置 (由文件创建时 写入完成后关闭文件). 写入会话中不可调用 (见 {@link #close()})
+     *
+     * @throws IOException 写入失败
+     */
+    public void doWrite() throws IOException {
+        if (session != null) {
+            throw new IllegalStateException("写入会话中 由 close 完成写入");
+        }
+        try {
+            // 直接写入模式 写入前校验所有 sheet
+            if (excelConfig.getWriteMode() == WriteMode.DIRECT) {
+                DirectWorkbookWriter.validate(dataSource);
+            }
+            WriteSession writeSession = new WriteSession();
+            try {
+                if (writeSession.workbook != null && isParallel(writeSession.workbook)) {
+                    writeSession.writeParallel(dataSource);
+                } else {
+                    for (ExcelData excelData : dataSource) {
+                        writeSession.write(excelData);
+                    }
+                }
+            } catch (IOException | RuntimeException | Error e) {
+                writeSession.fail(e);
+                throw e;
+            } finally {
+                writeSession.finishAndRelease();
+            }
+        } finally {
+            // 释放未写入的数据 (写入异常时)
+            dataSource.forEach(ExcelData::release);
+            dataSource.clear();
+            if (ownsOutputStream) {
+                ownsOutputStream = false;
+                os.close();
             }
+        }
+    }
+
+    /**
+     * 写入一个 sheet
+     *
+     * @param sheet         sheet 对象
+     * @param excelData     渲染数据
+     * @param sheetProgress 写入进度
+     */
+    private void writeSheet(Sheet sheet, ExcelData excelData, WriteProgress.SheetProgress sheetProgress) {
+        SheetConfig sheetConfig = excelData.getSheetConfig();
+        Iterator<?> dataIterator = excelData.getDataIterator();
 
-            // 表头创建
-            writeHead(sheet, rowPosition, sheetConfig);
-            rowPosition = rowPosition + sheetConfig.getRowNum();
+        // 表名及表头创建
+        writeHead(sheet, sheetConfig);
+        int rowPosition = sheetConfig.getContentRowPosition(); // 行号
+
+        // 冻结首行和表头
+        if (sheetConfig.isFreezeHead()) {
+            sheet.createFreezePane(sheetConfig.getColNum(), rowPosition, 0, 0);
+        }
+
+        // 内容创建
+        writeContent(sheet, rowPosition, sheetConfig, dataIterator, sheetProgress);
+
+        // 释放数据
+        excelData.release();
+
+        // 流式模式下 刷出剩余的行 (sheet 写入完成后 内存中不再保留该 sheet 的行)
+        flushRows(sheet, 0);
+    }
+
+    /**
+     * 是否并行写入 sheet
+     * <p>
+     * 仅流式模式下支持并行: 流式模式下 每个 sheet 的行数据写入各自的临时文件, 且字符串以内联方式写入 (字符串存储方式不为 SHARED), sheet 之间无共享的可变结构.
+     * 内存模式下 所有 sheet 共享同一个共享字符串表, 无法并发写入
+     *
+     * @param workbook 工作簿
+     * @return 是否并行写入
+     */
+    private boolean isParallel(Workbook workbook) {
+        if (!excelConfig.isParallel() || dataSource.size() < 2) {
+            return false;
+        }
+        if (!(workbook instanceof SXSSFWorkbook)) {
+            log.warn("并行写入仅在流式模式下生效, 当前将按顺序写入");
+            return false;
+        }
+        if (excelConfig.getStringStorage() == StringStorage.SHARED) {
+            log.warn("使用共享字符串表时 sheet 之间无法并发写入, 当前将按顺序写入");
+            return false;
+        }
+        return true;
+    }
 
-            // 冻结首行和表头
-            if (sheetConfig.isFreezeHead()) {
-                sheet.createFreezePane(sheetConfig.getColNum(), rowPosition, 0, 0);
+    /**
+     * 并行写入所有 sheet
+     * <p>
+     * 当前线程与线程池中的线程一起 依次领取未写入的 sheet, 当前线程不等待尚未开始执行的任务:
+     * 异步写入与并行写入使用同一个有界线程池时, 即使线程池已满 (所有线程都在等待), 当前线程也能写入全部 sheet, 不会死锁.
+     * 只等待已领取 sheet 的线程写入完成. 未配置线程池时, 创建临时线程池 (线程数不超过 sheet 数及 cpu 核数), 写入完成后关闭
+     *
+     * @param sheetList  sheet 集合 (与 dataSource 一一对应)
+     * @param dataSource 渲染数据
+     * @param progress   写入进度
+     */
+    private void writeSheetsParallel(List<Sheet> sheetList, List<ExcelData> dataSource, WriteProgress progress) {
+        int sheetNum = sheetList.size();
+        int helperNum = Math.min(sheetNum, Runtime.getRuntime().availableProcessors()) - 1; // 当前线程之外的线程数
+        Executor executor = excelConfig.getExecutor();
+        ExecutorService temporaryExecutor = null;
+        if (executor == null) {
+            temporaryExecutor = Executors.newFixedThreadPool(Math.max(helperNum, 1));
+            executor = temporaryExecutor;
+        }
+        AtomicInteger nextSheet = new AtomicInteger();
+        CountDownLatch finished = new CountDownLatch(sheetNum);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Runnable worker = () -> {
+            int i;
+            while ((i = nextSheet.getAndIncrement()) < sheetNum) {
+                WriteProgress.SheetProgress sheetProgress = null;
+                try {
+                    // 已有 sheet 写入失败时 跳过剩余的 sheet
+                    if (failure.get() == null) {
+                        ExcelData excelData = dataSource.get(i);
+                        sheetProgress = progress.startSheet(i, excelData.getSheetConfig());
+                        writeSheet(sheetList.get(i), excelData, sheetProgress);
+                    }
+                } catch (Throwable e) {
+                    if (sheetProgress != null) {
+                        sheetProgress.fail(e);
+                    }
+                    failure.compareAndSet(null, e);
+                } finally {
+                    finished.countDown();
+                }
             }
+        };
+        try {
+            for (int i = 0; i < helperNum; i++) {
+                try {
+                    executor.execute(worker);
+                } catch (RejectedExecutionException e) {
+                    break; // 线程池已满 由当前线程写入
+                }
+            }
+            worker.run();
+            awaitUninterruptibly(finished);
+        } finally {
+            if (temporaryExecutor != null) {
+                temporaryExecutor.shutdown();
+            }
+        }
+        Throwable cause = failure.get();
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+    }
+
+    /**
+     * 等待已领取的 sheet 写入完成 (正在执行的写入无法中止, 中断标记在等待结束后恢复)
+     *
+     * @param finished 计数器
+     */
+    private static void awaitUninterruptibly(CountDownLatch finished) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                finished.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-            // 内容创建
-            writeContent(sheet, rowPosition, sheetConfig, dataList);
+    /**
+     * 根据写入模式 创建工作簿
+     * <p>
+     * 流式模式下 以配置中的 XSSFWorkbook 为模板创建 SXSSFWorkbook ({@link StreamingWorkbook}), 样式等信息仍存储于模板中.
+     * 窗口大小设置为 -1 (不自动刷出), 由 {@link #writeContent} 在每条数据写入完成后手动刷出,
+     * 避免一对多数据在纵向合并前 所需的行已被写入磁盘. 仅字符串存储方式为 SHARED 时使用共享字符串表, 否则以内联方式写入.
+     * 临时文件位于本次写入的临时文件空间中 (dispose 时删除)
+     *
+     * @return 工作簿
+     * @throws IOException 临时文件空间创建失败
+     */
+    private Workbook createWorkbook() throws IOException {
+        XSSFWorkbook xssfWorkbook = excelConfig.getXssfWorkbook();
+        if (excelConfig.getWriteMode() == WriteMode.STREAMING) {
+            ScratchSpace scratchSpace = new ScratchSpace(excelConfig.getTempDirectory(), excelConfig.getTempFileQuota());
+            try {
+                return new StreamingWorkbook(xssfWorkbook, excelConfig.isCompressTempFiles(), excelConfig.getStringStorage() == StringStorage.SHARED,
+                        excelConfig.getCompressionConfig(), scratchSpace);
+            } catch (RuntimeException e) {
+                scratchSpace.close();
+                throw e;
+            }
+        }
+        return xssfWorkbook;
+    }
 
+    /**
+     * 流式模式下 刷出滑动窗口之外的行
+     *
+     * @param sheet      sheet 对象
+     * @param windowSize 保留在内存中的行数
+     */
+    private void flushRows(Sheet sheet, int windowSize) {
+        if (sheet instanceof SXSSFSheet) {
+            try {
+                ((SXSSFSheet) sheet).flushRows(windowSize);
+            } catch (IOException e) {
+                throw new WriteToFileException();
+            }
         }
-        xssfWorkbook.write(os);
     }
 
 
     /**
-     * 写入内容
+     * 写入内容 (写入完成后 通知 sheet 写入完成)
      *
-     * @param sheet       sheet对象
-     * @param rowPosition 起始行
-     * @param dataList    数据
+     * @param sheet         sheet对象
+     * @param rowPosition   起始行
+     * @param dataIterator  数据
+     * @param sheetProgress 写入进度
      */
-    private void writeContent(XSSFSheet sheet, int rowPosition, SheetConfig sheetConfig, Collection dataList) {
+    private void writeContent(Sheet sheet, int rowPosition, SheetConfig sheetConfig, Iterator<?> dataIterator, WriteProgress.SheetProgress sheetProgress) {
         int index = 1; // 索引 从1开始计数
-        for (Object data : dataList) {
+        int firstRowPosition = rowPosition;
+        List<PropertyConfig> propertyConfigList = sheetConfig.getPropertyConfigList();
+        CellStyle[] contentCellStyles = getContentCellStyles(sheetConfig);
+        // 内存模式下 按列选择字符串的存储方式 (流式模式由工作簿统一决定)
+        StringStorageSelector stringStorageSelector = sheet instanceof XSSFSheet ? new StringStorageSelector(sheetConfig.getColumns(), excelConfig.getStringStorage()) : null;
+        RowBuffer rowBuffer = new RowBuffer(sheet, stringStorageSelector);
+        MergeAccumulator mergeAccumulator = new MergeAccumulator();
+        while (dataIterator.hasNext()) {
+            Object data = dataIterator.next();
             int colPosition = 0;
+            rowBuffer.begin(rowPosition);
             // 序号处理
             if (sheetConfig.isShowSerialNumber()) {
-                writeCell(sheet, rowPosition, colPosition++, index);
+                rowBuffer.cell(rowPosition, colPosition++, null).writeLong(index++);
             }
 
-            List<PropertyConfig> propertyConfigList = sheetConfig.getPropertyConfigList();
-
-            int rowNum = writeData(sheet, rowPosition, colPosition, data, propertyConfigList);
+            int rowNum = writeData(sheet, rowPosition, colPosition, data, propertyConfigList, contentCellStyles, rowBuffer, mergeAccumulator);
             rowPosition += rowNum;
+
+            // 提交当前数据的合并区域 并释放当前数据的行
+            mergeAccumulator.commit(sheet, rowBuffer);
+            rowBuffer.release();
+
+            // 一条数据写入完成(包括合并单元格) 刷出窗口外的行
+            flushRows(sheet, excelConfig.getWindowSize());
+            sheetProgress.recordWritten();
         }
+        sheetProgress.complete(rowPosition - firstRowPosition, rowBuffer.getCellCount(), sheet.getNumMergedRegions());
     }
 
     /**
@@ -185,68 +618,84 @@ public class ExcelWriter {
      * @param colPosition        列
      * @param data               数据
      * @param propertyConfigList 配置集合
+     * @param contentCellStyles  每一列的内容样式
+     * @param rowBuffer          行缓冲 (当前 sheet 复用)
+     * @param mergeAccumulator   合并区域累加器 (当前 sheet 复用)
      * @return 数据所需行数(用于后续合并单元格)
      */
-    private int writeData(XSSFSheet sheet, int rowPosition, int colPosition, Object data, List<PropertyConfig> propertyConfigList) {
+    private int writeData(Sheet sheet, int rowPosition, int colPosition, Object data, List<PropertyConfig> propertyConfigList, CellStyle[] contentCellStyles,
+                          RowBuffer rowBuffer, MergeAccumulator mergeAccumulator) {
         int rowNumCount = 0; // 统计当前数据所占行数
-        Map<Integer, CellStyle> singleColumnMap = new HashMap<>();  // 存储非multi的列和样式
-        for (PropertyConfig propertyConfig : propertyConfigList) {
-
-            CellStyle cellStyle = getContentCellStyle(propertyConfig);
+        int mergeMark = mergeAccumulator.mark(); // 当前层 非multi的列 (按当前数据所占行数合并)
+        for (int i = 0, size = propertyConfigList.size(); i < size; i++) { // 按下标遍历 不创建迭代器
+            PropertyConfig propertyConfig = propertyConfigList.get(i);
 
-            // 获取转换器
-            ExcelConverter converter = propertyConfig.getConverter();
+            // 普通属性 按列位置获取预先解析的样式; 内嵌属性 使用自身的样式合并所占的列
+            CellStyle cellStyle = propertyConfig.isNested() ? getContentCellStyle(propertyConfig) : contentCellStyles[colPosition];
 
-            // 获取 对应数据
-//            Field field = propertyConfig.getField();
-            Method method = propertyConfig.getMethod();
-            Object value = getValue(method, data, converter); // 获取填充数据
+            // 解析时选择的写入器 (图片及内嵌属性为空)
+            CellWriter cellWriter = propertyConfig.getCellWriter();
 
             // 写入数据
             if (!propertyConfig.isMulti()) {
                 if (!propertyConfig.isNested()) {
                     // 普通属性  直接写入 并且 colPosition 加1
-                    writeCell(sheet, rowPosition, colPosition++, value, propertyConfig.getWriteType(), cellStyle);
-                    singleColumnMap.put(colPosition - 1, cellStyle);
+                    if (cellWriter != null) {
+                        cellWriter.write(data, rowBuffer.cell(rowPosition, colPosition++, cellStyle));
+                    } else {
+                        writeCell(sheet, rowPosition, colPosition++, getValue(propertyConfig, data), propertyConfig.getWriteType(), cellStyle, pictureRegistry);
+                        rowBuffer.countCell();
+                    }
+                    mergeAccumulator.pending(colPosition - 1, cellStyle);
                 } else {
                     // 嵌套属性则依次递归调用当前方法  依次写入
-                    writeData(sheet, rowPosition, colPosition, value, propertyConfig.getChildPropertyConfigList());
+                    writeData(sheet, rowPosition, colPosition, getValue(propertyConfig, data), propertyConfig.getChildPropertyConfigList(), contentCellStyles, rowBuffer, mergeAccumulator);
                     colPosition += propertyConfig.getColNum();
-                    for (int i = colPosition - propertyConfig.getColNum(); i < colPosition; i++) {
-                        singleColumnMap.put(i, cellStyle);
+                    for (int col = colPosition - propertyConfig.getColNum(); col < colPosition; col++) {
+                        mergeAccumulator.pending(col, cellStyle);
                     }
                 }
                 rowNumCount = Math.max(rowNumCount, 1); // 仅占一行
             } else {
-                Collection collection = (Collection) value; // 强转为 集合
+                Collection collection = (Collection) getValue(propertyConfig, data); // 强转为 集合
                 int currentRowPosition = rowPosition; // 标记行位置
 
                 // 非嵌套对象
                 if (!propertyConfig.isNested()) {
                     if (collection == null) {
                         // 写一行数据
-                        writeCell(sheet, currentRowPosition, colPosition, null, propertyConfig.getWriteType(), cellStyle);
+                        if (cellWriter != null) {
+                            cellWriter.write(null, rowBuffer.cell(currentRowPosition, colPosition, cellStyle));
+                        } else {
+                            writeCell(sheet, currentRowPosition, colPosition, null, propertyConfig.getWriteType(), cellStyle, pictureRegistry);
+                            rowBuffer.countCell();
+                        }
                         rowNumCount = Math.max(rowNumCount, 1);
                     } else {
                         for (Object currentValue : collection) {
                             // 写入多行数据
-                            writeCell(sheet, currentRowPosition++, colPosition, currentValue, propertyConfig.getWriteType(), cellStyle);
+                            if (cellWriter != null) {
+                                cellWriter.write(currentValue, rowBuffer.cell(currentRowPosition++, colPosition, cellStyle));
+                            } else {
+                                writeCell(sheet, currentRowPosition++, colPosition, currentValue, propertyConfig.getWriteType(), cellStyle, pictureRegistry);
+                                rowBuffer.countCell();
+                            }
                         }
-                        colPosition++;
                         rowNumCount = Math.max(rowNumCount, collection.size()); // 占多行
                     }
+                    colPosition++;
                 } else {
                     // 嵌套对象
 
                     // 集合对象 判空  空对象会导致for循环报错  需要单独处理
                     if (collection == null) {
                         // 写一行数据
-                        writeData(sheet, currentRowPosition, colPosition, value, propertyConfig.getChildPropertyConfigList());
+                        writeData(sheet, currentRowPosition, colPosition, null, propertyConfig.getChildPropertyConfigList(), contentCellStyles, rowBuffer, mergeAccumulator);
                         rowNumCount = Math.max(rowNumCount, 1);
                     } else {
                         int totalChildRowNum = 0; // 对应对象所占的总行数
                         for (Object currentValue : collection) {
-                            int childRowNum = writeData(sheet, currentRowPosition, colPosition, currentValue, propertyConfig.getChildPropertyConfigList());
+                            int childRowNum = writeData(sheet, currentRowPosition, colPosition, currentValue, propertyConfig.getChildPropertyConfigList(), contentCellStyles, rowBuffer, mergeAccumulator);
                             totalChildRowNum += childRowNum; // 更新总行数
                             currentRowPosition += childRowNum; // 更新写入的位置
                         }
@@ -256,156 +705,70 @@ public class ExcelWriter {
                 }
             }
         }
-        for (Integer mergeColPosition : singleColumnMap.keySet()) {
-            mergeRowCell(sheet, rowPosition, mergeColPosition, rowNumCount, singleColumnMap.get(mergeColPosition));
-        }
+        mergeAccumulator.merge(mergeMark, rowPosition, rowNumCount);
         return rowNumCount;
     }
 
 
     /**
-     * 写入表头
+     * 写入表名及表头
+     * <p>
+     * 按照解析时生成的表头模板一次写入: 单元格的值, 样式及合并区域 (模板中的合并区域互不重叠, 无需逐个校验)
      *
-     * @param sheet       sheet对象
-     * @param rowPosition 起始行
+     * @param sheet       sheet 对象
+     * @param sheetConfig sheet 配置
      */
-    private void writeHead(XSSFSheet sheet, int rowPosition, SheetConfig sheetConfig) {
-        int size = sheetConfig.getRowNum();
-        int colPosition = 0;
-
-        // 处理序号列
-        if (sheetConfig.isShowSerialNumber()) {
-            CellStyle cellStyle = getSerialNumberCellStyle(sheetConfig);
-            mergeRowCell(sheet, rowPosition, colPosition, size, cellStyle);
-            writeCell(sheet, rowPosition, colPosition++, "序号");
+    private void writeHead(Sheet sheet, SheetConfig sheetConfig) {
+        HeadTemplate headTemplate = sheetConfig.getHeadTemplate();
+
+        // 解析样式槽位
+        List<HeadTemplate.StyleSlot> styleSlots = headTemplate.getStyleSlots();
+        CellStyle[] cellStyles = new CellStyle[styleSlots.size()];
+        for (int i = 0; i < cellStyles.length; i++) {
+            cellStyles[i] = cellStyleRegistry.getCellStyle(styleSlots.get(i).resolve(excelConfig));
         }
 
-        // 表头写入
-        List<PropertyConfig> propertyConfigList = sheetConfig.getPropertyConfigList();
-        writeHead(sheet, propertyConfigList, rowPosition, colPosition, size);
-
-        // 合并同名表头
-        mergeSameHead(sheet, rowPosition, sheetConfig.getRowNum(), sheetConfig.getColNum());
-    }
-
-
-    /**
-     * 写入表头  (根据 propertyConfigList 进行写入)
-     *
-     * @param sheet              sheet 对象
-     * @param propertyConfigList 属性集合
-     * @param rowPosition        行位置
-     * @param colPosition        列位置
-     * @param size               大小
-     */
-    private void writeHead(XSSFSheet sheet, List<PropertyConfig> propertyConfigList, int rowPosition, int colPosition, int size) {
-        for (PropertyConfig propertyConfig : propertyConfigList) {
-
-            CellStyle cellStyle = getHeadCellStyle(propertyConfig);
-
-            int currentRowPosition = rowPosition; // 当前行数 每个属性单独计算
-            if (!propertyConfig.isNested()) { // 处理非内嵌属性
-                String[] value = propertyConfig.getValue();
-                // 每一个值占一行  最后一行占剩余所有行
-                int rem = size; // 剩余可分配行数
-                for (int i = 0; i < value.length; i++) {
-                    //  最后一行  合并当前剩余行
-                    if (i == value.length - 1) {
-                        mergeRowCell(sheet, currentRowPosition, colPosition, rem, cellStyle);
-                    }
-                    writeCell(sheet, currentRowPosition++, colPosition, value[i], String.class, cellStyle);
-                    rem--; // 余量减1
-                }
-            } else {    // 处理内嵌属性
-                int rem = size; // 剩余可分配行数
-                // 如果要展示当前表头 则写入当前表头
-                if (propertyConfig.isShowCurrentName()) {
-                    String[] value = propertyConfig.getValue();
-                    for (int i = 0; i < value.length; i++) {
-                        writeCell(sheet, currentRowPosition, colPosition, value[i], String.class, cellStyle); // 写入表头
-                        mergeColCell(sheet, currentRowPosition, colPosition, propertyConfig.getColNum(), cellStyle); // 横向合并
-                        currentRowPosition++;
-                        rem--; // 余量减1
-                    }
+        for (int rowPosition = 0; rowPosition < headTemplate.getRowNum(); rowPosition++) {
+            Row row = sheet.createRow(rowPosition);
+            for (int colPosition = 0; colPosition < headTemplate.getColNum(); colPosition++) {
+                String value = headTemplate.getValue(rowPosition, colPosition);
+                int styleSlotIndex = headTemplate.getStyleSlotIndex(rowPosition, colPosition);
+                if (value == null && styleSlotIndex < 0) {
+                    continue;
                 }
-                List<PropertyConfig> childPropertyConfigList = propertyConfig.getChildPropertyConfigList();
-                writeHead(sheet, childPropertyConfigList, currentRowPosition, colPosition, rem);
-            }
-            colPosition = colPosition + propertyConfig.getColNum();
-        }
-    }
-
-
-    /**
-     * 合并同名单元格(横向合并)
-     *
-     * @param sheet       sheet 对象
-     * @param rowPosition 行起始位置
-     * @param rowRange    行范围
-     * @param colRange    列范围
-     */
-    private void mergeSameHead(XSSFSheet sheet, int rowPosition, int rowRange, int colRange) {
-        for (int i = 0; i < rowRange; i++) {
-            int currentRowPosition = rowPosition + i;
-            XSSFRow selectRow = sheet.getRow(currentRowPosition); // 选中行
-            String flagValue = ""; // 标记值
-            int repeatNum = 0; // 重复值
-            for (int j = 0; j < colRange; j++) {
-                XSSFCell cell = selectRow.getCell(j);
-                if (cell == null) {
-                    cell = selectRow.createCell(j);
+                Cell cell = row.createCell(colPosition);
+                if (value != null) {
+                    cell.setCellValue(value);
                 }
-                String currentValue = cell.getStringCellValue(); // 默认标题头都是字符串类型
-                assert currentValue != null; // For blank cells we return an empty string
-                if (flagValue.equals(currentValue) && !flagValue.equals("")) {
-                    repeatNum++;
-                } else {
-                    if (repeatNum > 1) {
-                        // 获取之前单元格的样式
-                        mergeRepeatCol(sheet, currentRowPosition, j, repeatNum);
-                    }
-                    // 更新值
-                    flagValue = currentValue;
-                    repeatNum = 1;
+                if (styleSlotIndex >= 0) {
+                    cell.setCellStyle(cellStyles[styleSlotIndex]);
                 }
             }
-            // 获取之前单元格的样式
-            mergeRepeatCol(sheet, currentRowPosition, colRange, repeatNum);
+        }
+        for (CellRangeAddress mergedRegion : headTemplate.getMergedRegions()) {
+            sheet.addMergedRegionUnsafe(mergedRegion.copy());
         }
     }
 
     /**
-     * 合并重复的列
-     *
-     * @param sheet       sheet 对象
-     * @param rowPosition 行
-     * @param colPosition 列位置(需要合并的单元格不包含当前列位置)
-     * @param repeatNum   重复树
-     */
-    private void mergeRepeatCol(XSSFSheet sheet, int rowPosition, int colPosition, int repeatNum) {
-        // 获取之前单元格的样式
-        XSSFRow row = sheet.getRow(rowPosition);
-        XSSFCell previousCell = row.getCell(colPosition - 1);
-        XSSFCellStyle cellStyle = previousCell.getCellStyle();
-        // 合并之前的重复单元格
-        mergeColCell(sheet, rowPosition, colPosition - repeatNum, repeatNum, cellStyle);
-    }
-
-
-    /**
-     * 写入 sheetName
+     * 获取每一列的内容样式
+     * <p>
+     * 每个 sheet 仅解析一次, 写入单元格时 根据列位置直接获取
      *
-     * @param sheet       sheet 对象
-     * @param rowPosition 行位置
      * @param sheetConfig sheet 配置
+     * @return 内容样式 (下标为列位置, 序号列为 null)
      */
-    private void writeSheetName(XSSFSheet sheet, SheetConfig sheetConfig, int rowPosition) {
-        CellStyle cellStyle = getSheetNameStyle(sheetConfig);
-        writeCell(sheet, rowPosition, 0, sheetConfig.getSheetName(), String.class, cellStyle);
-        mergeColCell(sheet, rowPosition, 0, sheetConfig.getColNum(), cellStyle);
+    private CellStyle[] getContentCellStyles(SheetConfig sheetConfig) {
+        PropertyConfig[] columns = sheetConfig.getColumns();
+        CellStyle[] cellStyles = new CellStyle[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] != null) {
+                cellStyles[i] = getContentCellStyle(columns[i]);
+            }
+        }
+        return cellStyles;
     }
 
-
     /**
      * 获取 content 单元格样式
      *
@@ -418,80 +781,146 @@ public class ExcelWriter {
             contentCellStyleConfig = excelConfig.getContentCellStyleConfig();
         }
         assert contentCellStyleConfig != null;
-        return contentCellStyleConfig.createCellStyle(excelConfig.getXssfWorkbook());
+        return cellStyleRegistry.getCellStyle(contentCellStyleConfig);
     }
 
     /**
-     * 获取表头的单元格样式
+     * 获取写入数据
      *
-     * @param propertyConfig property 配置
-     * @return 表头的单元格样式
+     * @param propertyConfig 属性配置
+     * @param data           数据对象
+     * @return 写入数据
      */
-    private CellStyle getHeadCellStyle(PropertyConfig propertyConfig) {
-        // 获取 当前属性 标题 的 样式
-        AbstractCellStyleConfig cellStyleConfig = propertyConfig.getHeadCellStyleConfig();
-        if (cellStyleConfig == null) {
-            cellStyleConfig = excelConfig.getHeadCellStyleConfig();
-        }
-        assert cellStyleConfig != null;
-        return cellStyleConfig.createCellStyle(excelConfig.getXssfWorkbook());
+    private Object getValue(PropertyConfig propertyConfig, Object data) {
+        Object value = null;
+        if (data != null) {
+            value = propertyConfig.getAccessor().get(data); // 获取对应数据
+            ExcelConverter converter = propertyConfig.getConverter();
+            if (converter != null) {
+                value = converter.convert(value);
+            }
+        }
+        return value;
     }
 
     /**
-     * 获取 序列号 的单元格 样式
-     *
-     * @param sheetConfig sheet 配置
-     * @return 序列号的单元格样式
+     * 一次写入 (工作簿, 输出流及进度). 依次写入 sheet, 最后完成工作簿的写入 并释放资源
      */
-    private CellStyle getSerialNumberCellStyle(SheetConfig sheetConfig) {
-        AbstractCellStyleConfig serialNumberStyleConfig = sheetConfig.getSerialNumberStyleConfig();
-        if (serialNumberStyleConfig == null) {
-            serialNumberStyleConfig = excelConfig.getSerialNumberStyleConfig();
+    private final class WriteSession {
+
+        private final WriteProgress progress;
+        private final OutputStream out; // 包装后的输出流
+        private final Workbook workbook; // 直接写入模式为空
+        private final DirectWorkbookWriter directWorkbookWriter; // 非直接写入模式为空
+        private int sheets;
+        private Throwable failure; // 写入失败时 不再写入工作簿的剩余部分
+
+        WriteSession() throws IOException {
+            progress = new WriteProgress(excelConfig, () -> cancelled);
+            out = progress.wrap(os);
+            cellStyleRegistry = new CellStyleRegistry(excelConfig.getXssfWorkbook());
+            if (excelConfig.getWriteMode() == WriteMode.DIRECT) {
+                // 直接写入模式 不经过 poi usermodel
+                workbook = null;
+                pictureRegistry = null;
+                directWorkbookWriter = new DirectWorkbookWriter(excelConfig, cellStyleRegistry);
+                directWorkbookWriter.open(out);
+            } else {
+                workbook = createWorkbook();
+                pictureRegistry = new PictureRegistry(workbook);
+                directWorkbookWriter = null;
+            }
         }
-        assert serialNumberStyleConfig != null;
-        return serialNumberStyleConfig.createCellStyle(excelConfig.getXssfWorkbook());
-    }
 
-    /**
-     * 获取 sheetName 的单元格样式
-     *
-     * @param sheetConfig sheet 配置
-     * @return sheetName 的单元格样式
-     */
-    private CellStyle getSheetNameStyle(SheetConfig sheetConfig) {
-        AbstractCellStyleConfig sheetNameStyleConfig = sheetConfig.getSheetNameStyleConfig();
-        // 如果没有配置样式 则获取 excelConfig 中的样式(必定包含默认样式)
-        if (sheetNameStyleConfig == null) {
-            sheetNameStyleConfig = excelConfig.getSheetNameStyleConfig();
-        }
-        assert sheetNameStyleConfig != null;
-        return sheetNameStyleConfig.createCellStyle(excelConfig.getXssfWorkbook());
-    }
+        /**
+         * 写入一个 sheet (写入完成后 释放数据)
+         *
+         * @param excelData 渲染数据
+         * @throws IOException 写入失败
+         */
+        void write(ExcelData excelData) throws IOException {
+            if (failure != null) {
+                throw new IllegalStateException("写入失败的会话 无法继续写入");
+            }
+            int sheetIndex = sheets++;
+            WriteProgress.SheetProgress sheetProgress = null;
+            try {
+                sheetProgress = progress.startSheet(sheetIndex, excelData.getSheetConfig());
+                if (directWorkbookWriter != null) {
+                    directWorkbookWriter.writeSheet(excelData, sheetProgress);
+                } else {
+                    writeSheet(workbook.createSheet(excelData.getSheetConfig().getSheetName()), excelData, sheetProgress);
+                }
+            } catch (IOException | RuntimeException | Error e) {
+                if (sheetProgress != null) {
+                    sheetProgress.fail(e);
+                }
+                fail(e);
+                throw e;
+            } finally {
+                excelData.release();
+            }
+        }
 
+        /**
+         * 标记写入失败 (仅记录第一次的异常)
+         *
+         * @param cause 异常
+         */
+        void fail(Throwable cause) {
+            if (failure == null) {
+                failure = cause;
+            }
+        }
 
-    /**
-     * 获取写入数据
-     *
-     * @param method    方法
-     * @param data      数据对象
-     * @param converter 转换器
-     * @return 写入数据
-     */
-    private Object getValue(Method method, Object data, ExcelConverter converter) {
-        Object value = null;
-        if (data != null) {
-            try {
-                value = method.invoke(data); // 获取对应数据
-            } catch (IllegalAccessException e) {
-                e.printStackTrace(); // 忽略即可
-            } catch (InvocationTargetException e) {
-                e.printStackTrace();
+        /**
+         * 并行写入所有 sheet (仅流式模式, 见 isParallel)
+         *
+         * @param dataSource 渲染数据
+         */
+        void writeParallel(List<ExcelData> dataSource) {
+            // 按顺序创建 sheet (创建 sheet 会修改工作簿结构, 不能并发执行)
+            List<Sheet> sheetList = new ArrayList<>();
+            for (ExcelData excelData : dataSource) {
+                sheetList.add(workbook.createSheet(excelData.getSheetConfig().getSheetName()));
             }
-            if (converter != null) {
-                value = converter.convert(value);
+            sheets = sheetList.size();
+            writeSheetsParallel(sheetList, dataSource, progress);
+        }
+
+        /**
+         * 完成工作簿的写入 (写入失败时跳过) 并释放资源 (流式模式下 清理临时文件)
+         * <p>
+         * 成功, 失败及取消时 均记录工作簿的指标
+         *
+         * @throws IOException 写入失败
+         */
+        void finishAndRelease() throws IOException {
+            try {
+                if (failure != null) {
+                    progress.fail(out, sheets, failure);
+                    return;
+                }
+                progress.checkCancelled();
+                long serializeNanos;
+                if (directWorkbookWriter != null) {
+                    serializeNanos = directWorkbookWriter.finish();
+                } else {
+                    long serializeStart = System.nanoTime();
+                    // 内存模式下 按部件设置压缩级别 (流式模式由 StreamingWorkbook 处理)
+                    CompressionConfig compressionConfig = excelConfig.getCompressionConfig();
+                    workbook.write(compressionConfig != null && workbook instanceof XSSFWorkbook ? new PartCompressionOutputStream(out, compressionConfig) : out);
+                    serializeNanos = System.nanoTime() - serializeStart;
+                }
+                progress.complete(out, sheets, pictureRegistry == null ? 0 : pictureRegistry.bytes(), serializeNanos);
+            } catch (IOException | RuntimeException | Error e) {
+                progress.fail(out, sheets, e);
+                throw e;
+            } finally {
+                if (workbook instanceof SXSSFWorkbook) {
+                    ((SXSSFWorkbook) workbook).dispose();
+                }
             }
         }
-        return value;
     }
-
 }
@@ -0,0 +1,110 @@
+package com.zuijianren.excel.core;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import java.util.Arrays;
+
+/**
+ * 合并区域累加器
+ * <p>
+ * 写入数据时收集单值列的纵向合并区域, 一条数据写入完成后统一提交: 为区域内的单元格设置样式,
+ * 并通过 addMergedRegionUnsafe 添加合并区域 (不与已有区域逐个校验, 写入耗时随行数线性增长).
+ * 同一条数据中的区域 列或行互不重叠, 不同数据的行互不重叠, 因此无需校验
+ * <p>
+ * 待合并的列以栈的方式保存 (每层 writeData 在返回前弹出自身添加的列), 数组复用, 写入时不产生额外对象. 非线程安全, 每个 sheet 一个
+ *
+ * @author zuijianren
+ * @date 2023/3/31 10:00
+ */
+final class MergeAccumulator {
+
+    private int[] pendingCols = new int[16]; // 待合并的列
+    private CellStyle[] pendingStyles = new CellStyle[16];
+    private int pendingSize;
+
+    private int[] regions = new int[16 * 3]; // 合并区域: 起始行, 结束行, 列
+    private CellStyle[] regionStyles = new CellStyle[16];
+    private int regionSize;
+
+    /**
+     * 当前待合并列的位置 (用于 {@link #merge(int, int, int)})
+     *
+     * @return 栈顶位置
+     */
+    int mark() {
+        return pendingSize;
+    }
+
+    /**
+     * 添加待合并的列 (合并的行数在当前层数据写入完成后确定)
+     *
+     * @param colPosition 列
+     * @param cellStyle   样式
+     */
+    void pending(int colPosition, CellStyle cellStyle) {
+        if (pendingSize == pendingCols.length) {
+            pendingCols = Arrays.copyOf(pendingCols, pendingSize * 2);
+            pendingStyles = Arrays.copyOf(pendingStyles, pendingSize * 2);
+        }
+        pendingCols[pendingSize] = colPosition;
+        pendingStyles[pendingSize++] = cellStyle;
+    }
+
+    /**
+     * 将 mark 之后添加的列 转换为合并区域 (行数小于 2 时无需合并), 并弹出这些列
+     *
+     * @param mark        {@link #mark()} 的返回值
+     * @param rowPosition 起始行
+     * @param rowNum      行数
+     */
+    void merge(int mark, int rowPosition, int rowNum) {
+        if (rowNum >= 2) {
+            for (int i = mark; i < pendingSize; i++) {
+                addRegion(rowPosition, rowPosition + rowNum - 1, pendingCols[i], pendingStyles[i]);
+            }
+        }
+        Arrays.fill(pendingStyles, mark, pendingSize, null);
+        pendingSize = mark;
+    }
+
+    /**
+     * 提交收集的合并区域: 设置区域内单元格的样式 (不存在时创建) 并添加合并区域
+     *
+     * @param sheet     sheet 对象
+     * @param rowBuffer 当前数据的行缓冲
+     */
+    void commit(Sheet sheet, RowBuffer rowBuffer) {
+        for (int i = 0; i < regionSize; i++) {
+            int firstRow = regions[i * 3];
+            int lastRow = regions[i * 3 + 1];
+            int colPosition = regions[i * 3 + 2];
+            CellStyle cellStyle = regionStyles[i];
+            for (int rowPosition = firstRow; rowPosition <= lastRow; rowPosition++) {
+                Row row = rowBuffer.row(rowPosition);
+                Cell cell = row.getCell(colPosition);
+                if (cell == null) {
+                    cell = row.createCell(colPosition);
+                }
+                cell.setCellStyle(cellStyle);
+            }
+            sheet.addMergedRegionUnsafe(new CellRangeAddress(firstRow, lastRow, colPosition, colPosition));
+            regionStyles[i] = null;
+        }
+        regionSize = 0;
+    }
+
+    private void addRegion(int firstRow, int lastRow, int colPosition, CellStyle cellStyle) {
+        if (regionSize == regionStyles.length) {
+            regions = Arrays.copyOf(regions, regionSize * 2 * 3);
+            regionStyles = Arrays.copyOf(regionStyles, regionSize * 2);
+        }
+        regions[regionSize * 3] = firstRow;
+        regions[regionSize * 3 + 1] = lastRow;
+        regions[regionSize * 3 + 2] = colPosition;
+        regionStyles[regionSize++] = cellStyle;
+    }
+}
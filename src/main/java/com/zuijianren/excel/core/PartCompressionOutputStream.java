@@ -0,0 +1,33 @@
+package com.zuijianren.excel.core;
+
+import com.zuijianren.excel.config.CompressionConfig;
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 按部件设置压缩级别的 zip 输出流
+ * <p>
+ * poi 保存工作簿时 若输出流已是 ZipArchiveOutputStream 则直接使用 (流式模式见 {@link StreamingWorkbook}), 写入每个部件前 根据部件名设置压缩级别.
+ * 写入完成后 poi 仅调用 finish, 不会关闭被包装的输出流
+ *
+ * @author zuijianren
+ * @date 2023/4/2 15:00
+ */
+final class PartCompressionOutputStream extends ZipArchiveOutputStream {
+
+    private final CompressionConfig compressionConfig;
+
+    PartCompressionOutputStream(OutputStream out, CompressionConfig compressionConfig) {
+        super(out);
+        this.compressionConfig = compressionConfig;
+    }
+
+    @Override
+    public void putArchiveEntry(ArchiveEntry archiveEntry) throws IOException {
+        setLevel(compressionConfig.getLevel(archiveEntry.getName()));
+        super.putArchiveEntry(archiveEntry);
+    }
+}
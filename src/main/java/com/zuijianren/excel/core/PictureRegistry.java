@@ -0,0 +1,315 @@
+package com.zuijianren.excel.core;
+
+import com.zuijianren.excel.exceptions.WriteToCellException;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFClientAnchor;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 图片注册表
+ * <p>
+ * 与工作簿一一对应. 根据图片内容的摘要缓存已添加的图片, 相同的图片在同一工作簿中仅保存一次, 之后所有单元格引用同一图片;
+ * 每个 sheet 复用同一个绘图对象
+ * <p>
+ * 支持的图片类型:
+ * <ul>
+ *     <li>BufferedImage: 编码为 png (同一对象在被回收前仅编码一次)</li>
+ *     <li>byte[], Path, InputStream: 已编码的 png 或 jpeg, 直接写入 不进行解码 (InputStream 读取后关闭)</li>
+ *     <li>同一 byte[] 对象仅计算一次摘要; 同一 Path 在文件未修改 (修改时间及大小不变) 时 仅读取一次</li>
+ * </ul>
+ * 线程安全: 读取及摘要计算无锁, 修改工作簿时锁定工作簿 (添加图片及绘图会修改工作簿的包结构), 可供并行写入的多个 sheet 共同使用
+ *
+ * @author zuijianren
+ * @date 2023/3/27 15:10
+ */
+public class PictureRegistry {
+
+    private final Workbook workbook;
+
+    private final Map<ByteBuffer, PictureInfo> pictureCache = new HashMap<>(); // 摘要 -> 图片
+
+    // 已编码的 BufferedImage (BufferedImage 未重写 equals, 按对象比较). 弱引用: 不阻止数据源中已写入的图片被回收, 流式写入时内存中不会累积所有图片
+    private final Map<BufferedImage, PictureInfo> imageCache = new WeakHashMap<>();
+
+    private final Map<byte[], PictureInfo> bytesCache = new WeakHashMap<>(); // 已添加的 byte[] (按对象比较, 弱引用)
+
+    private final Map<Path, PathPicture> pathCache = new HashMap<>(); // 已添加的图片文件 (文件修改后重新读取)
+
+    private final Map<Sheet, Drawing<?>> drawingCache = new IdentityHashMap<>(); // sheet -> 绘图对象
+
+    private long bytes; // 已添加的图片字节数
+
+    public PictureRegistry(Workbook workbook) {
+        this.workbook = workbook;
+    }
+
+    /**
+     * 是否为支持的图片类型
+     *
+     * @param type 写入类型
+     * @return 是否为图片
+     */
+    public static boolean isPictureType(Class<?> type) {
+        return BufferedImage.class.isAssignableFrom(type)
+                || byte[].class == type
+                || Path.class.isAssignableFrom(type)
+                || InputStream.class.isAssignableFrom(type);
+    }
+
+    /**
+     * 向指定单元格中写入图片 (图片填满单元格, 并根据图片大小调整行高及列宽)
+     *
+     * @param sheet       sheet 对象
+     * @param rowPosition 行
+     * @param colPosition 列
+     * @param image       图片 (BufferedImage, byte[], Path 或 InputStream)
+     * @return 单元格
+     */
+    public Cell writePicture(Sheet sheet, int rowPosition, int colPosition, Object image) {
+        Row row = sheet.getRow(rowPosition);
+        if (row == null) {
+            row = sheet.createRow(rowPosition);
+        }
+        Cell cell = row.createCell(colPosition);
+
+        PictureInfo pictureInfo;
+        try {
+            pictureInfo = getPicture(image);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new WriteToCellException(rowPosition, colPosition, "图片读取失败", e);
+        }
+
+        // 设置宽高
+        if (pictureInfo.width > 0 && pictureInfo.height > 0) {
+            row.setHeight((short) Math.min(pictureInfo.height * 20, Short.MAX_VALUE));
+            sheet.setColumnWidth(colPosition, Math.min((int) (pictureInfo.width * 20 * 2.2), 255 * 256));
+        }
+
+        // 创建图片时 会修改工作簿的包结构, 并行写入多个 sheet 时需要同步
+        synchronized (workbook) {
+            ClientAnchor clientAnchor = new XSSFClientAnchor(0, 0, 0, 0, colPosition, rowPosition, colPosition + 1, rowPosition + 1);
+            clientAnchor.setAnchorType(ClientAnchor.AnchorType.MOVE_AND_RESIZE);
+            getDrawing(sheet).createPicture(clientAnchor, pictureInfo.index);
+        }
+        return cell;
+    }
+
+    /**
+     * 已添加的图片数量
+     *
+     * @return 图片数量
+     */
+    public int size() {
+        synchronized (workbook) {
+            return pictureCache.size();
+        }
+    }
+
+    /**
+     * 已添加的图片字节数 (内容相同的图片仅计算一次)
+     *
+     * @return 字节数
+     */
+    public long bytes() {
+        synchronized (workbook) {
+            return bytes;
+        }
+    }
+
+    /**
+     * 获取 sheet 的绘图对象 (需持有工作簿的锁)
+     */
+    private Drawing<?> getDrawing(Sheet sheet) {
+        return drawingCache.computeIfAbsent(sheet, Sheet::createDrawingPatriarch);
+    }
+
+    /**
+     * 获取图片 (不存在时添加至工作簿)
+     */
+    private PictureInfo getPicture(Object image) throws IOException {
+        if (image instanceof BufferedImage) {
+            BufferedImage bufferedImage = (BufferedImage) image;
+            synchronized (workbook) {
+                PictureInfo pictureInfo = imageCache.get(bufferedImage);
+                if (pictureInfo != null) {
+                    return pictureInfo;
+                }
+            }
+            PictureInfo pictureInfo = addPicture(encode(bufferedImage), Workbook.PICTURE_TYPE_PNG, bufferedImage.getWidth(), bufferedImage.getHeight());
+            synchronized (workbook) {
+                imageCache.put(bufferedImage, pictureInfo);
+            }
+            return pictureInfo;
+        }
+
+        if (image instanceof byte[]) {
+            byte[] bytes = (byte[]) image;
+            synchronized (workbook) {
+                PictureInfo pictureInfo = bytesCache.get(bytes);
+                if (pictureInfo != null) {
+                    return pictureInfo;
+                }
+            }
+            PictureInfo pictureInfo = addEncodedPicture(bytes);
+            synchronized (workbook) {
+                bytesCache.put(bytes, pictureInfo);
+            }
+            return pictureInfo;
+        }
+
+        if (image instanceof Path) {
+            Path path = ((Path) image).toAbsolutePath().normalize();
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            long size = attributes.size();
+            synchronized (workbook) {
+                PathPicture pathPicture = pathCache.get(path);
+                if (pathPicture != null && pathPicture.lastModified == lastModified && pathPicture.size == size) {
+                    return pathPicture.pictureInfo;
+                }
+            }
+            PictureInfo pictureInfo = addEncodedPicture(Files.readAllBytes(path));
+            synchronized (workbook) {
+                pathCache.put(path, new PathPicture(pictureInfo, lastModified, size));
+            }
+            return pictureInfo;
+        }
+
+        return addEncodedPicture(readBytes(image));
+    }
+
+    /**
+     * 添加已编码的图片 (png 或 jpeg)
+     */
+    private PictureInfo addEncodedPicture(byte[] bytes) {
+        if (isPng(bytes)) {
+            return addPicture(bytes, Workbook.PICTURE_TYPE_PNG, readInt(bytes, 16), readInt(bytes, 20));
+        }
+        if (isJpeg(bytes)) {
+            int[] size = readJpegSize(bytes);
+            return addPicture(bytes, Workbook.PICTURE_TYPE_JPEG, size[0], size[1]);
+        }
+        throw new IllegalArgumentException("仅支持 png 及 jpeg 格式的图片");
+    }
+
+    /**
+     * 添加图片 (内容相同的图片仅添加一次)
+     */
+    private PictureInfo addPicture(byte[] bytes, int pictureType, int width, int height) {
+        ByteBuffer digest = ByteBuffer.wrap(digest(bytes));
+        synchronized (workbook) {
+            return pictureCache.computeIfAbsent(digest, key -> {
+                this.bytes += bytes.length;
+                return new PictureInfo(workbook.addPicture(bytes, pictureType), width, height);
+            });
+        }
+    }
+
+    private static byte[] readBytes(Object image) throws IOException {
+        if (image instanceof InputStream) {
+            try (InputStream is = (InputStream) image) {
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int length;
+                while ((length = is.read(buffer)) != -1) {
+                    baos.write(buffer, 0, length);
+                }
+                return baos.toByteArray();
+            }
+        }
+        throw new IllegalArgumentException("不支持的图片类型: " + image.getClass().getName());
+    }
+
+    private static byte[] encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", baos);
+        return baos.toByteArray();
+    }
+
+    private static byte[] digest(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isPng(byte[] bytes) {
+        return bytes.length > 24 && (bytes[0] & 0xFF) == 0x89 && bytes[1] == 'P' && bytes[2] == 'N' && bytes[3] == 'G';
+    }
+
+    private static boolean isJpeg(byte[] bytes) {
+        return bytes.length > 3 && (bytes[0] & 0xFF) == 0xFF && (bytes[1] & 0xFF) == 0xD8 && (bytes[2] & 0xFF) == 0xFF;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16) | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+
+    /**
+     * 从 jpeg 的 SOF 段中读取宽高 (未找到时返回 0)
+     */
+    private static int[] readJpegSize(byte[] bytes) {
+        int position = 2;
+        while (position + 9 < bytes.length) {
+            if ((bytes[position] & 0xFF) != 0xFF) {
+                break;
+            }
+            int marker = bytes[position + 1] & 0xFF;
+            int length = ((bytes[position + 2] & 0xFF) << 8) | (bytes[position + 3] & 0xFF);
+            // SOF0 ~ SOF15 (不包括 DHT, JPG, DAC)
+            if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+                int height = ((bytes[position + 5] & 0xFF) << 8) | (bytes[position + 6] & 0xFF);
+                int width = ((bytes[position + 7] & 0xFF) << 8) | (bytes[position + 8] & 0xFF);
+                return new int[]{width, height};
+            }
+            position += 2 + length;
+        }
+        return new int[]{0, 0};
+    }
+
+    /**
+     * 已添加的图片文件
+     */
+    private static final class PathPicture {
+        final PictureInfo pictureInfo;
+        final long lastModified; // 读取时的修改时间
+        final long size; // 读取时的大小
+
+        PathPicture(PictureInfo pictureInfo, long lastModified, long size) {
+            this.pictureInfo = pictureInfo;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+    }
+
+    /**
+     * 已添加的图片
+     */
+    private static final class PictureInfo {
+        final int index; // 工作簿中的图片下标
+        final int width; // 宽 (像素)
+        final int height; // 高 (像素)
+
+        PictureInfo(int index, int width, int height) {
+            this.index = index;
+            this.width = width;
+            this.height = height;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.zuijianren.excel.core;
+
+import com.zuijianren.excel.writer.CellValueSink;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
+
+/**
+ * poi 单元格的写入目标
+ * <p>
+ * 每个 sheet 复用一个对象, 写入前通过 {@link #at(Cell, int)} 指定单元格 (非线程安全).
+ * 内存模式下 根据 {@link StringStorageSelector} 选择字符串以共享或内联的方式写入
+ *
+ * @author zuijianren
+ * @date 2023/3/30 15:00
+ */
+final class PoiCellValueSink implements CellValueSink {
+
+    private final StringStorageSelector stringStorageSelector;
+
+    private Cell cell;
+    private int colPosition;
+
+    /**
+     * @param stringStorageSelector 字符串存储方式的选择器 (为空时 由工作簿决定, 见 {@link Cell#setCellValue(String)})
+     */
+    PoiCellValueSink(StringStorageSelector stringStorageSelector) {
+        this.stringStorageSelector = stringStorageSelector;
+    }
+
+    /**
+     * 指定写入的单元格
+     *
+     * @param cell        单元格
+     * @param colPosition 列
+     * @return 当前对象
+     */
+    PoiCellValueSink at(Cell cell, int colPosition) {
+        this.cell = cell;
+        this.colPosition = colPosition;
+        return this;
+    }
+
+    @Override
+    public void writeLong(long value) {
+        cell.setCellValue((double) value);
+    }
+
+    @Override
+    public void writeDouble(double value) {
+        cell.setCellValue(value);
+    }
+
+    @Override
+    public void writeBoolean(boolean value) {
+        cell.setCellValue(value);
+    }
+
+    @Override
+    public void writeString(String value) {
+        if (stringStorageSelector != null && stringStorageSelector.inline(colPosition, value)) {
+            writeInlineString((XSSFCell) cell, value);
+        } else {
+            cell.setCellValue(value);
+        }
+    }
+
+    /**
+     * 以内联方式写入字符串 (不经过共享字符串表)
+     */
+    private static void writeInlineString(XSSFCell cell, String value) {
+        CTCell ctCell = cell.getCTCell();
+        ctCell.setT(STCellType.INLINE_STR);
+        if (value.isEmpty() || (!Character.isWhitespace(value.charAt(0)) && !Character.isWhitespace(value.charAt(value.length() - 1)))) {
+            ctCell.addNewIs().setT(value);
+        } else {
+            ctCell.setIs(new XSSFRichTextString(value).getCTRst()); // 首尾的空白字符需要声明 xml:space="preserve"
+        }
+    }
+
+    @Override
+    public void writeRichText(RichTextString value) {
+        cell.setCellValue(value);
+    }
+}
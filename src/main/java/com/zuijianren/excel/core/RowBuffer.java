@@ -0,0 +1,117 @@
+package com.zuijianren.excel.core;
+
+import com.zuijianren.excel.writer.CellValueSink;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.util.Arrays;
+
+/**
+ * 顺序写入的行缓冲
+ * <p>
+ * 内容按数据依次写入, 一条数据 (一对多时占多行) 的行位置连续且不会再次访问. 缓冲以数组保存当前数据的行 (下标为相对起始行的偏移),
+ * 写入单元格时直接按下标获取, 每行仅在首次访问时查找或创建一次, 无需每个单元格都调用 sheet.getRow.
+ * 一条数据写入完成 (包括合并单元格) 后 {@link #release()} 清空数组, 供下一条数据复用, 并释放对行的引用 (流式模式下刷出的行可以被回收).
+ * <p>
+ * 同时持有复用的单元格写入目标, 写入时不产生额外对象. 非线程安全, 每个 sheet 一个
+ *
+ * @author zuijianren
+ * @date 2023/4/1 10:00
+ */
+final class RowBuffer {
+
+    private final Sheet sheet;
+
+    private final PoiCellValueSink sink;
+
+    private Row[] rows = new Row[8];
+    private int firstRow;
+    private int size; // 使用过的槽位 (释放时清空)
+
+    private long cellCount; // 写入的单元格数
+
+    /**
+     * @param sheet                 sheet 对象
+     * @param stringStorageSelector 字符串存储方式的选择器 (可以为空, 见 {@link PoiCellValueSink})
+     */
+    RowBuffer(Sheet sheet, StringStorageSelector stringStorageSelector) {
+        this.sheet = sheet;
+        this.sink = new PoiCellValueSink(stringStorageSelector);
+    }
+
+    /**
+     * 开始写入一条数据
+     *
+     * @param rowPosition 数据的起始行
+     */
+    void begin(int rowPosition) {
+        this.firstRow = rowPosition;
+    }
+
+    /**
+     * 获取当前数据中的行 (不存在时创建)
+     *
+     * @param rowPosition 行 (不小于起始行)
+     * @return 行
+     */
+    Row row(int rowPosition) {
+        int offset = rowPosition - firstRow;
+        if (offset >= rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(rows.length * 2, offset + 1));
+        }
+        Row row = rows[offset];
+        if (row == null) {
+            // 图片等未经过缓冲的写入可能已创建该行
+            row = sheet.getRow(rowPosition);
+            if (row == null) {
+                row = sheet.createRow(rowPosition);
+            }
+            rows[offset] = row;
+            size = Math.max(size, offset + 1);
+        }
+        return row;
+    }
+
+    /**
+     * 创建单元格 并返回指向该单元格的写入目标
+     *
+     * @param rowPosition 行
+     * @param colPosition 列
+     * @param cellStyle   单元格样式 (为空时不设置)
+     * @return 写入目标 (复用同一对象, 仅在下一次调用前有效)
+     */
+    CellValueSink cell(int rowPosition, int colPosition, CellStyle cellStyle) {
+        Cell cell = row(rowPosition).createCell(colPosition);
+        cellCount++;
+        if (cellStyle != null) {
+            cell.setCellStyle(cellStyle);
+        }
+        return sink.at(cell, colPosition);
+    }
+
+    /**
+     * 记录未经过缓冲写入的单元格 (图片)
+     */
+    void countCell() {
+        cellCount++;
+    }
+
+    /**
+     * 写入的单元格数
+     *
+     * @return 单元格数
+     */
+    long getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * 释放当前数据的行
+     */
+    void release() {
+        Arrays.fill(rows, 0, size, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,146 @@
+package com.zuijianren.excel.core;
+
+import com.zuijianren.excel.exceptions.TempFileQuotaExceededException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一次写入的临时文件空间
+ * <p>
+ * 在指定目录 (为空时为系统临时目录) 下创建独立的子目录, 写入期间的临时文件均位于其中, 并统计写入的总字节数 (超过配额时抛出 {@link TempFileQuotaExceededException}).
+ * {@link #close()} 时删除子目录及其中的所有文件, 不依赖 deleteOnExit, 长时间运行的服务中不会残留临时文件.
+ * <p>
+ * 并行写入多个 sheet 时 字节数在多个线程中同时累加, 线程安全
+ *
+ * @author zuijianren
+ * @date 2023/4/3 10:00
+ */
+@Slf4j
+final class ScratchSpace implements Closeable {
+
+    private final Path directory;
+
+    private final long quota; // 小于等于 0 时 不限制
+
+    private final AtomicLong used = new AtomicLong();
+
+    private volatile boolean exceeded; // 是否已超出配额
+
+    /**
+     * @param baseDirectory 临时文件所在目录 (为空时为系统临时目录, 不存在时创建)
+     * @param quota         临时文件的总字节数上限 (小于等于 0 时 不限制)
+     * @throws IOException 目录创建失败
+     */
+    ScratchSpace(File baseDirectory, long quota) throws IOException {
+        Path base = baseDirectory == null ? Paths.get(System.getProperty("java.io.tmpdir")) : baseDirectory.toPath();
+        Files.createDirectories(base);
+        this.directory = Files.createTempDirectory(base, "excel-");
+        this.quota = quota;
+    }
+
+    /**
+     * 创建临时文件
+     *
+     * @param prefix 前缀
+     * @param suffix 后缀
+     * @return 临时文件
+     * @throws IOException 创建失败
+     */
+    File createTempFile(String prefix, String suffix) throws IOException {
+        return Files.createTempFile(directory, prefix, suffix).toFile();
+    }
+
+    /**
+     * 打开临时文件的输出流 (写入的字节数计入配额)
+     *
+     * @param file 临时文件
+     * @return 输出流
+     * @throws FileNotFoundException 文件无法打开
+     */
+    FileOutputStream openOutputStream(File file) throws FileNotFoundException {
+        return new QuotaFileOutputStream(file);
+    }
+
+    /**
+     * 已写入临时文件的字节数
+     *
+     * @return 字节数
+     */
+    long getUsed() {
+        return used.get();
+    }
+
+    /**
+     * 删除子目录及其中的所有文件
+     */
+    @Override
+    public void close() {
+        File[] files = directory.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    log.warn("临时文件删除失败: " + file);
+                }
+            }
+        }
+        if (!directory.toFile().delete()) {
+            log.warn("临时目录删除失败: " + directory);
+        }
+    }
+
+    /**
+     * 统计写入字节数的文件输出流
+     */
+    private final class QuotaFileOutputStream extends FileOutputStream {
+
+        QuotaFileOutputStream(File file) throws FileNotFoundException {
+            super(file);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (acquire(1)) {
+                super.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b) throws IOException {
+            write(b, 0, b.length);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (acquire(len)) {
+                super.write(b, off, len);
+            }
+        }
+
+        /**
+         * 计入配额
+         * <p>
+         * 首次超出配额时抛出异常 (写入中止); 之后的写入 (如 关闭时刷出缓冲) 直接丢弃, 保证临时文件能正常关闭及清理
+         *
+         * @return 是否写入
+         */
+        private boolean acquire(int len) {
+            if (exceeded) {
+                return false;
+            }
+            if (used.addAndGet(len) > quota && quota > 0) {
+                exceeded = true;
+                throw new TempFileQuotaExceededException(quota);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.zuijianren.excel.core;
+
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * sheet xml 的 SAX 解析处理器
+ * <p>
+ * 逐行解析 sheetN.xml, 每解析完一行 回调一次 {@link RowCallback}. 内存中仅保留当前行的数据.
+ * <p>
+ * 单元格值按原始类型解析: 字符串 (共享字符串 / 内联字符串 / 公式字符串) 解析为 String,
+ * 布尔值解析为 Boolean, 数值 (包括日期) 解析为 Double, 错误值及空单元格解析为 null
+ *
+ * @author zuijianren
+ * @date 2023/3/22 10:30
+ */
+class SheetRowHandler extends DefaultHandler {
+
+    /**
+     * 行回调
+     */
+    @FunctionalInterface
+    interface RowCallback {
+
+        /**
+         * 处理一行数据
+         *
+         * @param rowPosition 行号 (从 0 开始)
+         * @param cells       单元格原始值 (下标为列号, 仅包含 colNum 范围内的列)
+         */
+        void accept(int rowPosition, Object[] cells);
+    }
+
+    private final SharedStrings sharedStrings; // 共享字符串表
+    private final int colNum; // 需要读取的列数
+    private final RowCallback rowCallback;
+
+    private int rowPosition = -1; // 当前行
+    private Object[] cells; // 当前行的数据
+
+    private int colPosition = -1; // 当前列
+    private String cellType; // 当前单元格类型 (c 标签的 t 属性)
+    private boolean inValue; // 是否处于 v 标签 或 内联字符串的 t 标签中
+    private final StringBuilder value = new StringBuilder(); // 当前单元格的原始值
+
+    SheetRowHandler(SharedStrings sharedStrings, int colNum, RowCallback rowCallback) {
+        this.sharedStrings = sharedStrings;
+        this.colNum = colNum;
+        this.rowCallback = rowCallback;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        switch (localName) {
+            case "row":
+                String r = attributes.getValue("r");
+                rowPosition = r == null ? rowPosition + 1 : Integer.parseInt(r) - 1;
+                colPosition = -1;
+                cells = new Object[colNum];
+                break;
+            case "c":
+                String ref = attributes.getValue("r");
+                colPosition = ref == null ? colPosition + 1 : getColPosition(ref);
+                cellType = attributes.getValue("t");
+                value.setLength(0);
+                break;
+            case "v":
+            case "t":
+                inValue = true;
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (inValue) {
+            value.append(ch, start, length);
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        switch (localName) {
+            case "v":
+            case "t":
+                inValue = false;
+                break;
+            case "c":
+                if (colPosition < colNum) {
+                    cells[colPosition] = parseValue();
+                }
+                break;
+            case "row":
+                rowCallback.accept(rowPosition, cells);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 根据单元格类型 解析原始值
+     */
+    private Object parseValue() {
+        String text = value.toString();
+        if (cellType == null || "n".equals(cellType)) {
+            return text.isEmpty() ? null : Double.valueOf(text);
+        }
+        switch (cellType) {
+            case "s":
+                return text.isEmpty() ? null : sharedStrings.getItemAt(Integer.parseInt(text)).getString();
+            case "b":
+                return "1".equals(text);
+            case "e":
+                return null;
+            default:
+                // inlineStr, str
+                return text;
+        }
+    }
+
+    /**
+     * 根据单元格引用 (如 AB12) 获取列号
+     */
+    private static int getColPosition(String ref) {
+        int i = 0;
+        while (i < ref.length() && Character.isLetter(ref.charAt(i))) {
+            i++;
+        }
+        return CellReference.convertColStringToIndex(ref.substring(0, i));
+    }
+}
@@ -0,0 +1,126 @@
+package com.zuijianren.excel.core;
+
+import com.zuijianren.excel.config.CompressionConfig;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.streaming.GZIPSheetDataWriter;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.streaming.SheetDataWriter;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 流式模式的工作簿
+ * <p>
+ * 在 SXSSFWorkbook 的基础上 按配置设置输出的压缩级别, 并将 sheet 的临时文件写入本次写入的临时文件空间 ({@link ScratchSpace}, 配额及清理).
+ * {@link #dispose()} 时 删除临时文件空间.
+ * <p>
+ * 序列化时 poi 使用的模板临时文件 (写出完成后立即删除) 仍位于 poi 的临时目录中
+ *
+ * @author zuijianren
+ * @date 2023/4/2 15:00
+ */
+final class StreamingWorkbook extends SXSSFWorkbook {
+
+    private final CompressionConfig compressionConfig; // 为空时 使用默认压缩级别
+
+    private final ScratchSpace scratchSpace;
+
+    /**
+     * @param xssfWorkbook          模板工作簿 (样式等信息仍存储于模板中)
+     * @param compressTempFiles     是否压缩临时文件
+     * @param useSharedStringsTable 是否使用共享字符串表
+     * @param compressionConfig     压缩配置 (可以为空)
+     * @param scratchSpace          临时文件空间 (由当前对象负责关闭)
+     */
+    StreamingWorkbook(XSSFWorkbook xssfWorkbook, boolean compressTempFiles, boolean useSharedStringsTable, CompressionConfig compressionConfig, ScratchSpace scratchSpace) {
+        super(xssfWorkbook, -1, compressTempFiles, useSharedStringsTable);
+        this.compressionConfig = compressionConfig;
+        this.scratchSpace = scratchSpace;
+    }
+
+    @Override
+    protected ZipArchiveOutputStream createArchiveOutputStream(OutputStream out) {
+        if (compressionConfig == null) {
+            return super.createArchiveOutputStream(out);
+        }
+        return new PartCompressionOutputStream(out, compressionConfig);
+    }
+
+    @Override
+    protected SheetDataWriter createSheetDataWriter() throws IOException {
+        // 父类构造器中 (模板中已有的 sheet) 调用时 临时文件空间尚未赋值
+        if (scratchSpace == null) {
+            return super.createSheetDataWriter();
+        }
+        if (isCompressTempFiles()) {
+            return new ScratchGzipSheetDataWriter(getSharedStringSource());
+        }
+        return new ScratchSheetDataWriter(getSharedStringSource());
+    }
+
+    @Override
+    public boolean dispose() {
+        try {
+            return super.dispose();
+        } finally {
+            if (scratchSpace != null) {
+                scratchSpace.close();
+            }
+        }
+    }
+
+    /**
+     * 创建临时文件的输出 (与 poi 的实现一致, 文件输出流由临时文件空间打开)
+     */
+    private static Writer newWriter(OutputStream decorated) {
+        return new BufferedWriter(new OutputStreamWriter(decorated, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 位于临时文件空间的 sheet 数据 (非静态内部类: 父类构造器中创建临时文件时 外部对象的引用已赋值)
+     */
+    private final class ScratchSheetDataWriter extends SheetDataWriter {
+
+        ScratchSheetDataWriter(SharedStringsTable sharedStringsTable) throws IOException {
+            super(sharedStringsTable);
+        }
+
+        @Override
+        public File createTempFile() throws IOException {
+            return scratchSpace.createTempFile("poi-sxssf-sheet", ".xml");
+        }
+
+        @Override
+        public Writer createWriter(File fd) throws IOException {
+            return newWriter(decorateOutputStream(scratchSpace.openOutputStream(fd)));
+        }
+    }
+
+    /**
+     * 位于临时文件空间的 sheet 数据 (压缩)
+     */
+    private final class ScratchGzipSheetDataWriter extends GZIPSheetDataWriter {
+
+        ScratchGzipSheetDataWriter(SharedStringsTable sharedStringsTable) throws IOException {
+            super(sharedStringsTable);
+        }
+
+        @Override
+        public File createTempFile() throws IOException {
+            return scratchSpace.createTempFile("poi-sxssf-sheet-xml", ".gz");
+        }
+
+        @Override
+        public Writer createWriter(File fd) throws IOException {
+            return newWriter(decorateOutputStream(scratchSpace.openOutputStream(fd)));
+        }
+    }
+}
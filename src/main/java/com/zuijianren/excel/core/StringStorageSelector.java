@@ -0,0 +1,83 @@
+package com.zuijianren.excel.core;
+
+import com.zuijianren.excel.config.PropertyConfig;
+import com.zuijianren.excel.config.StringStorage;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 按列选择字符串的存储方式 (内存模式)
+ * <p>
+ * 自适应的列 以写入的前 {@value #SAMPLE_SIZE} 个字符串为样本 (样本期间使用共享字符串), 不同值的比例不低于
+ * {@value #INLINE_RATIO_PERCENT}% 时 之后的字符串改为内联写入, 否则继续使用共享字符串. 样本统计完成后释放.
+ * <p>
+ * 非线程安全, 每个 sheet 一个
+ *
+ * @author zuijianren
+ * @date 2023/4/1 14:00
+ */
+final class StringStorageSelector {
+
+    /**
+     * 自适应列的样本数量
+     */
+    static final int SAMPLE_SIZE = 1000;
+
+    /**
+     * 改为内联写入的 不同值比例 (百分比)
+     */
+    static final int INLINE_RATIO_PERCENT = 80;
+
+    private static final byte SHARED = 0;
+    private static final byte INLINE = 1;
+    private static final byte SAMPLING = 2;
+
+    private final byte[] modes;
+    private final Set<String>[] samples;
+    private final int[] sampled;
+
+    /**
+     * @param columns       每一列的属性配置 (下标为列位置, 序号列为 null)
+     * @param stringStorage 全局的存储方式
+     */
+    @SuppressWarnings("unchecked")
+    StringStorageSelector(PropertyConfig[] columns, StringStorage stringStorage) {
+        this.modes = new byte[columns.length];
+        this.samples = new Set[columns.length];
+        this.sampled = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            StringStorage columnStorage = columns[i] == null || columns[i].getStringStorage() == null ? stringStorage : columns[i].getStringStorage();
+            if (columnStorage == StringStorage.INLINE) {
+                modes[i] = INLINE;
+            } else if (columnStorage == StringStorage.ADAPTIVE && columns[i] != null) {
+                modes[i] = SAMPLING;
+                samples[i] = new HashSet<>();
+            }
+        }
+    }
+
+    /**
+     * 当前列的字符串是否内联写入
+     *
+     * @param colPosition 列
+     * @param value       字符串
+     * @return 是否内联写入
+     */
+    boolean inline(int colPosition, String value) {
+        if (colPosition >= modes.length) {
+            return false;
+        }
+        byte mode = modes[colPosition];
+        if (mode != SAMPLING) {
+            return mode == INLINE;
+        }
+        Set<String> sample = samples[colPosition];
+        sample.add(value);
+        if (++sampled[colPosition] == SAMPLE_SIZE) {
+            modes[colPosition] = sample.size() * 100 >= SAMPLE_SIZE * INLINE_RATIO_PERCENT ? INLINE : SHARED;
+            samples[colPosition] = null;
+        }
+        return false;
+    }
+}
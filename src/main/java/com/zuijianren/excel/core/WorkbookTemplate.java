@@ -0,0 +1,101 @@
+package com.zuijianren.excel.core;
+
+import com.zuijianren.excel.exceptions.ReadFromFileException;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 工作簿模板 (不可变, 线程安全)
+ * <p>
+ * 加载时读取 xlsx 模板的所有部件 (字体, 主题, 样式, 图片, 已有的 sheet 等), 以不压缩 (STORED) 的方式重新打包为字节数组常驻内存.
+ * 每次导出通过 {@link #newWorkbook()} 获取独立的工作簿副本 (作为 {@link com.zuijianren.excel.config.ExcelConfig} 的 xssfWorkbook, 或以 template::newWorkbook 作为 xssfWorkbookSupplier 在写入时创建),
+ * 导出时创建的样式及 sheet 仅添加到副本中, 模板本身不会被修改.
+ * <p>
+ * 创建副本时不再读取文件及解压, 但 poi 的工作簿不支持共享部件, 部件的 xml 仍需解析. 模板应只包含所需的部件, 大量数据应通过导出写入.
+ * 直接写入模式下 仅使用模板的样式 (单元格样式, 字体等), 忽略模板中的 sheet 及主题
+ *
+ * @author zuijianren
+ * @date 2023/4/3 10:00
+ */
+public final class WorkbookTemplate {
+
+    private final byte[] packageBytes; // 不压缩的 xlsx (不对外暴露)
+
+    private WorkbookTemplate(byte[] packageBytes) {
+        this.packageBytes = packageBytes;
+    }
+
+    /**
+     * 加载模板 (输入流不会被关闭)
+     * <p>
+     * 加载时校验模板是否为有效的 xlsx 文件
+     *
+     * @param is xlsx 模板的输入流
+     * @return 模板
+     * @throws IOException 读取失败 或 模板不是有效的 xlsx 文件
+     */
+    public static WorkbookTemplate load(InputStream is) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ZipInputStream zis = new ZipInputStream(is);
+        try (ZipOutputStream zos = new ZipOutputStream(bos)) {
+            CRC32 crc = new CRC32();
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                byte[] bytes = IOUtils.toByteArray(zis);
+                crc.reset();
+                crc.update(bytes, 0, bytes.length);
+                ZipEntry storedEntry = new ZipEntry(entry.getName());
+                storedEntry.setMethod(ZipEntry.STORED);
+                storedEntry.setSize(bytes.length);
+                storedEntry.setCompressedSize(bytes.length);
+                storedEntry.setCrc(crc.getValue());
+                zos.putNextEntry(storedEntry);
+                zos.write(bytes);
+                zos.closeEntry();
+            }
+        }
+        WorkbookTemplate template = new WorkbookTemplate(bos.toByteArray());
+        // 校验模板
+        template.openWorkbook().close();
+        return template;
+    }
+
+    /**
+     * 创建工作簿副本
+     *
+     * @return 工作簿 (每次返回新的对象, 修改不影响模板)
+     */
+    public XSSFWorkbook newWorkbook() {
+        try {
+            return openWorkbook();
+        } catch (IOException e) {
+            // 加载时已校验, 内存中读取不会失败
+            throw new ReadFromFileException(e);
+        }
+    }
+
+    /**
+     * 模板所占的内存 (字节)
+     *
+     * @return 字节数
+     */
+    public int size() {
+        return packageBytes.length;
+    }
+
+    private XSSFWorkbook openWorkbook() throws IOException {
+        return new XSSFWorkbook(new ByteArrayInputStream(packageBytes));
+    }
+}
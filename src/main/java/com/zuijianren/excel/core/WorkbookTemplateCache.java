@@ -0,0 +1,83 @@
+package com.zuijianren.excel.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 工作簿模板的缓存
+ * <p>
+ * 以文件的规范路径为键, 每个模板文件仅解析一次. 文件的修改时间或大小变化后 下次获取时重新加载
+ *
+ * @author zuijianren
+ * @date 2023/4/3 10:00
+ */
+public final class WorkbookTemplateCache {
+
+    private static final WorkbookTemplateCache instance = new WorkbookTemplateCache();
+
+    private final ConcurrentMap<String, Entry> templates = new ConcurrentHashMap<>();
+
+    public static WorkbookTemplateCache getInstance() {
+        return instance;
+    }
+
+    private WorkbookTemplateCache() {
+    }
+
+    /**
+     * 获取模板 (未缓存 或 文件已修改时加载)
+     *
+     * @param file xlsx 模板文件
+     * @return 模板
+     * @throws IOException 读取失败 或 模板不是有效的 xlsx 文件
+     */
+    public WorkbookTemplate getTemplate(File file) throws IOException {
+        String key = file.getCanonicalPath();
+        long lastModified = file.lastModified();
+        long length = file.length();
+        Entry entry = templates.get(key);
+        if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+            return entry.template;
+        }
+        // 并发加载同一个文件时 结果相同, 以最后一次为准
+        WorkbookTemplate template;
+        try (InputStream is = new FileInputStream(file)) {
+            template = WorkbookTemplate.load(is);
+        }
+        templates.put(key, new Entry(template, lastModified, length));
+        return template;
+    }
+
+    /**
+     * 移除指定文件的模板
+     *
+     * @param file xlsx 模板文件
+     * @throws IOException 获取规范路径失败
+     */
+    public void evict(File file) throws IOException {
+        templates.remove(file.getCanonicalPath());
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        templates.clear();
+    }
+
+    private static final class Entry {
+        private final WorkbookTemplate template;
+        private final long lastModified;
+        private final long length;
+
+        private Entry(WorkbookTemplate template, long lastModified, long length) {
+            this.template = template;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.zuijianren.excel.core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步写入的默认线程池
+ * <p>
+ * JDK 21 及以上版本使用虚拟线程 (每个任务一个虚拟线程, 阻塞 IO 不占用平台线程);
+ * 否则使用可缓存的守护线程池
+ *
+ * @author zuijianren
+ * @date 2023/3/28 10:20
+ */
+@Slf4j
+final class WriteExecutors {
+
+    private static volatile ExecutorService defaultExecutor;
+
+    private WriteExecutors() {
+    }
+
+    /**
+     * 获取默认线程池 (首次调用时创建)
+     *
+     * @return 线程池
+     */
+    static ExecutorService defaultExecutor() {
+        ExecutorService executor = defaultExecutor;
+        if (executor == null) {
+            synchronized (WriteExecutors.class) {
+                executor = defaultExecutor;
+                if (executor == null) {
+                    executor = createDefaultExecutor();
+                    defaultExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    private static ExecutorService createDefaultExecutor() {
+        // 通过反射调用 保证在 JDK 8 下可以编译及运行
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (NoSuchMethodException e) {
+            log.debug("当前 JDK 不支持虚拟线程, 使用平台线程池");
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // JDK 19, 20 中虚拟线程为预览特性, 未开启时抛出 UnsupportedOperationException
+            log.debug("虚拟线程不可用, 使用平台线程池", e);
+        }
+        AtomicInteger threadNum = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "excel-writer-" + threadNum.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
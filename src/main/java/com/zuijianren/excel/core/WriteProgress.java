@@ -0,0 +1,258 @@
+package com.zuijianren.excel.core;
+
+import com.zuijianren.excel.config.ExcelConfig;
+import com.zuijianren.excel.config.SheetConfig;
+import com.zuijianren.excel.config.WriteMode;
+import com.zuijianren.excel.exceptions.WriteCancelledException;
+import com.zuijianren.excel.listener.WriteProgressListener;
+import com.zuijianren.excel.metrics.ExcelMetrics;
+import com.zuijianren.excel.metrics.SheetMetrics;
+import com.zuijianren.excel.metrics.WorkbookMetrics;
+import com.zuijianren.excel.metrics.WriteOutcome;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 一次写入的进度 (通知监听器, 记录指标 并检查是否已取消)
+ *
+ * @author zuijianren
+ * @date 2023/3/28 10:20
+ */
+final class WriteProgress {
+
+    private static final long BYTES_INTERVAL = 64 * 1024; // 字节数的通知间隔
+
+    private final WriteProgressListener listener; // 为空时 不通知
+
+    private final int interval; // 数据条数的通知间隔
+
+    private final ExcelMetrics metrics; // 为空时 不记录
+
+    private final WriteMode writeMode;
+
+    private final XSSFWorkbook xssfWorkbook; // 样式及字体所在的工作簿
+
+    private final BooleanSupplier cancelled; // 是否已取消
+
+    private final long startNanos;
+
+    private boolean recorded; // 工作簿的指标已记录 (成功 或 失败仅记录一次)
+
+    WriteProgress(ExcelConfig excelConfig, BooleanSupplier cancelled) {
+        this.listener = excelConfig.getProgressListener();
+        this.interval = Math.max(excelConfig.getProgressInterval(), 1);
+        this.metrics = excelConfig.getMetrics();
+        this.writeMode = excelConfig.getWriteMode();
+        this.xssfWorkbook = excelConfig.getXssfWorkbook();
+        this.cancelled = cancelled;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * 检查是否已取消
+     *
+     * @throws WriteCancelledException 已取消
+     */
+    void checkCancelled() {
+        if (cancelled.getAsBoolean()) {
+            throw new WriteCancelledException();
+        }
+    }
+
+    /**
+     * 开始写入 sheet
+     *
+     * @param sheetIndex  sheet 下标
+     * @param sheetConfig sheet 配置
+     * @return sheet 的写入进度
+     */
+    SheetProgress startSheet(int sheetIndex, SheetConfig sheetConfig) {
+        checkCancelled();
+        if (listener != null) {
+            listener.onSheetStart(sheetIndex, sheetConfig.getSheetName());
+        }
+        return new SheetProgress(sheetIndex, sheetConfig);
+    }
+
+    /**
+     * 包装输出流 (统计写入的字节数)
+     */
+    OutputStream wrap(OutputStream os) {
+        return listener == null && metrics == null ? os : new CountingOutputStream(os);
+    }
+
+    /**
+     * 写入完成
+     *
+     * @param os             包装后的输出流
+     * @param sheets         sheet 数量
+     * @param pictureBytes   写入的图片字节数
+     * @param serializeNanos 序列化耗时 (纳秒)
+     */
+    void complete(OutputStream os, int sheets, long pictureBytes, long serializeNanos) {
+        if (listener == null && metrics == null) {
+            return;
+        }
+        long bytes = ((CountingOutputStream) os).count;
+        if (listener != null) {
+            listener.onComplete(bytes);
+        }
+        if (metrics != null && !recorded) {
+            recorded = true;
+            metrics.onWorkbookWritten(WorkbookMetrics.builder()
+                    .writeMode(writeMode)
+                    .sheets(sheets)
+                    .cellStyles(xssfWorkbook.getNumCellStyles())
+                    .fonts(xssfWorkbook.getNumberOfFontsAsInt())
+                    .pictureBytes(pictureBytes)
+                    .serializeNanos(serializeNanos)
+                    .nanos(System.nanoTime() - startNanos)
+                    .bytes(bytes)
+                    .build());
+        }
+    }
+
+    /**
+     * 写入失败 或 已取消 (记录中止前的工作簿指标, 不通知监听器)
+     *
+     * @param os     包装后的输出流
+     * @param sheets 已开始写入的 sheet 数量
+     * @param cause  异常
+     */
+    void fail(OutputStream os, int sheets, Throwable cause) {
+        if (metrics == null || recorded) {
+            return;
+        }
+        recorded = true;
+        metrics.onWorkbookWritten(WorkbookMetrics.builder()
+                .outcome(WriteOutcome.of(cause))
+                .writeMode(writeMode)
+                .sheets(sheets)
+                .cellStyles(xssfWorkbook.getNumCellStyles())
+                .fonts(xssfWorkbook.getNumberOfFontsAsInt())
+                .nanos(System.nanoTime() - startNanos)
+                .bytes(((CountingOutputStream) os).count)
+                .build());
+    }
+
+    /**
+     * sheet 的写入进度
+     */
+    final class SheetProgress {
+
+        private final int sheetIndex;
+        private final SheetConfig sheetConfig;
+        private final String sheetName;
+        private final long startNanos;
+        private long records;
+        private boolean done; // 指标已记录
+
+        private SheetProgress(int sheetIndex, SheetConfig sheetConfig) {
+            this.sheetIndex = sheetIndex;
+            this.sheetConfig = sheetConfig;
+            this.sheetName = sheetConfig.getSheetName();
+            this.startNanos = System.nanoTime();
+        }
+
+        /**
+         * 一条数据写入完成
+         */
+        void recordWritten() {
+            checkCancelled();
+            records++;
+            if (listener != null && records % interval == 0) {
+                listener.onRecordsWritten(sheetIndex, sheetName, records);
+            }
+        }
+
+        /**
+         * sheet 写入完成
+         *
+         * @param rows          内容所占行数
+         * @param cells         内容的单元格数
+         * @param mergedRegions 合并区域数 (包括表头)
+         */
+        void complete(long rows, long cells, int mergedRegions) {
+            done = true;
+            if (listener != null) {
+                listener.onSheetComplete(sheetIndex, sheetName, records);
+            }
+            if (metrics != null) {
+                metrics.onSheetWritten(SheetMetrics.builder()
+                        .type(sheetConfig.getType())
+                        .sheetName(sheetName)
+                        .writeMode(writeMode)
+                        .records(records)
+                        .rows(rows)
+                        .cells(cells)
+                        .mergedRegions(mergedRegions)
+                        .nanos(System.nanoTime() - startNanos)
+                        .build());
+            }
+        }
+
+        /**
+         * sheet 写入失败 或 已取消 (记录中止前已写入的数据条数, 不通知监听器. sheet 已完成时忽略)
+         *
+         * @param cause 异常
+         */
+        void fail(Throwable cause) {
+            if (done) {
+                return;
+            }
+            done = true;
+            if (metrics != null) {
+                metrics.onSheetWritten(SheetMetrics.builder()
+                        .outcome(WriteOutcome.of(cause))
+                        .type(sheetConfig.getType())
+                        .sheetName(sheetName)
+                        .writeMode(writeMode)
+                        .records(records)
+                        .nanos(System.nanoTime() - startNanos)
+                        .build());
+            }
+        }
+    }
+
+    /**
+     * 统计字节数的输出流 (不关闭被包装的输出流)
+     */
+    private final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+        private long notified;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            written(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            written(len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        private void written(int len) {
+            count += len;
+            if (listener != null && count - notified >= BYTES_INTERVAL) {
+                notified = count;
+                listener.onBytesWritten(count);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.zuijianren.excel.exceptions;
+
+/**
+ * 属性值获取异常
+ *
+ * @author zuijianren
+ * @date 2023/3/21 09:52
+ */
+public class PropertyAccessException extends RuntimeException {
+
+    public PropertyAccessException(String propertyName, Throwable cause) {
+        super("获取属性值失败. 属性: " + propertyName, cause);
+    }
+
+}
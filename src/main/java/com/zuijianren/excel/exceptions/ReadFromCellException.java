@@ -0,0 +1,19 @@
+package com.zuijianren.excel.exceptions;
+
+/**
+ * 读取单元格数据异常
+ *
+ * @author zuijianren
+ * @date 2023/3/22 10:05
+ */
+public class ReadFromCellException extends RuntimeException {
+
+    public ReadFromCellException(int rowPosition, int colPosition, Class<?> type, Throwable cause) {
+        super("单元格数据无法转换为类型: '" + type.getName() + "'. 行: " + (rowPosition + 1) + ", 列: " + (colPosition + 1), cause);
+    }
+
+    public ReadFromCellException(int rowPosition, int colPosition, String propertyName, Class<?> type, String reason, Throwable cause) {
+        super(reason + ". 属性: " + propertyName + ", 类型: '" + type.getName() + "'. 行: " + (rowPosition + 1) + ", 列: " + (colPosition + 1), cause);
+    }
+
+}
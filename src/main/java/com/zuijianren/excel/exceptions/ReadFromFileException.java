@@ -0,0 +1,15 @@
+package com.zuijianren.excel.exceptions;
+
+/**
+ * 读取文件异常
+ *
+ * @author zuijianren
+ * @date 2023/3/22 10:05
+ */
+public class ReadFromFileException extends RuntimeException {
+
+    public ReadFromFileException(Throwable cause) {
+        super("io异常, 读取数据失败", cause);
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.zuijianren.excel.exceptions;
+
+/**
+ * 临时文件超出配额异常
+ * <p>
+ * 流式模式下 临时文件的总大小超过 ExcelConfig#tempFileQuota 时抛出, 写入中止 (已创建的临时文件会被清理)
+ *
+ * @author zuijianren
+ * @date 2023/4/3 10:00
+ */
+public class TempFileQuotaExceededException extends RuntimeException {
+
+    public TempFileQuotaExceededException(long quota) {
+        super("临时文件超出配额: " + quota + " 字节");
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.zuijianren.excel.exceptions;
+
+/**
+ * 写入已取消异常
+ * <p>
+ * 调用 ExcelWriter#cancel (或取消异步写入返回的 CompletableFuture) 后, 写入在下一条数据处中止并抛出该异常.
+ * 此时输出流中的内容不完整
+ *
+ * @author zuijianren
+ * @date 2023/3/28 10:20
+ */
+public class WriteCancelledException extends RuntimeException {
+
+    public WriteCancelledException() {
+        super("写入已取消");
+    }
+
+}
@@ -12,4 +12,8 @@ public class WriteToCellException extends RuntimeException {
         super("未找到数据类型: '" + className + "' 对应的写入单元格的方法");
     }
 
+    public WriteToCellException(int rowPosition, int colPosition, String reason, Throwable cause) {
+        super("单元格写入失败: " + reason + ". 行: " + (rowPosition + 1) + ", 列: " + (colPosition + 1), cause);
+    }
+
 }
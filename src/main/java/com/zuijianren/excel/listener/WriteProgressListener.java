@@ -0,0 +1,57 @@
+package com.zuijianren.excel.listener;
+
+/**
+ * 写入进度监听器
+ * <p>
+ * 并行写入多个 sheet 时, sheet 相关的回调可能在不同线程中同时触发, 实现类需要保证线程安全
+ *
+ * @author zuijianren
+ * @date 2023/3/28 10:20
+ */
+public interface WriteProgressListener {
+
+    /**
+     * 开始写入 sheet
+     *
+     * @param sheetIndex sheet 下标
+     * @param sheetName  sheet 名
+     */
+    default void onSheetStart(int sheetIndex, String sheetName) {
+    }
+
+    /**
+     * 已写入的数据条数 (每写入 ExcelConfig#progressInterval 条数据触发一次)
+     *
+     * @param sheetIndex sheet 下标
+     * @param sheetName  sheet 名
+     * @param records    当前 sheet 已写入的数据条数
+     */
+    default void onRecordsWritten(int sheetIndex, String sheetName, long records) {
+    }
+
+    /**
+     * sheet 写入完成
+     *
+     * @param sheetIndex sheet 下标
+     * @param sheetName  sheet 名
+     * @param records    当前 sheet 写入的数据总条数
+     */
+    default void onSheetComplete(int sheetIndex, String sheetName, long records) {
+    }
+
+    /**
+     * 已写入输出流的字节数 (每写入约 64KB 触发一次)
+     *
+     * @param bytes 已写入的字节数
+     */
+    default void onBytesWritten(long bytes) {
+    }
+
+    /**
+     * 写入完成
+     *
+     * @param bytes 写入输出流的总字节数
+     */
+    default void onComplete(long bytes) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.zuijianren.excel.metadata;
+
+import com.zuijianren.excel.accessor.PropertyAccessor;
+import lombok.Getter;
+
+/**
+ * 属性的编译期元数据
+ *
+ * @author zuijianren
+ * @date 2023/3/30 10:00
+ */
+@Getter
+public final class PropertyMetadata {
+
+    /**
+     * 字段名
+     */
+    private final String name;
+
+    /**
+     * 集合属性的元素类型 (ExcelMultiProperty 属性的泛型, 其余属性为空)
+     */
+    private final Class<?> elementType;
+
+    /**
+     * 属性访问器 (直接调用 get 方法)
+     */
+    private final PropertyAccessor accessor;
+
+    public PropertyMetadata(String name, Class<?> elementType, PropertyAccessor accessor) {
+        this.name = name;
+        this.elementType = elementType;
+        this.accessor = accessor;
+    }
+}
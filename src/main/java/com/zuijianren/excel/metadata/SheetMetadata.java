@@ -0,0 +1,47 @@
+package com.zuijianren.excel.metadata;
+
+import java.util.List;
+
+/**
+ * 导出类的编译期元数据
+ * <p>
+ * 由注解处理器 (见 {@link com.zuijianren.excel.processor.ExcelSheetProcessor}) 为每个 ExcelSheet 类生成, 类名见 {@link #className(String)}.
+ * 解析时存在元数据的类 直接使用生成的访问器及泛型信息, 无需查找 get 方法, 生成访问器及读取泛型
+ *
+ * @author zuijianren
+ * @date 2023/3/30 10:00
+ */
+public interface SheetMetadata {
+
+    /**
+     * 元数据类名的后缀
+     */
+    String CLASS_NAME_SUFFIX = "_ExcelMetadata";
+
+    /**
+     * 元数据的类名 (与导出类同包, 内部类的 $ 替换为 _, 如 a.b.Outer$Inner -> a.b.Outer_Inner_ExcelMetadata)
+     * <p>
+     * 解析时按类名直接加载, 无需遍历所有的元数据
+     *
+     * @param binaryName 导出类的二进制名 (Class.getName)
+     * @return 元数据的类名
+     */
+    static String className(String binaryName) {
+        int index = binaryName.lastIndexOf('.');
+        return binaryName.substring(0, index + 1) + binaryName.substring(index + 1).replace('$', '_') + CLASS_NAME_SUFFIX;
+    }
+
+    /**
+     * 对应的导出类
+     *
+     * @return 导出类
+     */
+    Class<?> type();
+
+    /**
+     * 添加了 ExcelProperty 或 ExcelMultiProperty 注解的属性 (声明顺序)
+     *
+     * @return 属性元数据
+     */
+    List<PropertyMetadata> properties();
+}
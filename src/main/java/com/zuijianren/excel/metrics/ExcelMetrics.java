@@ -0,0 +1,41 @@
+package com.zuijianren.excel.metrics;
+
+/**
+ * 导出指标
+ * <p>
+ * 记录解析耗时, 每个 sheet 的写入情况及工作簿的序列化耗时, 用于定位耗时较长的导出.
+ * 写入相关的指标通过 ExcelConfig#metrics 配置 (每次写入), 解析耗时通过 ExcelParser#setMetrics 配置 (解析器全局共享).
+ * 引入 micrometer 时 可以使用 {@link MicrometerExcelMetrics}
+ * <p>
+ * 并行写入多个 sheet 时, sheet 相关的回调可能在不同线程中同时触发, 实现类需要保证线程安全
+ *
+ * @author zuijianren
+ * @date 2023/4/2 10:00
+ */
+public interface ExcelMetrics {
+
+    /**
+     * 类解析完成 (每个类仅解析一次, 包括首次解析的内嵌类)
+     *
+     * @param type  解析的类
+     * @param nanos 解析耗时 (纳秒)
+     */
+    default void onClassParsed(Class<?> type, long nanos) {
+    }
+
+    /**
+     * sheet 写入完成 (写入失败 或 取消时也会触发, 见 {@link SheetMetrics#getOutcome()})
+     *
+     * @param sheetMetrics sheet 的写入指标
+     */
+    default void onSheetWritten(SheetMetrics sheetMetrics) {
+    }
+
+    /**
+     * 工作簿写入完成 (写入失败 或 取消时也会触发, 见 {@link WorkbookMetrics#getOutcome()})
+     *
+     * @param workbookMetrics 工作簿的写入指标
+     */
+    default void onWorkbookWritten(WorkbookMetrics workbookMetrics) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.zuijianren.excel.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 micrometer 的导出指标 (需使用方引入 micrometer-core)
+ * <p>
+ * 导出类以全限定名作为 class 标签, 写入模式以小写作为 mode 标签, 写入结果 ({@link WriteOutcome}) 以小写作为 outcome 标签:
+ * <ul>
+ *     <li>excel.parse: 解析耗时 (class)</li>
+ *     <li>excel.sheet.write: sheet 写入耗时 (class, mode, outcome)</li>
+ *     <li>excel.sheet.records / rows / cells / merged.regions: sheet 写入的数据条数, 行数, 单元格数及合并区域数 (class)</li>
+ *     <li>excel.workbook.write: 工作簿写入的耗时 (mode, outcome)</li>
+ *     <li>excel.workbook.serialize: 工作簿序列化的耗时 (mode)</li>
+ *     <li>excel.workbook.bytes: 写入输出流的字节数 (mode)</li>
+ *     <li>excel.workbook.cell.styles / fonts: 工作簿中的单元格样式数及字体数 (mode)</li>
+ *     <li>excel.workbook.picture.bytes: 写入的图片字节数 (mode)</li>
+ * </ul>
+ * 写入失败 或 取消时 仅记录带 outcome 标签的耗时, 数量类的指标只统计成功的写入
+ *
+ * @author zuijianren
+ * @date 2023/4/2 10:00
+ */
+public class MicrometerExcelMetrics implements ExcelMetrics {
+
+    private final MeterRegistry registry;
+
+    public MicrometerExcelMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onClassParsed(Class<?> type, long nanos) {
+        Timer.builder("excel.parse")
+                .description("导出类的解析耗时")
+                .tag("class", type.getName())
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onSheetWritten(SheetMetrics sheetMetrics) {
+        Tags tags = Tags.of("class", sheetMetrics.getType() == null ? "unknown" : sheetMetrics.getType().getName());
+        Timer.builder("excel.sheet.write")
+                .description("sheet 的写入耗时")
+                .tags(tags)
+                .tag("mode", mode(sheetMetrics.getWriteMode()))
+                .tag("outcome", outcome(sheetMetrics.getOutcome()))
+                .register(registry)
+                .record(sheetMetrics.getNanos(), TimeUnit.NANOSECONDS);
+        if (sheetMetrics.getOutcome() != WriteOutcome.SUCCESS) {
+            return;
+        }
+        Counter.builder("excel.sheet.records").tags(tags).register(registry).increment(sheetMetrics.getRecords());
+        Counter.builder("excel.sheet.rows").tags(tags).register(registry).increment(sheetMetrics.getRows());
+        Counter.builder("excel.sheet.cells").tags(tags).register(registry).increment(sheetMetrics.getCells());
+        Counter.builder("excel.sheet.merged.regions").tags(tags).register(registry).increment(sheetMetrics.getMergedRegions());
+    }
+
+    @Override
+    public void onWorkbookWritten(WorkbookMetrics workbookMetrics) {
+        Tags tags = Tags.of("mode", mode(workbookMetrics.getWriteMode()));
+        Timer.builder("excel.workbook.write")
+                .description("工作簿的写入耗时")
+                .tags(tags)
+                .tag("outcome", outcome(workbookMetrics.getOutcome()))
+                .register(registry)
+                .record(workbookMetrics.getNanos(), TimeUnit.NANOSECONDS);
+        if (workbookMetrics.getOutcome() != WriteOutcome.SUCCESS) {
+            return;
+        }
+        Timer.builder("excel.workbook.serialize")
+                .description("工作簿的序列化耗时")
+                .tags(tags)
+                .register(registry)
+                .record(workbookMetrics.getSerializeNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("excel.workbook.bytes").baseUnit("bytes").tags(tags).register(registry).record(workbookMetrics.getBytes());
+        DistributionSummary.builder("excel.workbook.cell.styles").tags(tags).register(registry).record(workbookMetrics.getCellStyles());
+        DistributionSummary.builder("excel.workbook.fonts").tags(tags).register(registry).record(workbookMetrics.getFonts());
+        Counter.builder("excel.workbook.picture.bytes").baseUnit("bytes").tags(tags).register(registry).increment(workbookMetrics.getPictureBytes());
+    }
+
+    private static String mode(Enum<?> writeMode) {
+        return writeMode == null ? "unknown" : writeMode.name().toLowerCase();
+    }
+
+    private static String outcome(WriteOutcome outcome) {
+        return (outcome == null ? WriteOutcome.SUCCESS : outcome).name().toLowerCase();
+    }
+}
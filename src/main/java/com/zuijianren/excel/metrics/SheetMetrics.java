@@ -0,0 +1,62 @@
+package com.zuijianren.excel.metrics;
+
+import com.zuijianren.excel.config.WriteMode;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * sheet 的写入指标
+ *
+ * @author zuijianren
+ * @date 2023/4/2 10:00
+ */
+@Builder
+@Data
+public class SheetMetrics {
+
+    /**
+     * 导出类
+     */
+    private Class<?> type;
+
+    /**
+     * sheet 名
+     */
+    private String sheetName;
+
+    /**
+     * 写入模式
+     */
+    private WriteMode writeMode;
+
+    /**
+     * 写入结果 (失败 或 取消时 其余指标为中止前的部分值)
+     */
+    @Builder.Default
+    private WriteOutcome outcome = WriteOutcome.SUCCESS;
+
+    /**
+     * 写入的数据条数
+     */
+    private long records;
+
+    /**
+     * 内容所占行数 (一对多时 一条数据占多行, 不包括表名及表头)
+     */
+    private long rows;
+
+    /**
+     * 内容的单元格数 (不包括表名及表头)
+     */
+    private long cells;
+
+    /**
+     * 合并区域数 (包括表头)
+     */
+    private int mergedRegions;
+
+    /**
+     * 写入耗时 (纳秒, 包括表头; 流式模式下包括刷出至临时文件)
+     */
+    private long nanos;
+}
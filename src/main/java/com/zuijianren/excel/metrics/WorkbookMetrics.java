@@ -0,0 +1,62 @@
+package com.zuijianren.excel.metrics;
+
+import com.zuijianren.excel.config.WriteMode;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 工作簿的写入指标
+ *
+ * @author zuijianren
+ * @date 2023/4/2 10:00
+ */
+@Builder
+@Data
+public class WorkbookMetrics {
+
+    /**
+     * 写入模式
+     */
+    private WriteMode writeMode;
+
+    /**
+     * 写入结果 (失败 或 取消时 其余指标为中止前的部分值)
+     */
+    @Builder.Default
+    private WriteOutcome outcome = WriteOutcome.SUCCESS;
+
+    /**
+     * sheet 数量
+     */
+    private int sheets;
+
+    /**
+     * 工作簿中的单元格样式数
+     */
+    private int cellStyles;
+
+    /**
+     * 工作簿中的字体数
+     */
+    private int fonts;
+
+    /**
+     * 写入的图片字节数 (内容相同的图片仅计算一次)
+     */
+    private long pictureBytes;
+
+    /**
+     * 序列化耗时 (纳秒): 内存及流式模式下为 workbook.write 的耗时; 直接写入模式下 sheet 边生成边输出, 为写入 sheet 之后 (样式及压缩包结尾) 的耗时
+     */
+    private long serializeNanos;
+
+    /**
+     * 写入的总耗时 (纳秒)
+     */
+    private long nanos;
+
+    /**
+     * 写入输出流的字节数
+     */
+    private long bytes;
+}
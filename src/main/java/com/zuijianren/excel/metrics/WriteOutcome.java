@@ -0,0 +1,40 @@
+package com.zuijianren.excel.metrics;
+
+import com.zuijianren.excel.exceptions.WriteCancelledException;
+
+/**
+ * 写入结果
+ *
+ * @author zuijianren
+ * @date 2023/4/2 10:00
+ */
+public enum WriteOutcome {
+
+    /**
+     * 写入成功
+     */
+    SUCCESS,
+
+    /**
+     * 写入失败 (输出流中的内容不完整)
+     */
+    FAILURE,
+
+    /**
+     * 已取消 (见 ExcelWriter#cancel)
+     */
+    CANCELLED;
+
+    /**
+     * 根据写入中抛出的异常 获取写入结果
+     *
+     * @param cause 异常 (为空时 表示成功)
+     * @return 写入结果
+     */
+    public static WriteOutcome of(Throwable cause) {
+        if (cause == null) {
+            return SUCCESS;
+        }
+        return cause instanceof WriteCancelledException ? CANCELLED : FAILURE;
+    }
+}
@@ -1,24 +1,103 @@
 package com.zuijianren.excel.pojo;
 
 import com.zuijianren.excel.config.SheetConfig;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.util.Collection;
+import java.util.Iterator;
 
 /**
  * excel 渲染数据的封装对象
+ * <p>
+ * 数据以迭代器的形式保存, 写入时按需拉取. 写入完成后 释放对数据的引用.
+ * 通过集合创建时 迭代器在写入时才创建 (见 {@link #getDataIterator()}), 调用 doWrite 之前向集合中添加的数据同样会被写入
  *
  * @author zuijianren
  * @date 2023/3/14 15:38
  */
 @Data
+@ToString(doNotUseGetters = true)
+@EqualsAndHashCode(doNotUseGetters = true)
 public class ExcelData {
 
     private SheetConfig sheetConfig;
-    private Collection dataList;
+
+    @Getter(AccessLevel.NONE)
+    private Iterator<?> dataIterator;
+
+    /**
+     * 释放数据时的回调 (如: 关闭 Stream)
+     */
+    private Runnable closeHandler;
+
+    /**
+     * 通过集合创建时的数据集合 (首次获取迭代器时创建迭代器)
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Collection<?> dataList;
 
     public ExcelData(SheetConfig sheetConfig, Collection<?> dataList) {
+        this(sheetConfig, (Iterator<?>) null, null);
+        this.dataList = dataList;
+    }
+
+    public ExcelData(SheetConfig sheetConfig, Iterator<?> dataIterator, Runnable closeHandler) {
         this.sheetConfig = sheetConfig;
+        this.dataIterator = dataIterator;
+        this.closeHandler = closeHandler;
+    }
+
+    /**
+     * 获取数据的迭代器 (通过集合创建时 首次调用时创建)
+     *
+     * @return 迭代器 (数据已释放时为空)
+     */
+    public Iterator<?> getDataIterator() {
+        if (dataIterator == null && dataList != null) {
+            dataIterator = dataList.iterator();
+        }
+        return dataIterator;
+    }
+
+    /**
+     * 获取数据集合
+     *
+     * @return 数据集合 (通过迭代器, Stream 等创建 或 数据已释放时为空)
+     * @deprecated 数据以迭代器的形式保存, 使用 {@link #getDataIterator()}
+     */
+    @Deprecated
+    public Collection getDataList() {
+        return dataList;
+    }
+
+    /**
+     * 设置数据集合 (同时替换数据的迭代器, 迭代器在写入时创建)
+     *
+     * @param dataList 数据集合
+     * @deprecated 数据以迭代器的形式保存, 使用 {@link #setDataIterator(Iterator)}
+     */
+    @Deprecated
+    public void setDataList(Collection dataList) {
         this.dataList = dataList;
+        this.dataIterator = null;
+    }
+
+    /**
+     * 释放数据
+     */
+    public void release() {
+        dataIterator = null;
+        dataList = null;
+        if (closeHandler != null) {
+            Runnable handler = closeHandler;
+            closeHandler = null;
+            handler.run();
+        }
     }
 }
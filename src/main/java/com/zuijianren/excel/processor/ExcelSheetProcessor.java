@@ -0,0 +1,347 @@
+package com.zuijianren.excel.processor;
+
+import com.zuijianren.excel.annotations.ExcelMultiProperty;
+import com.zuijianren.excel.annotations.ExcelProperty;
+import com.zuijianren.excel.annotations.ExcelSheet;
+import com.zuijianren.excel.metadata.SheetMetadata;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * ExcelSheet 注解处理器
+ * <p>
+ * 编译时为每个 ExcelSheet 类生成 {@link SheetMetadata} 实现类 (类名见 {@link SheetMetadata#className(String)}, 运行时按类名加载),
+ * 包含属性的访问器 (直接调用 get 方法, 基本类型使用基本类型访问器) 及集合属性的泛型,
+ * 并生成 META-INF/native-image/.../reflect-config.json: GraalVM native-image 所需的反射配置 (读取注解, 写入字段, 创建对象, 加载元数据类)
+ * 同时在编译期校验: multi 属性数量, multi 属性是否为集合, get 方法是否存在 (使用 lombok 生成 get 方法时跳过校验).
+ * 非 public 或 private 内部类无法生成访问器, 跳过 (运行时仍通过反射解析)
+ *
+ * @author zuijianren
+ * @date 2023/3/30 10:00
+ */
+@SupportedAnnotationTypes("com.zuijianren.excel.annotations.ExcelSheet")
+public class ExcelSheetProcessor extends AbstractProcessor {
+
+    private static final String ANNOTATION_PACKAGE = "com.zuijianren.excel.annotations.";
+
+
+    private Elements elements;
+
+    private Types types;
+
+    private Messager messager;
+
+    private final Set<String> reflectClasses = new TreeSet<>(); // 需要反射配置的类
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeResources();
+            return false;
+        }
+        for (TypeElement typeElement : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(ExcelSheet.class))) {
+            try {
+                process(typeElement);
+            } catch (IOException e) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "元数据生成失败: " + e, typeElement);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 处理导出类
+     */
+    private void process(TypeElement typeElement) throws IOException {
+        addReflectTypes(typeElement);
+
+        List<PropertyInfo> propertyList = new ArrayList<>();
+        VariableElement multiField = null;
+        for (VariableElement field : ElementFilter.fieldsIn(typeElement.getEnclosedElements())) {
+            boolean multi = field.getAnnotation(ExcelMultiProperty.class) != null;
+            if (!multi && field.getAnnotation(ExcelProperty.class) == null) {
+                continue;
+            }
+            addReflectTypes(field);
+            String elementType = null;
+            if (multi) {
+                if (multiField != null) {
+                    error(field, "一个导出类仅允许拥有一个multi属性. 当前导出类存在两个multi属性: [" + field.getSimpleName() + ", " + multiField.getSimpleName() + "]");
+                    return;
+                }
+                multiField = field;
+                elementType = getElementType(field);
+                if (elementType == null) {
+                    return;
+                }
+            }
+            String getMethod = getGetMethodName(field, "get");
+            ExecutableElement method = findGetMethod(typeElement, getMethod);
+            if (method == null && field.asType().getKind() == TypeKind.BOOLEAN) {
+                // boolean 类型的字段 未找到 get 方法时 使用 is 方法 (lombok 生成 is 方法)
+                getMethod = getGetMethodName(field, "is");
+                method = findGetMethod(typeElement, getMethod);
+            }
+            if (method == null && !hasLombokGetter(typeElement) && !hasLombokGetter(field)) {
+                error(field, "未找到对应属性的get方法. 属性: " + field.getSimpleName());
+                return;
+            }
+            // lombok 生成的 get 方法 返回值类型与字段类型一致
+            TypeKind returnKind = method == null ? field.asType().getKind() : method.getReturnType().getKind();
+            propertyList.add(new PropertyInfo(field.getSimpleName().toString(), getMethod, elementType, returnKind));
+        }
+
+        if (!isAccessible(typeElement)) {
+            messager.printMessage(Diagnostic.Kind.NOTE, typeElement + " 不是 public 类, 跳过元数据生成", typeElement);
+            return;
+        }
+        generate(typeElement, propertyList);
+    }
+
+    /**
+     * 生成元数据类
+     */
+    private void generate(TypeElement typeElement, List<PropertyInfo> propertyList) throws IOException {
+        String packageName = elements.getPackageOf(typeElement).getQualifiedName().toString();
+        String className = SheetMetadata.className(elements.getBinaryName(typeElement).toString());
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        String typeName = types.erasure(typeElement.asType()).toString();
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n")
+                .append(" * ").append(typeName).append(" 的 excel 元数据 (由 ").append(ExcelSheetProcessor.class.getName()).append(" 生成, 请勿修改)\n")
+                .append(" */\n")
+                .append("@SuppressWarnings({\"rawtypes\", \"unchecked\"})\n")
+                .append("public final class ").append(simpleName).append(" implements com.zuijianren.excel.metadata.SheetMetadata {\n\n")
+                .append("    private static final java.util.List<com.zuijianren.excel.metadata.PropertyMetadata> PROPERTIES = java.util.Collections.unmodifiableList(java.util.Arrays.asList(");
+        for (int i = 0; i < propertyList.size(); i++) {
+            PropertyInfo property = propertyList.get(i);
+            source.append(i == 0 ? "\n" : ",\n")
+                    .append("            new com.zuijianren.excel.metadata.PropertyMetadata(\"").append(property.name).append("\", ")
+                    .append(property.elementType == null ? "null" : property.elementType + ".class").append(", ")
+                    .append(getAccessorCast(property.returnKind))
+                    .append("target -> ((").append(typeName).append(") target).").append(property.getMethod).append("())");
+        }
+        source.append("));\n\n")
+                .append("    @Override\n")
+                .append("    public Class<?> type() {\n")
+                .append("        return ").append(typeName).append(".class;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public java.util.List<com.zuijianren.excel.metadata.PropertyMetadata> properties() {\n")
+                .append("        return PROPERTIES;\n")
+                .append("    }\n")
+                .append("}\n");
+
+        JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(className, typeElement);
+        try (Writer writer = sourceFile.openWriter()) {
+            writer.write(source.toString());
+        }
+        reflectClasses.add(className); // 运行时按类名加载
+    }
+
+    /**
+     * 生成 native-image 反射配置 (所有轮次处理完成后)
+     */
+    private void writeResources() {
+        if (reflectClasses.isEmpty()) {
+            return;
+        }
+        try {
+            // 以第一个导出类命名目录, 避免多个模块的配置文件相互覆盖
+            String reflectConfig = "META-INF/native-image/excel-metadata/" + reflectClasses.iterator().next() + "/reflect-config.json";
+            FileObject reflectFile = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", reflectConfig);
+            try (Writer writer = reflectFile.openWriter()) {
+                writer.write("[\n");
+                int i = 0;
+                for (String reflectClass : reflectClasses) {
+                    writer.write(i++ == 0 ? "" : ",\n");
+                    writer.write("  {\"name\": \"" + reflectClass + "\", \"allDeclaredFields\": true, \"allDeclaredConstructors\": true, \"allPublicMethods\": true}");
+                }
+                writer.write("\n]\n");
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "元数据配置文件生成失败: " + e);
+        }
+    }
+
+    /**
+     * 获取集合属性的元素类型 (类型擦除后)
+     */
+    private String getElementType(VariableElement field) {
+        TypeMirror collectionType = types.erasure(elements.getTypeElement(Collection.class.getName()).asType());
+        TypeMirror fieldType = field.asType();
+        if (!types.isAssignable(types.erasure(fieldType), collectionType)) {
+            error(field, field.getSimpleName() + "属性不是集合类, 无法使用ExcelMultiProperty注解.");
+            return null;
+        }
+        List<? extends TypeMirror> typeArguments = fieldType.getKind() == TypeKind.DECLARED
+                ? ((DeclaredType) fieldType).getTypeArguments() : Collections.emptyList();
+        if (typeArguments.isEmpty()) {
+            error(field, field.getSimpleName() + "属性未声明集合的泛型");
+            return null;
+        }
+        TypeMirror elementType = typeArguments.get(0);
+        if (elementType.getKind() == TypeKind.WILDCARD || elementType.getKind() == TypeKind.TYPEVAR) {
+            error(field, field.getSimpleName() + "属性的集合泛型需为具体的类型");
+            return null;
+        }
+        return types.erasure(elementType).toString();
+    }
+
+    /**
+     * 添加导出类, 内嵌类及注解中配置的类 (转换器, 样式配置) 的反射配置
+     */
+    private void addReflectTypes(Element element) {
+        Element typeElement = element instanceof VariableElement ? types.asElement(getElementTypeOrSelf(element.asType())) : element;
+        if (typeElement instanceof TypeElement && typeElement.getAnnotation(ExcelSheet.class) != null) {
+            reflectClasses.add(elements.getBinaryName((TypeElement) typeElement).toString());
+        }
+        for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            if (!annotationMirror.getAnnotationType().toString().startsWith(ANNOTATION_PACKAGE)) {
+                continue;
+            }
+            for (AnnotationValue annotationValue : annotationMirror.getElementValues().values()) {
+                if (annotationValue.getValue() instanceof TypeMirror) {
+                    Element valueElement = types.asElement((TypeMirror) annotationValue.getValue());
+                    if (valueElement instanceof TypeElement && !valueElement.getModifiers().contains(Modifier.ABSTRACT)) {
+                        reflectClasses.add(elements.getBinaryName((TypeElement) valueElement).toString());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 集合类型返回元素类型, 其余类型返回自身
+     */
+    private TypeMirror getElementTypeOrSelf(TypeMirror type) {
+        if (type.getKind() == TypeKind.DECLARED && !((DeclaredType) type).getTypeArguments().isEmpty()
+                && types.isAssignable(types.erasure(type), types.erasure(elements.getTypeElement(Collection.class.getName()).asType()))) {
+            return ((DeclaredType) type).getTypeArguments().get(0);
+        }
+        return type;
+    }
+
+    private static String getGetMethodName(VariableElement field, String prefix) {
+        String fieldName = field.getSimpleName().toString();
+        return prefix + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
+    }
+
+    /**
+     * 查找 public 的 get 方法 (包括继承的方法)
+     *
+     * @return get 方法 (不存在时为空)
+     */
+    private ExecutableElement findGetMethod(TypeElement typeElement, String methodName) {
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(typeElement))) {
+            if (method.getSimpleName().contentEquals(methodName) && method.getParameters().isEmpty()
+                    && method.getModifiers().contains(Modifier.PUBLIC) && !method.getModifiers().contains(Modifier.STATIC)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 基本类型的 get 方法 生成对应的基本类型访问器 (写入时不装箱)
+     */
+    private static String getAccessorCast(TypeKind returnKind) {
+        switch (returnKind) {
+            case INT:
+                return "(com.zuijianren.excel.accessor.IntPropertyAccessor) ";
+            case LONG:
+                return "(com.zuijianren.excel.accessor.LongPropertyAccessor) ";
+            case DOUBLE:
+                return "(com.zuijianren.excel.accessor.DoublePropertyAccessor) ";
+            case BOOLEAN:
+                return "(com.zuijianren.excel.accessor.BooleanPropertyAccessor) ";
+            default:
+                return "";
+        }
+    }
+
+    /**
+     * lombok 生成的方法可能在当前轮次中不可见, 使用了 lombok 的 Data, Getter 或 Value 注解时 视为存在 get 方法
+     */
+    private static boolean hasLombokGetter(Element element) {
+        for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            String name = annotationMirror.getAnnotationType().toString();
+            if ("lombok.Data".equals(name) || "lombok.Getter".equals(name) || "lombok.Value".equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 类 (及其外部类) 是否均为 public, 且内部类为静态类
+     */
+    private static boolean isAccessible(TypeElement typeElement) {
+        Element element = typeElement;
+        while (element instanceof TypeElement) {
+            Set<Modifier> modifiers = element.getModifiers();
+            if (!modifiers.contains(Modifier.PUBLIC)) {
+                return false;
+            }
+            Element enclosingElement = element.getEnclosingElement();
+            if (enclosingElement instanceof TypeElement && !modifiers.contains(Modifier.STATIC)) {
+                return false;
+            }
+            element = enclosingElement;
+        }
+        return true;
+    }
+
+    private void error(Element element, String message) {
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * 属性信息
+     */
+    private static final class PropertyInfo {
+        final String name; // 字段名
+        final String getMethod; // get 方法名
+        final String elementType; // 集合元素类型 (非集合属性为空)
+        final TypeKind returnKind; // get 方法的返回值类型
+
+        PropertyInfo(String name, String getMethod, String elementType, TypeKind returnKind) {
+            this.name = name;
+            this.getMethod = getMethod;
+            this.elementType = elementType;
+            this.returnKind = returnKind;
+        }
+    }
+}
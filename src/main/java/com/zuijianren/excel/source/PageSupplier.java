@@ -0,0 +1,24 @@
+package com.zuijianren.excel.source;
+
+import java.util.List;
+
+/**
+ * 分页数据提供者
+ * <p>
+ * 写入时按页拉取数据 (如: 分页查询数据库), 内存中仅保留当前页
+ *
+ * @author zuijianren
+ * @date 2023/3/23 10:20
+ */
+@FunctionalInterface
+public interface PageSupplier<T> {
+
+    /**
+     * 获取一页数据
+     *
+     * @param pageNum  页码 (从 1 开始)
+     * @param pageSize 每页数量
+     * @return 当前页数据. 返回 null 或 数量小于 pageSize 时 视为最后一页
+     */
+    List<T> get(int pageNum, int pageSize);
+}
@@ -0,0 +1,57 @@
+package com.zuijianren.excel.source;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 分页迭代器
+ * <p>
+ * 当前页遍历完成后 才会拉取下一页, 已遍历的页不再持有引用
+ *
+ * @author zuijianren
+ * @date 2023/3/23 10:26
+ */
+public class PagedIterator<T> implements Iterator<T> {
+
+    private final PageSupplier<? extends T> pageSupplier;
+    private final int pageSize;
+
+    private int pageNum = 0; // 当前页码
+    private Iterator<? extends T> pageIterator = Collections.emptyIterator(); // 当前页的迭代器
+    private boolean lastPage = false; // 当前页是否为最后一页
+
+    public PagedIterator(PageSupplier<? extends T> pageSupplier, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize 必须大于 0");
+        }
+        this.pageSupplier = pageSupplier;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!pageIterator.hasNext()) {
+            if (lastPage) {
+                return false;
+            }
+            List<? extends T> page = pageSupplier.get(++pageNum, pageSize);
+            if (page == null) {
+                lastPage = true;
+                return false;
+            }
+            lastPage = page.size() < pageSize;
+            pageIterator = page.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return pageIterator.next();
+    }
+}
@@ -0,0 +1,71 @@
+package com.zuijianren.excel.web;
+
+import com.zuijianren.excel.config.ExcelConfig;
+import com.zuijianren.excel.config.WriteMode;
+import com.zuijianren.excel.core.ExcelWriter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * web 导出的公共方法 (不依赖 webmvc 及 webflux)
+ *
+ * @author zuijianren
+ * @date 2023/3/29 14:00
+ */
+final class ExcelResponseSupport {
+
+    /**
+     * xlsx 文件的媒体类型
+     */
+    static final MediaType XLSX = MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private ExcelResponseSupport() {
+    }
+
+    /**
+     * 下载响应头
+     * <p>
+     * 不设置 Content-Length (分块传输); 关闭反向代理 (nginx) 的响应缓冲, 使数据生成后立即发送给客户端
+     *
+     * @param fileName 文件名 (未以 .xlsx 结尾时 自动追加)
+     * @return 响应头
+     */
+    static HttpHeaders headers(String fileName) {
+        if (!fileName.toLowerCase().endsWith(".xlsx")) {
+            fileName = fileName + ".xlsx";
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(XLSX);
+        headers.setContentDisposition(ContentDisposition.attachment().filename(fileName, StandardCharsets.UTF_8).build());
+        headers.setCacheControl(CacheControl.noStore());
+        headers.set("X-Accel-Buffering", "no");
+        return headers;
+    }
+
+    /**
+     * 写入输出流 (不关闭输出流)
+     * <p>
+     * 未指定配置时, 数据均支持直接写入模式则使用直接写入模式 (边生成边输出), 否则使用流式模式
+     *
+     * @param os             输出流
+     * @param excelConfig    excel 配置 (可以为空)
+     * @param writerConsumer 添加写入的数据
+     * @throws IOException 写入失败
+     */
+    static void write(OutputStream os, ExcelConfig excelConfig, Consumer<ExcelWriter> writerConsumer) throws IOException {
+        ExcelWriter excelWriter = ExcelWriter.createExcelWriter(os, excelConfig);
+        writerConsumer.accept(excelWriter);
+        if (excelConfig == null) {
+            excelWriter.getExcelConfig().setWriteMode(excelWriter.isDirectWritable() ? WriteMode.DIRECT : WriteMode.STREAMING);
+        }
+        excelWriter.doWrite();
+        os.flush();
+    }
+}
@@ -0,0 +1,56 @@
+package com.zuijianren.excel.web;
+
+import com.zuijianren.excel.config.ExcelConfig;
+import com.zuijianren.excel.core.ExcelWriter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.function.Consumer;
+
+/**
+ * Spring MVC 导出
+ * <p>
+ * 直接写入响应的输出流, 不生成本地文件. 写入在 MVC 的异步线程池中执行, 不占用 servlet 线程
+ * <pre>
+ * &#64;GetMapping("/students/export")
+ * public ResponseEntity&lt;StreamingResponseBody&gt; export() {
+ *     return ExcelResponses.of("学生.xlsx", writer -&gt; writer.write(Student.class, studentService.streamAll()));
+ * }
+ * </pre>
+ *
+ * @author zuijianren
+ * @date 2023/3/29 14:00
+ */
+public final class ExcelResponses {
+
+    private ExcelResponses() {
+    }
+
+    /**
+     * 创建导出响应
+     * <p>
+     * 数据均支持直接写入模式时 使用直接写入模式 (边生成边输出), 否则使用流式模式
+     *
+     * @param fileName       下载的文件名
+     * @param writerConsumer 添加写入的数据 (在写入线程中调用)
+     * @return 响应
+     */
+    public static ResponseEntity<StreamingResponseBody> of(String fileName, Consumer<ExcelWriter> writerConsumer) {
+        return of(fileName, null, writerConsumer);
+    }
+
+    /**
+     * 创建导出响应
+     *
+     * @param fileName       下载的文件名
+     * @param excelConfig    excel 配置 (为空时 见 {@link #of(String, Consumer)})
+     * @param writerConsumer 添加写入的数据 (在写入线程中调用)
+     * @return 响应
+     */
+    public static ResponseEntity<StreamingResponseBody> of(String fileName, ExcelConfig excelConfig, Consumer<ExcelWriter> writerConsumer) {
+        StreamingResponseBody body = os -> ExcelResponseSupport.write(os, excelConfig, writerConsumer);
+        return ResponseEntity.ok()
+                .headers(ExcelResponseSupport.headers(fileName))
+                .body(body);
+    }
+}
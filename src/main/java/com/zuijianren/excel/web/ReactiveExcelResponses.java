@@ -0,0 +1,174 @@
+package com.zuijianren.excel.web;
+
+import com.zuijianren.excel.config.ExcelConfig;
+import com.zuijianren.excel.core.ExcelWriter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Spring WebFlux 导出
+ * <p>
+ * 写入在 boundedElastic 线程中执行, 生成的数据按客户端的请求量 (背压) 逐块发送; 客户端断开时 取消写入
+ * <pre>
+ * &#64;GetMapping("/students/export")
+ * public ResponseEntity&lt;Flux&lt;DataBuffer&gt;&gt; export() {
+ *     return ReactiveExcelResponses.of("学生.xlsx", writer -&gt; writer.write(Student.class, studentService.streamAll()));
+ * }
+ * </pre>
+ *
+ * @author zuijianren
+ * @date 2023/3/29 14:00
+ */
+public final class ReactiveExcelResponses {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private ReactiveExcelResponses() {
+    }
+
+    /**
+     * 创建导出响应
+     * <p>
+     * 数据均支持直接写入模式时 使用直接写入模式 (边生成边输出), 否则使用流式模式
+     *
+     * @param fileName       下载的文件名
+     * @param writerConsumer 添加写入的数据 (在写入线程中调用)
+     * @return 响应
+     */
+    public static ResponseEntity<Flux<DataBuffer>> of(String fileName, Consumer<ExcelWriter> writerConsumer) {
+        return of(fileName, null, writerConsumer);
+    }
+
+    /**
+     * 创建导出响应
+     *
+     * @param fileName       下载的文件名
+     * @param excelConfig    excel 配置 (为空时 见 {@link #of(String, Consumer)})
+     * @param writerConsumer 添加写入的数据 (在写入线程中调用)
+     * @return 响应
+     */
+    public static ResponseEntity<Flux<DataBuffer>> of(String fileName, ExcelConfig excelConfig, Consumer<ExcelWriter> writerConsumer) {
+        return ResponseEntity.ok()
+                .headers(ExcelResponseSupport.headers(fileName))
+                .body(body(excelConfig, writerConsumer));
+    }
+
+    /**
+     * 创建响应体 (每次订阅执行一次写入)
+     *
+     * @param excelConfig    excel 配置 (可以为空)
+     * @param writerConsumer 添加写入的数据
+     * @return 响应体
+     */
+    public static Flux<DataBuffer> body(ExcelConfig excelConfig, Consumer<ExcelWriter> writerConsumer) {
+        return Flux.create(sink -> {
+            SinkOutputStream os = new SinkOutputStream(sink, DefaultDataBufferFactory.sharedInstance);
+            Schedulers.boundedElastic().schedule(() -> {
+                try {
+                    ExcelResponseSupport.write(os, excelConfig, writerConsumer);
+                    sink.complete();
+                } catch (Throwable e) {
+                    sink.error(e);
+                }
+            });
+        });
+    }
+
+    /**
+     * 将写入的字节按块发送至 FluxSink 的输出流
+     * <p>
+     * 下游无请求时 阻塞写入线程 (背压); 下游取消后 写入抛出 IOException 以中止写入
+     */
+    private static final class SinkOutputStream extends OutputStream {
+
+        private final FluxSink<DataBuffer> sink;
+        private final DataBufferFactory dataBufferFactory;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+
+        private long demand; // 下游的请求量
+        private boolean cancelled;
+
+        SinkOutputStream(FluxSink<DataBuffer> sink, DataBufferFactory dataBufferFactory) {
+            this.sink = sink;
+            this.dataBufferFactory = dataBufferFactory;
+            sink.onRequest(n -> {
+                synchronized (this) {
+                    demand = Operators.addCap(demand, n);
+                    notifyAll();
+                }
+            });
+            sink.onDispose(() -> {
+                synchronized (this) {
+                    cancelled = true;
+                    notifyAll();
+                }
+            });
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (position == buffer.length) {
+                emit();
+            }
+            buffer[position++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (position == buffer.length) {
+                    emit();
+                }
+                int length = Math.min(len, buffer.length - position);
+                System.arraycopy(b, off, buffer, position, length);
+                position += length;
+                off += length;
+                len -= length;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (position > 0) {
+                emit();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        private void emit() throws IOException {
+            synchronized (this) {
+                while (demand == 0 && !cancelled) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("写入被中断");
+                    }
+                }
+                if (cancelled) {
+                    throw new IOException("客户端已断开");
+                }
+                demand--;
+            }
+            sink.next(dataBufferFactory.wrap(Arrays.copyOf(buffer, position)));
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.zuijianren.excel.writer;
+
+import org.apache.poi.ss.usermodel.RichTextString;
+
+/**
+ * 单元格值的写入目标
+ * <p>
+ * 内存及流式模式下为 poi 的单元格, 直接写入模式下为 sheet xml. 实现类可复用 (每写入一个单元格前 重新指定位置), 写入时不产生额外对象
+ *
+ * @author zuijianren
+ * @date 2023/3/30 15:00
+ */
+public interface CellValueSink {
+
+    /**
+     * 写入整数
+     *
+     * @param value 值
+     */
+    void writeLong(long value);
+
+    /**
+     * 写入小数 (日期按 excel 的日期数值写入)
+     *
+     * @param value 值
+     */
+    void writeDouble(double value);
+
+    /**
+     * 写入布尔值
+     *
+     * @param value 值
+     */
+    void writeBoolean(boolean value);
+
+    /**
+     * 写入字符串
+     *
+     * @param value 值 (不为空)
+     */
+    void writeString(String value);
+
+    /**
+     * 写入富文本
+     *
+     * @param value 值 (不为空)
+     */
+    void writeRichText(RichTextString value);
+}
@@ -0,0 +1,22 @@
+package com.zuijianren.excel.writer;
+
+/**
+ * 单元格写入器
+ * <p>
+ * 解析时根据属性的写入类型选择一次 (见 {@link CellWriters}), 写入时无需再判断类型.
+ * int, long, double, boolean 类型的属性 通过基本类型访问器读取, 写入数值列时不装箱
+ *
+ * @author zuijianren
+ * @date 2023/3/30 15:00
+ */
+@FunctionalInterface
+public interface CellWriter {
+
+    /**
+     * 写入单元格
+     *
+     * @param data 属性写入器中为属性所属的对象 (为空时写入空字符串); 值写入器中为值本身
+     * @param sink 写入目标
+     */
+    void write(Object data, CellValueSink sink);
+}
@@ -0,0 +1,218 @@
+package com.zuijianren.excel.writer;
+
+import com.zuijianren.excel.accessor.*;
+import com.zuijianren.excel.config.PropertyConfig;
+import com.zuijianren.excel.converter.ExcelConverter;
+import com.zuijianren.excel.core.PictureRegistry;
+import com.zuijianren.excel.exceptions.WriteToCellException;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.RichTextString;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * 单元格写入器 工厂
+ * <p>
+ * 支持的类型: 整数 (int, long, short, byte 及包装类), 其余数值, boolean, String, RichTextString,
+ * Date, Calendar, LocalDate, LocalDateTime. 写入类型无法确定时 (如 Object), 根据值的实际类型写入
+ *
+ * @author zuijianren
+ * @date 2023/3/30 15:00
+ */
+public final class CellWriters {
+
+    private static final String EMPTY = "";
+
+    private static final CellWriter DYNAMIC = CellWriters::writeDynamic;
+
+    private CellWriters() {
+    }
+
+    /**
+     * 根据属性配置 选择写入器
+     * <ul>
+     *     <li>普通属性: 从数据中读取属性值 (经过转换器) 并写入</li>
+     *     <li>multi 属性: 写入集合中的元素 (值写入器)</li>
+     *     <li>内嵌属性及图片: 返回空 (内嵌属性按子属性写入, 图片需要工作簿的图片注册表)</li>
+     * </ul>
+     *
+     * @param propertyConfig 属性配置
+     * @return 写入器
+     */
+    @SuppressWarnings("unchecked")
+    public static CellWriter of(PropertyConfig propertyConfig) {
+        Class<?> writeType = propertyConfig.getWriteType();
+        if (propertyConfig.isNested() || PictureRegistry.isPictureType(writeType)) {
+            return null;
+        }
+        CellWriter valueWriter = valueWriter(writeType);
+        if (propertyConfig.isMulti()) {
+            return valueWriter;
+        }
+
+        PropertyAccessor accessor = propertyConfig.getAccessor();
+        ExcelConverter<Object, ?> converter = propertyConfig.getConverter();
+        if (converter != null) {
+            return (data, sink) -> valueWriter.write(data == null ? null : converter.convert(accessor.get(data)), sink);
+        }
+        if (accessor instanceof IntPropertyAccessor) {
+            IntPropertyAccessor intAccessor = (IntPropertyAccessor) accessor;
+            return (data, sink) -> {
+                if (data == null) {
+                    sink.writeString(EMPTY);
+                } else {
+                    sink.writeLong(intAccessor.getInt(data));
+                }
+            };
+        }
+        if (accessor instanceof LongPropertyAccessor) {
+            LongPropertyAccessor longAccessor = (LongPropertyAccessor) accessor;
+            return (data, sink) -> {
+                if (data == null) {
+                    sink.writeString(EMPTY);
+                } else {
+                    sink.writeLong(longAccessor.getLong(data));
+                }
+            };
+        }
+        if (accessor instanceof DoublePropertyAccessor) {
+            DoublePropertyAccessor doubleAccessor = (DoublePropertyAccessor) accessor;
+            return (data, sink) -> {
+                if (data == null) {
+                    sink.writeString(EMPTY);
+                } else {
+                    sink.writeDouble(doubleAccessor.getDouble(data));
+                }
+            };
+        }
+        if (accessor instanceof BooleanPropertyAccessor) {
+            BooleanPropertyAccessor booleanAccessor = (BooleanPropertyAccessor) accessor;
+            return (data, sink) -> {
+                if (data == null) {
+                    sink.writeString(EMPTY);
+                } else {
+                    sink.writeBoolean(booleanAccessor.getBoolean(data));
+                }
+            };
+        }
+        return (data, sink) -> valueWriter.write(data == null ? null : accessor.get(data), sink);
+    }
+
+    /**
+     * 根据写入类型 选择值写入器 (值为空时 写入空字符串)
+     *
+     * @param type 写入类型
+     * @return 写入器
+     */
+    public static CellWriter valueWriter(Class<?> type) {
+        if (type == int.class || type == long.class || type == short.class || type == byte.class
+                || type == Integer.class || type == Long.class || type == Short.class || type == Byte.class) {
+            return (value, sink) -> {
+                if (value == null) {
+                    sink.writeString(EMPTY);
+                } else {
+                    sink.writeLong(((Number) value).longValue());
+                }
+            };
+        }
+        if (type == double.class || type == float.class || Number.class.isAssignableFrom(type) && type != Number.class) {
+            return (value, sink) -> {
+                if (value == null) {
+                    sink.writeString(EMPTY);
+                } else {
+                    sink.writeDouble(((Number) value).doubleValue());
+                }
+            };
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return (value, sink) -> {
+                if (value == null) {
+                    sink.writeString(EMPTY);
+                } else {
+                    sink.writeBoolean((Boolean) value);
+                }
+            };
+        }
+        if (type == String.class) {
+            return (value, sink) -> sink.writeString(value == null ? EMPTY : (String) value);
+        }
+        if (RichTextString.class.isAssignableFrom(type)) {
+            return (value, sink) -> {
+                if (value == null) {
+                    sink.writeString(EMPTY);
+                } else {
+                    sink.writeRichText((RichTextString) value);
+                }
+            };
+        }
+        if (Date.class.isAssignableFrom(type)) {
+            return (value, sink) -> {
+                if (value == null) {
+                    sink.writeString(EMPTY);
+                } else {
+                    sink.writeDouble(DateUtil.getExcelDate((Date) value));
+                }
+            };
+        }
+        if (type == LocalDateTime.class) {
+            return (value, sink) -> {
+                if (value == null) {
+                    sink.writeString(EMPTY);
+                } else {
+                    sink.writeDouble(DateUtil.getExcelDate((LocalDateTime) value));
+                }
+            };
+        }
+        if (type == LocalDate.class) {
+            return (value, sink) -> {
+                if (value == null) {
+                    sink.writeString(EMPTY);
+                } else {
+                    sink.writeDouble(DateUtil.getExcelDate((LocalDate) value));
+                }
+            };
+        }
+        if (Calendar.class.isAssignableFrom(type)) {
+            return (value, sink) -> {
+                if (value == null) {
+                    sink.writeString(EMPTY);
+                } else {
+                    sink.writeDouble(DateUtil.getExcelDate((Calendar) value, false));
+                }
+            };
+        }
+        return DYNAMIC;
+    }
+
+    /**
+     * 根据值的实际类型写入
+     */
+    private static void writeDynamic(Object value, CellValueSink sink) {
+        if (value == null) {
+            sink.writeString(EMPTY);
+        } else if (value instanceof String) {
+            sink.writeString((String) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            sink.writeLong(((Number) value).longValue());
+        } else if (value instanceof Number) {
+            sink.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            sink.writeBoolean((Boolean) value);
+        } else if (value instanceof Date) {
+            sink.writeDouble(DateUtil.getExcelDate((Date) value));
+        } else if (value instanceof LocalDateTime) {
+            sink.writeDouble(DateUtil.getExcelDate((LocalDateTime) value));
+        } else if (value instanceof LocalDate) {
+            sink.writeDouble(DateUtil.getExcelDate((LocalDate) value));
+        } else if (value instanceof Calendar) {
+            sink.writeDouble(DateUtil.getExcelDate((Calendar) value, false));
+        } else if (value instanceof RichTextString) {
+            sink.writeRichText((RichTextString) value);
+        } else {
+            throw new WriteToCellException(value.getClass().getName());
+        }
+    }
+}
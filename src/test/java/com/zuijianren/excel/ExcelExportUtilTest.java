@@ -1,6 +1,50 @@
 package com.zuijianren.excel;
 
+import com.zuijianren.excel.accessor.BooleanPropertyAccessor;
+import com.zuijianren.excel.accessor.DoublePropertyAccessor;
+import com.zuijianren.excel.accessor.IntPropertyAccessor;
+import com.zuijianren.excel.accessor.LongPropertyAccessor;
+import com.zuijianren.excel.accessor.PropertyAccessor;
+import com.zuijianren.excel.accessor.PropertyAccessors;
+import com.zuijianren.excel.annotations.ExcelMultiProperty;
+import com.zuijianren.excel.annotations.ExcelProperty;
+import com.zuijianren.excel.annotations.ExcelSheet;
+import com.zuijianren.excel.autoconfigure.ExcelAutoConfiguration;
+import com.zuijianren.excel.autoconfigure.ExcelConfigCustomizer;
+import com.zuijianren.excel.autoconfigure.ExcelWriterExecutor;
+import com.zuijianren.excel.autoconfigure.ExcelWriterFactory;
+import com.zuijianren.excel.config.CompressionConfig;
+import com.zuijianren.excel.config.ExcelConfig;
+import com.zuijianren.excel.config.HeadTemplate;
+import com.zuijianren.excel.config.PropertyConfig;
+import com.zuijianren.excel.config.SheetConfig;
+import com.zuijianren.excel.config.StringStorage;
+import com.zuijianren.excel.config.WriteMode;
+import com.zuijianren.excel.converter.ExcelConverter;
+import com.zuijianren.excel.core.ExcelOperator;
+import com.zuijianren.excel.core.ExcelParser;
+import com.zuijianren.excel.core.ExcelReader;
 import com.zuijianren.excel.core.ExcelWriter;
+import com.zuijianren.excel.core.WorkbookTemplate;
+import com.zuijianren.excel.core.WorkbookTemplateCache;
+import com.zuijianren.excel.exceptions.ParserException;
+import com.zuijianren.excel.exceptions.PropertyAccessException;
+import com.zuijianren.excel.exceptions.ReadFromCellException;
+import com.zuijianren.excel.exceptions.TempFileQuotaExceededException;
+import com.zuijianren.excel.exceptions.WriteCancelledException;
+import com.zuijianren.excel.listener.WriteProgressListener;
+import com.zuijianren.excel.metadata.SheetMetadata;
+import com.zuijianren.excel.metrics.MicrometerExcelMetrics;
+import com.zuijianren.excel.pojo.ExcelData;
+import com.zuijianren.excel.processor.ExcelSheetProcessor;
+import com.zuijianren.excel.web.ExcelResponses;
+import com.zuijianren.excel.web.ReactiveExcelResponses;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.xssf.usermodel.XSSFCell;
 import org.apache.poi.xssf.usermodel.XSSFRow;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
@@ -8,13 +52,62 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.imageio.ImageIO;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.time.LocalDate;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
 
 /**
  * @author zuijianren
@@ -64,6 +157,1205 @@ public class ExcelExportUtilTest {
                 .doWrite();
     }
 
+    @Test
+    @DisplayName("单元格操作 兼容 XSSF 的方法")
+    public void excelOperatorCompatibilityTest() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            XSSFSheet sheet = workbook.createSheet();
+            XSSFCell stringCell = ExcelOperator.writeCell(sheet, 0, 0, "名字");
+            XSSFCell doubleCell = ExcelOperator.writeCell(sheet, 0, 1, 1.5);
+            XSSFCell booleanCell = ExcelOperator.writeCell(sheet, 0, 2, true);
+            XSSFCell dateCell = ExcelOperator.writeCell(sheet, 0, 3, LocalDate.of(2023, 3, 30));
+            assertEquals("名字", stringCell.getStringCellValue());
+            assertEquals(1.5, doubleCell.getNumericCellValue());
+            assertTrue(booleanCell.getBooleanCellValue());
+            assertEquals(LocalDate.of(2023, 3, 30).atStartOfDay(), dateCell.getLocalDateTimeCellValue());
+
+            ExcelOperator.writeCell(sheet, 1, 0, 7, Integer.class);
+            ExcelOperator.mergeColCell(sheet, 2, 0, 2, null);
+            ExcelOperator.mergeRowCell(sheet, 3, 0, 2, null);
+            assertEquals(7, sheet.getRow(1).getCell(0).getNumericCellValue());
+            assertEquals(Arrays.asList("A3:B3", "A4:A5"), sheet.getMergedRegions().stream().map(CellRangeAddress::formatAsString).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    @DisplayName("渲染数据 兼容数据集合")
+    public void excelDataCompatibilityTest() {
+        SheetConfig sheetConfig = ExcelParser.getInstance().getSheetConfig(Student.class);
+        List<Student> studentList = Collections.singletonList(student);
+        ExcelData excelData = new ExcelData(sheetConfig, studentList);
+        assertSame(studentList, excelData.getDataList());
+        assertSame(student, excelData.getDataIterator().next());
+        excelData.release();
+        assertNull(excelData.getDataList());
+        // 通过迭代器创建时 无数据集合
+        assertNull(new ExcelData(sheetConfig, studentList.iterator(), null).getDataList());
+    }
+
+    @Test
+    @DisplayName("write 之后 doWrite 之前向集合中添加的数据 同样写入")
+    public void collectionAddedBeforeDoWriteTest() throws IOException {
+        List<Student> studentList = new ArrayList<>();
+        studentList.add(student);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ExcelWriter writer = ExcelWriter.createExcelWriter(os).write(Student.class, studentList);
+        studentList.add(new Student(2, 19, "姜辞旧2"));
+        writer.doWrite();
+        try (ExcelReader reader = ExcelReader.createExcelReader(new ByteArrayInputStream(os.toByteArray()))) {
+            assertEquals(2, reader.read(Student.class).size());
+        }
+    }
+
+    @Test
+    @DisplayName("流式写入测试")
+    public void streamingWriterTest() throws IOException {
+        List<Teacher> teacherList = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Teacher current = new Teacher(i, 28, "姜老师" + i);
+            current.setStudentList(Arrays.asList(student, new Student(2, 19, "姜辞旧2")));
+            current.setTeacher2(new Teacher2(i, 28, "姜老师"));
+            teacherList.add(current);
+        }
+        ExcelConfig excelConfig = ExcelConfig.builder()
+                .writeMode(WriteMode.STREAMING)
+                .windowSize(10)
+                .build();
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ExcelWriter.createExcelWriter(os, excelConfig)
+                .write(Teacher.class, teacherList)
+                .doWrite();
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(os.toByteArray()))) {
+            XSSFSheet sheet = workbook.getSheetAt(0);
+            // 表名 1 行 + 表头 3 行 + 每位教师 2 行
+            assertEquals(4 + 2 * 1000 - 1, sheet.getLastRowNum());
+            assertEquals("姜老师999", sheet.getRow(sheet.getLastRowNum() - 1).getCell(2 + 2).getStringCellValue());
+            // 样式数量与数据量无关 (默认样式 + 表名 + 表头 + 内容)
+            assertEquals(4, workbook.getNumCellStyles());
+        }
+    }
+
+    @Test
+    @DisplayName("合并区域及样式")
+    public void mergedRegionTest() throws IOException {
+        Teacher first = new Teacher(1, 28, "姜老师");
+        first.setStudentList(Arrays.asList(student, new Student(2, 19, "姜辞旧2")));
+        first.setTeacher2(new Teacher2(1, 40, "姜老师"));
+        Teacher second = new Teacher(2, 30, "王老师");
+        second.setStudentList(Arrays.asList(new Student(3, 18, "a"), new Student(4, 19, "b"), new Student(5, 20, "c")));
+        Teacher third = new Teacher(3, 31, "李老师");
+        List<String> expectedRegionList = Arrays.asList(
+                // 表名 及 表头
+                "A1:G1", "A2:A4", "B2:D2", "B3:B4", "E2:E4", "F2:G2", "F3:F4", "G3:G4", "C3:D3",
+                // 第一位教师 (2 名学生, 内嵌的教师合并)
+                "A5:A6", "E5:E6", "F5:F6", "G5:G6",
+                // 第二位教师 (3 名学生, 内嵌的教师为空 仍合并)
+                "A7:A9", "E7:E9", "F7:F9", "G7:G9");
+        for (WriteMode writeMode : Arrays.asList(WriteMode.MEMORY, WriteMode.STREAMING)) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            ExcelWriter.createExcelWriter(os, ExcelConfig.builder().writeMode(writeMode).build())
+                    .write(Teacher.class, Arrays.asList(first, second, third))
+                    .doWrite();
+            try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(os.toByteArray()))) {
+                XSSFSheet sheet = workbook.getSheetAt(0);
+                List<String> regionList = sheet.getMergedRegions().stream().map(CellRangeAddress::formatAsString).collect(Collectors.toList());
+                assertEquals(expectedRegionList, regionList, writeMode.name());
+                // 合并区域未经校验添加, 不应互相重叠
+                sheet.validateMergedRegions();
+
+                short contentStyle = sheet.getRow(4).getCell(1).getCellStyle().getIndex();
+                for (CellRangeAddress region : sheet.getMergedRegions()) {
+                    XSSFCell firstCell = sheet.getRow(region.getFirstRow()).getCell(region.getFirstColumn());
+                    if (region.getFirstRow() >= 4) {
+                        assertEquals(contentStyle, firstCell.getCellStyle().getIndex(), writeMode + " " + region.formatAsString());
+                    }
+                    // 区域内的每个单元格均存在, 且样式与首个单元格一致 (边框 背景等完整)
+                    for (int rowPosition = region.getFirstRow(); rowPosition <= region.getLastRow(); rowPosition++) {
+                        for (int colPosition = region.getFirstColumn(); colPosition <= region.getLastColumn(); colPosition++) {
+                            XSSFCell cell = sheet.getRow(rowPosition).getCell(colPosition);
+                            assertNotNull(cell, writeMode + " " + region.formatAsString());
+                            assertEquals(firstCell.getCellStyle().getIndex(), cell.getCellStyle().getIndex(), writeMode + " " + region.formatAsString());
+                        }
+                    }
+                }
+                // 未合并的单行数据
+                assertEquals("李老师", sheet.getRow(9).getCell(4).getStringCellValue());
+                assertEquals(contentStyle, sheet.getRow(9).getCell(1).getCellStyle().getIndex());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("读取类测试")
+    public void readerTest() throws IOException {
+        teacher.setStudentList(Arrays.asList(student, new Student(2, 19, "姜辞旧2")));
+        Teacher teacher3 = new Teacher(3, 30, "王老师");
+        for (WriteMode writeMode : Arrays.asList(WriteMode.MEMORY, WriteMode.STREAMING)) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            ExcelWriter.createExcelWriter(os, ExcelConfig.builder().writeMode(writeMode).build())
+                    .write(Teacher.class, Arrays.asList(teacher, teacher3))
+                    .doWrite();
+
+            List<Teacher> teacherList;
+            try (ExcelReader reader = ExcelReader.createExcelReader(new ByteArrayInputStream(os.toByteArray()))) {
+                teacherList = reader.read(Teacher.class);
+            }
+            assertEquals(2, teacherList.size());
+            Teacher first = teacherList.get(0);
+            assertEquals(teacher.getName(), first.getName());
+            assertEquals(teacher.getAge(), first.getAge());
+            assertEquals(teacher.getTeacher2().getName(), first.getTeacher2().getName());
+            assertEquals(2, first.getStudentList().size());
+            assertEquals("姜辞旧2", first.getStudentList().get(1).getName());
+            assertEquals(19, first.getStudentList().get(1).getAge());
+            Teacher second = teacherList.get(1);
+            assertEquals("王老师", second.getName());
+            assertEquals(0, second.getStudentList().size());
+            assertNull(second.getTeacher2());
+        }
+    }
+
+    public enum Level {
+        LOW, HIGH
+    }
+
+    @ExcelSheet("等级表")
+    @Data
+    @NoArgsConstructor
+    public static class StudentLevel {
+        @ExcelProperty(value = {"id"}, order = 0)
+        private Integer id;
+        @ExcelProperty(value = {"学生", "名字"}, order = 1)
+        private Level name;
+    }
+
+    @Test
+    @DisplayName("读取时 无法精确转换 或 不支持的类型 抛出异常")
+    public void readConversionTest() throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ExcelWriter.createExcelWriter(os)
+                .write(Student.class, Collections.singletonList(student))
+                .doWrite();
+        byte[] bytes = modifyFirstSheet(os.toByteArray(), sheet -> {
+            XSSFRow row = sheet.getRow(3);
+            row.getCell(0).setCellValue(18.9);
+            row.getCell(2).setCellValue(18.9);
+        });
+        try (ExcelReader reader = ExcelReader.createExcelReader(new ByteArrayInputStream(bytes))) {
+            ReadFromCellException e = assertThrows(ReadFromCellException.class, () -> reader.read(Student.class));
+            assertTrue(e.getMessage().contains("id"));
+            assertTrue(e.getCause() instanceof ArithmeticException);
+        }
+        // 超出范围
+        bytes = modifyFirstSheet(os.toByteArray(), sheet -> sheet.getRow(3).getCell(0).setCellValue(1e10));
+        try (ExcelReader reader = ExcelReader.createExcelReader(new ByteArrayInputStream(bytes))) {
+            assertThrows(ReadFromCellException.class, () -> reader.read(Student.class));
+        }
+        // 不支持的类型 (枚举)
+        try (ExcelReader reader = ExcelReader.createExcelReader(new ByteArrayInputStream(os.toByteArray()))) {
+            ReadFromCellException e = assertThrows(ReadFromCellException.class, () -> reader.read(StudentLevel.class, 0, level -> {
+            }));
+            assertTrue(e.getMessage().contains("name"));
+        }
+        // 共享字符串类型 但没有值的单元格 读取为空
+        bytes = modifyFirstSheet(os.toByteArray(), sheet -> {
+            XSSFCell cell = sheet.getRow(3).getCell(1);
+            cell.getCTCell().setT(STCellType.S);
+            cell.getCTCell().unsetV();
+        });
+        try (ExcelReader reader = ExcelReader.createExcelReader(new ByteArrayInputStream(bytes))) {
+            List<Student> studentList = reader.read(Student.class);
+            assertEquals(1, studentList.size());
+            assertNull(studentList.get(0).getName());
+            assertEquals(18, studentList.get(0).getAge());
+        }
+    }
+
+    private static byte[] modifyFirstSheet(byte[] bytes, Consumer<XSSFSheet> modifier) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))) {
+            modifier.accept(workbook.getSheetAt(0));
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            workbook.write(os);
+            return os.toByteArray();
+        }
+    }
+
+    public static class UpperCaseConverter implements ExcelConverter<String, String> {
+        @Override
+        public String convert(String s) {
+            return s == null ? null : s.toUpperCase();
+        }
+    }
+
+    @ExcelSheet("单向转换表")
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OneWayConverted {
+        @ExcelProperty(value = {"编码"}, converter = UpperCaseConverter.class)
+        private String code;
+    }
+
+    @Test
+    @DisplayName("不支持反向转换的属性 读取前失败")
+    public void irreversibleConverterTest() throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ExcelWriter.createExcelWriter(os)
+                .write(OneWayConverted.class, Collections.singletonList(new OneWayConverted("abc")))
+                .doWrite();
+        try (ExcelReader reader = ExcelReader.createExcelReader(new ByteArrayInputStream(os.toByteArray()))) {
+            ParserException e = assertThrows(ParserException.class, () -> reader.read(OneWayConverted.class));
+            assertTrue(e.getMessage().contains("code"));
+        }
+    }
+
+    @ExcelSheet(value = "课程表", showSerialNumber = true)
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Course {
+        @ExcelProperty(value = {"课程"}, order = 0)
+        private String name;
+        @ExcelMultiProperty(value = "标签", order = 1)
+        private List<String> tags;
+    }
+
+    @ExcelSheet("无序号课程表")
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class UnnumberedCourse {
+        @ExcelProperty(value = {"课程"}, order = 0)
+        private String name;
+        @ExcelMultiProperty(value = "标签", order = 1)
+        private List<String> tags;
+    }
+
+    @Test
+    @DisplayName("非 multi 属性均为空的数据读取")
+    public void blankAnchorReaderTest() throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ExcelWriter.createExcelWriter(os)
+                .write(Course.class, Arrays.asList(new Course("数学", Arrays.asList("a", "b")), new Course(null, Arrays.asList("c", "d"))))
+                .write(UnnumberedCourse.class, Arrays.asList(new UnnumberedCourse("数学", Arrays.asList("a", "b")), new UnnumberedCourse(null, Arrays.asList("c", "d"))))
+                .doWrite();
+        try (ExcelReader reader = ExcelReader.createExcelReader(new ByteArrayInputStream(os.toByteArray()))) {
+            // 显示序号列时 以序号区分每条数据
+            List<Course> courseList = reader.read(Course.class);
+            assertEquals(2, courseList.size());
+            assertNull(courseList.get(1).getName());
+            assertEquals(Arrays.asList("c", "d"), courseList.get(1).getTags());
+
+            // 不显示序号列时 无法区分, 合并至上一条数据 (已知限制)
+            List<UnnumberedCourse> unnumberedCourseList = reader.read(UnnumberedCourse.class);
+            assertEquals(1, unnumberedCourseList.size());
+            assertEquals(Arrays.asList("a", "b", "c", "d"), unnumberedCourseList.get(0).getTags());
+        }
+    }
+
+    @Test
+    @DisplayName("拉取数据源测试")
+    public void pullSourceWriterTest() throws IOException {
+        List<Integer> pageNumList = new ArrayList<>();
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ExcelWriter.createExcelWriter(os)
+                .write(Student.class, IntStream.range(0, 25).mapToObj(i -> new Student(i, 18, "学生" + i)))
+                .write(Teacher2.class, 10, (pageNum, pageSize) -> {
+                    pageNumList.add(pageNum);
+                    return IntStream.range(0, pageNum < 3 ? pageSize : 5).mapToObj(i -> new Teacher2(i, 28, "老师" + i)).collect(Collectors.toList());
+                })
+                .doWrite();
+
+        assertEquals(Arrays.asList(1, 2, 3), pageNumList);
+        try (ExcelReader reader = ExcelReader.createExcelReader(new ByteArrayInputStream(os.toByteArray()))) {
+            assertEquals(25, reader.read(Student.class).size());
+            assertEquals(25, reader.read(Teacher2.class).size());
+        }
+    }
+
+    @Test
+    @DisplayName("并行写入测试")
+    public void parallelWriterTest() throws IOException {
+        teacher.setStudentList(Arrays.asList(student, new Student(2, 19, "姜辞旧2")));
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        ExcelConfig excelConfig = ExcelConfig.builder()
+                .writeMode(WriteMode.STREAMING)
+                .parallel(true)
+                .executor(executorService)
+                .build();
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ExcelWriter.createExcelWriter(os, excelConfig)
+                .write(Student.class, IntStream.range(0, 500).mapToObj(i -> new Student(i, 18, "学生" + i)))
+                .write(Teacher.class, Collections.nCopies(500, teacher))
+                .doWrite();
+        executorService.shutdown();
+
+        try (ExcelReader reader = ExcelReader.createExcelReader(new ByteArrayInputStream(os.toByteArray()))) {
+            List<Student> studentList = reader.read(Student.class);
+            assertEquals(500, studentList.size());
+            assertEquals("学生499", studentList.get(499).getName());
+            List<Teacher> teacherList = reader.read(Teacher.class);
+            assertEquals(500, teacherList.size());
+            assertEquals(2, teacherList.get(499).getStudentList().size());
+        }
+    }
+
+    @Test
+    @DisplayName("异步写入与并行写入共用线程池")
+    public void sharedExecutorTest() throws Exception {
+        // 线程池只有一个线程: 异步写入占用该线程, 并行写入的子任务只能排队
+        ExecutorService executorService = Executors.newFixedThreadPool(1);
+        ExcelConfig excelConfig = ExcelConfig.builder()
+                .writeMode(WriteMode.STREAMING)
+                .parallel(true)
+                .executor(executorService)
+                .build();
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        try {
+            ExcelWriter.createExcelWriter(os, excelConfig)
+                    .write(Student.class, IntStream.range(0, 100).mapToObj(i -> new Student(i, 18, "学生" + i)))
+                    .write(Teacher2.class, IntStream.range(0, 100).mapToObj(i -> new Teacher2(i, 28, "老师" + i)))
+                    .doWriteAsync()
+                    .get(30, TimeUnit.SECONDS);
+        } finally {
+            executorService.shutdown();
+        }
+
+        try (ExcelReader reader = ExcelReader.createExcelReader(new ByteArrayInputStream(os.toByteArray()))) {
+            assertEquals(100, reader.read(Student.class).size());
+            assertEquals(100, reader.read(Teacher2.class).size());
+        }
+    }
+
+    @Test
+    @DisplayName("并发解析测试")
+    public void concurrentParseTest() throws Exception {
+        ExcelParser parser = ExcelParser.getInstance();
+        parser.evict(Teacher.class);
+        int threadNum = 16;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadNum);
+        CountDownLatch latch = new CountDownLatch(1);
+        List<Future<SheetConfig>> futureList = new ArrayList<>();
+        for (int i = 0; i < threadNum; i++) {
+            futureList.add(executorService.submit(() -> {
+                latch.await();
+                return parser.getSheetConfig(Teacher.class);
+            }));
+        }
+        latch.countDown();
+        SheetConfig sheetConfig = futureList.get(0).get();
+        for (Future<SheetConfig> future : futureList) {
+            assertSame(sheetConfig, future.get());
+        }
+        executorService.shutdown();
+    }
+
+    // 抽象类: 不会被自动配置的预加载扫描到
+    @ExcelSheet("循环表A")
+    @Data
+    public abstract static class CycleA {
+        @ExcelProperty(value = {"B"}, nested = true)
+        private CycleB b;
+    }
+
+    @ExcelSheet("循环表B")
+    @Data
+    public abstract static class CycleB {
+        @ExcelProperty(value = {"A"}, nested = true)
+        private CycleA a;
+    }
+
+    @Test
+    @DisplayName("并发解析循环引用的类 抛出异常而不是死锁")
+    public void concurrentCycleParseTest() throws Exception {
+        ExcelParser parser = ExcelParser.getInstance();
+        int threadNum = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadNum);
+        try {
+            for (int round = 0; round < 20; round++) {
+                CountDownLatch latch = new CountDownLatch(1);
+                List<Future<SheetConfig>> futureList = new ArrayList<>();
+                for (int i = 0; i < threadNum; i++) {
+                    Class<?> clazz = i % 2 == 0 ? CycleA.class : CycleB.class;
+                    futureList.add(executorService.submit(() -> {
+                        latch.await();
+                        return parser.getSheetConfig(clazz);
+                    }));
+                }
+                latch.countDown();
+                for (Future<SheetConfig> future : futureList) {
+                    ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+                    assertTrue(e.getCause() instanceof ParserException);
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("布局计算测试")
+    public void layoutTest() {
+        SheetConfig sheetConfig = ExcelParser.getInstance().getSheetConfig(Teacher.class);
+        // 年龄 + 学生(id, 名字, 年龄) + 名字 + 教师(年龄, 名字)
+        assertEquals(7, sheetConfig.getColNum());
+        // 学生 + 学生表头(2级)
+        assertEquals(3, sheetConfig.getRowNum());
+        assertEquals(4, sheetConfig.getContentRowPosition());
+        assertEquals(7, sheetConfig.getColumns().length);
+        assertEquals("id", sheetConfig.getColumns()[1].getField().getName());
+        assertEquals("name", sheetConfig.getColumns()[6].getField().getName());
+        // 缓存的配置在线程间共享, 不可修改
+        sheetConfig.getColumns()[1] = null;
+        assertEquals("id", sheetConfig.getColumn(1).getField().getName());
+        assertThrows(UnsupportedOperationException.class, () -> sheetConfig.getPropertyConfigList().clear());
+        assertThrows(IllegalStateException.class, sheetConfig::initLayout);
+        PropertyConfig nestedPropertyConfig = sheetConfig.getPropertyConfigList().stream().filter(PropertyConfig::isNested).findFirst().orElseThrow(IllegalStateException::new);
+        assertThrows(UnsupportedOperationException.class, () -> nestedPropertyConfig.getChildPropertyConfigList().clear());
+        assertThrows(IllegalStateException.class, nestedPropertyConfig::initLayout);
+
+        // 表头模板: 表名(1) + 年龄, 学生, 名字, 教师(4) + id, 学生(同名), 教师的年龄, 名字(4)
+        HeadTemplate headTemplate = sheetConfig.getHeadTemplate();
+        assertEquals(4, headTemplate.getRowNum());
+        List<String> mergedRegionList = headTemplate.getMergedRegions().stream().map(CellRangeAddress::formatAsString).collect(Collectors.toList());
+        assertEquals(9, mergedRegionList.size());
+        assertTrue(mergedRegionList.containsAll(Arrays.asList("A1:G1", "B2:D2", "C3:D3", "G3:G4")));
+        assertEquals("学生", headTemplate.getValue(2, 2));
+    }
+
+    @ExcelSheet("指标表")
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Metric {
+        @ExcelProperty(value = {"次数"}, order = 0)
+        private int count;
+        @ExcelProperty(value = {"总量"}, order = 1)
+        private long total;
+        @ExcelProperty(value = {"比例"}, order = 2)
+        private double ratio;
+        @ExcelProperty(value = {"启用"}, order = 3)
+        private boolean enabled;
+        @ExcelProperty(value = {"日期"}, order = 4)
+        private LocalDate date;
+        @ExcelProperty(value = {"备注"}, order = 5)
+        private Object remark;
+    }
+
+    public static class AccessorSample {
+        public int getCount() {
+            return 1;
+        }
+
+        public long getTotal() {
+            return 10_000_000_000L;
+        }
+
+        public double getRatio() {
+            return 0.5;
+        }
+
+        public boolean isEnabled() {
+            return true;
+        }
+
+        public String getName() {
+            return "名字";
+        }
+
+        public String getChecked() throws IOException {
+            throw new IOException("读取失败");
+        }
+
+        public String getUnchecked() {
+            throw new IllegalStateException("读取失败");
+        }
+    }
+
+    // 非 public 类: 无法生成实现类, 降级为 MethodHandle 调用
+    static class HiddenAccessorSample {
+        public int getCount() {
+            return 1;
+        }
+
+        public long getTotal() {
+            return 10_000_000_000L;
+        }
+
+        public double getRatio() {
+            return 0.5;
+        }
+
+        public boolean isEnabled() {
+            return true;
+        }
+
+        public String getName() {
+            return "名字";
+        }
+
+        public String getChecked() throws IOException {
+            throw new IOException("读取失败");
+        }
+
+        public String getUnchecked() {
+            throw new IllegalStateException("读取失败");
+        }
+    }
+
+    @Test
+    @DisplayName("属性访问器")
+    public void propertyAccessorsTest() throws Exception {
+        // LambdaMetafactory 生成的实现类
+        assertAccessors(new AccessorSample());
+        // MethodHandle 调用: 非 public 类
+        assertAccessors(new HiddenAccessorSample());
+        // MethodHandle 调用: public 类, 但对当前类加载器不可见 (由独立的类加载器加载)
+        URL testClasses = AccessorSample.class.getProtectionDomain().getCodeSource().getLocation();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{testClasses}, null)) {
+            Class<?> isolatedClass = classLoader.loadClass(AccessorSample.class.getName());
+            assertNotSame(AccessorSample.class, isolatedClass);
+            assertAccessors(isolatedClass.getDeclaredConstructor().newInstance());
+        }
+
+        // 反射调用: JDK 9 及以上版本 无法对未开放的模块中的非 public 类 setAccessible
+        assumeFalse(System.getProperty("java.specification.version").startsWith("1."));
+        Method size = Class.forName("java.util.Collections$UnmodifiableCollection").getDeclaredMethod("size");
+        PropertyAccessor accessor = PropertyAccessors.of(size);
+        assertFalse(accessor instanceof IntPropertyAccessor);
+        PropertyAccessException e = assertThrows(PropertyAccessException.class, () -> accessor.get(Collections.unmodifiableList(Arrays.asList(1, 2))));
+        assertTrue(e.getCause() instanceof IllegalAccessException);
+    }
+
+    private static void assertAccessors(Object target) throws NoSuchMethodException {
+        Class<?> clazz = target.getClass();
+        PropertyAccessor count = PropertyAccessors.of(clazz.getMethod("getCount"));
+        assertEquals(1, ((IntPropertyAccessor) count).getInt(target));
+        assertEquals(1, count.get(target));
+        PropertyAccessor total = PropertyAccessors.of(clazz.getMethod("getTotal"));
+        assertEquals(10_000_000_000L, ((LongPropertyAccessor) total).getLong(target));
+        assertEquals(10_000_000_000L, total.get(target));
+        PropertyAccessor ratio = PropertyAccessors.of(clazz.getMethod("getRatio"));
+        assertEquals(0.5, ((DoublePropertyAccessor) ratio).getDouble(target));
+        assertEquals(0.5, ratio.get(target));
+        PropertyAccessor enabled = PropertyAccessors.of(clazz.getMethod("isEnabled"));
+        assertTrue(((BooleanPropertyAccessor) enabled).getBoolean(target));
+        assertEquals(true, enabled.get(target));
+        assertEquals("名字", PropertyAccessors.of(clazz.getMethod("getName")).get(target));
+
+        // 受检异常包装为 PropertyAccessException, 运行时异常直接抛出
+        PropertyAccessor checked = PropertyAccessors.of(clazz.getMethod("getChecked"));
+        PropertyAccessException e = assertThrows(PropertyAccessException.class, () -> checked.get(target));
+        assertTrue(e.getCause() instanceof IOException);
+        PropertyAccessor unchecked = PropertyAccessors.of(clazz.getMethod("getUnchecked"));
+        assertThrows(IllegalStateException.class, () -> unchecked.get(target));
+    }
+
+    @Test
+    @DisplayName("基本类型写入")
+    public void primitiveWriterTest() throws IOException {
+        SheetConfig sheetConfig = ExcelParser.getInstance().getSheetConfig(Metric.class);
+        assertTrue(sheetConfig.getPropertyConfigList().get(0).getAccessor() instanceof IntPropertyAccessor);
+        assertTrue(sheetConfig.getPropertyConfigList().get(1).getAccessor() instanceof LongPropertyAccessor);
+
+        List<Metric> metricList = Arrays.asList(
+                new Metric(1, 10_000_000_000L, 0.25, true, LocalDate.of(2023, 3, 30), "备注"),
+                new Metric(-2, 0, 3, false, null, 5L));
+        for (WriteMode writeMode : new WriteMode[]{WriteMode.MEMORY, WriteMode.DIRECT}) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            ExcelWriter.createExcelWriter(os, ExcelConfig.builder().writeMode(writeMode).build())
+                    .write(Metric.class, metricList)
+                    .doWrite();
+            try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(os.toByteArray()))) {
+                XSSFRow row = workbook.getSheetAt(0).getRow(2);
+                assertEquals(1, row.getCell(0).getNumericCellValue());
+                assertEquals(10_000_000_000d, row.getCell(1).getNumericCellValue());
+                assertEquals(0.25, row.getCell(2).getNumericCellValue());
+                assertTrue(row.getCell(3).getBooleanCellValue());
+                assertEquals(LocalDate.of(2023, 3, 30).atStartOfDay(), row.getCell(4).getLocalDateTimeCellValue());
+                assertEquals("备注", row.getCell(5).getStringCellValue());
+
+                row = workbook.getSheetAt(0).getRow(3);
+                assertEquals(-2, row.getCell(0).getNumericCellValue());
+                assertEquals("", row.getCell(4).getStringCellValue());
+                assertEquals(5, row.getCell(5).getNumericCellValue());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("非有限的小数 直接写入与内存写入一致")
+    public void nonFiniteDoubleTest() throws IOException {
+        double[] values = {Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        List<Metric> metricList = new ArrayList<>();
+        for (double value : values) {
+            metricList.add(new Metric(0, 0, value, false, null, value));
+        }
+        Map<WriteMode, List<String>> errorMap = new EnumMap<>(WriteMode.class);
+        for (WriteMode writeMode : WriteMode.values()) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            ExcelWriter.createExcelWriter(os, ExcelConfig.builder().writeMode(writeMode).build())
+                    .write(Metric.class, metricList)
+                    .doWrite();
+            List<String> errorList = new ArrayList<>();
+            try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(os.toByteArray()))) {
+                for (int i = 0; i < values.length; i++) {
+                    XSSFRow row = workbook.getSheetAt(0).getRow(2 + i);
+                    for (int col : new int[]{2, 5}) {
+                        XSSFCell cell = row.getCell(col);
+                        assertEquals(CellType.ERROR, cell.getCellType(), writeMode + " " + values[i]);
+                        errorList.add(cell.getErrorCellString());
+                    }
+                }
+            }
+            errorMap.put(writeMode, errorList);
+        }
+        assertEquals(Arrays.asList("#NUM!", "#NUM!", "#DIV/0!", "#DIV/0!", "#DIV/0!", "#DIV/0!"), errorMap.get(WriteMode.MEMORY));
+        assertEquals(errorMap.get(WriteMode.MEMORY), errorMap.get(WriteMode.DIRECT));
+        assertEquals(errorMap.get(WriteMode.MEMORY), errorMap.get(WriteMode.STREAMING));
+    }
+
+    @ExcelSheet("编码表")
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Code {
+        @ExcelProperty(value = {"编号"}, order = 0)
+        private String id;
+        @ExcelProperty(value = {"状态"}, order = 1)
+        private String status;
+        @ExcelProperty(value = {"备注"}, order = 2, stringStorage = StringStorage.SHARED)
+        private String note;
+    }
+
+    @Test
+    @DisplayName("字符串存储方式")
+    public void stringStorageTest() throws IOException {
+        List<Code> codeList = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            codeList.add(new Code(UUID.randomUUID().toString(), i % 2 == 0 ? "启用" : "停用", " 备注" + i));
+        }
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ExcelWriter.createExcelWriter(os)
+                .write(Code.class, codeList)
+                .doWrite();
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(os.toByteArray()))) {
+            XSSFSheet sheet = workbook.getSheetAt(0);
+            // 样本期间使用共享字符串
+            assertEquals(STCellType.S, sheet.getRow(2).getCell(0).getCTCell().getT());
+            // 不重复的列改为内联写入, 重复的列及指定共享的列 仍使用共享字符串
+            XSSFRow row = sheet.getRow(2 + 1200);
+            assertEquals(STCellType.INLINE_STR, row.getCell(0).getCTCell().getT());
+            assertEquals(codeList.get(1200).getId(), row.getCell(0).getStringCellValue());
+            assertEquals(STCellType.S, row.getCell(1).getCTCell().getT());
+            assertEquals(STCellType.S, row.getCell(2).getCTCell().getT());
+            assertEquals(" 备注1200", row.getCell(2).getStringCellValue());
+            assertEquals(1 + 3 + 1000 + 2 + 1500, workbook.getSharedStringSource().getUniqueCount()); // 表名, 表头, 编号样本, 状态, 备注
+        }
+    }
+
+    @ExcelSheet("图片表")
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Avatar {
+        @ExcelProperty(value = {"名字"}, order = 0)
+        private String name;
+        @ExcelProperty(value = {"头像"}, order = 1)
+        private BufferedImage image;
+        @ExcelProperty(value = {"原图"}, order = 2)
+        private byte[] bytes;
+    }
+
+    @Test
+    @DisplayName("图片写入测试")
+    public void pictureWriterTest() throws IOException {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream imageBytes = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", imageBytes);
+        List<Avatar> avatarList = IntStream.range(0, 50)
+                .mapToObj(i -> new Avatar("头像" + i, image, imageBytes.toByteArray()))
+                .collect(Collectors.toList());
+        for (WriteMode writeMode : Arrays.asList(WriteMode.MEMORY, WriteMode.STREAMING)) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            ExcelWriter.createExcelWriter(os, ExcelConfig.builder().writeMode(writeMode).build())
+                    .write(Avatar.class, avatarList)
+                    .doWrite();
+            try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(os.toByteArray()))) {
+                // 相同内容的图片仅保存一次, 每个单元格引用同一图片
+                assertEquals(1, workbook.getAllPictures().size());
+                assertEquals(100, workbook.getSheetAt(0).getDrawingPatriarch().getShapes().size());
+            }
+        }
+    }
+
+    @ExcelSheet("图片文件表")
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AvatarFile {
+        @ExcelProperty(value = {"名字"}, order = 0)
+        private String name;
+        @ExcelProperty(value = {"头像"}, order = 1)
+        private Path path;
+    }
+
+    @Test
+    @DisplayName("图片文件写入测试")
+    public void pictureFileWriterTest() throws IOException {
+        Path imageFile = Files.createTempFile("excel-avatar", ".png");
+        try {
+            ImageIO.write(new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB), "png", imageFile.toFile());
+            // 同一文件的不同路径写法
+            Path samePath = imageFile.getParent().resolve(".").resolve(imageFile.getFileName());
+            List<AvatarFile> avatarList = IntStream.range(0, 20)
+                    .mapToObj(i -> new AvatarFile("头像" + i, i % 2 == 0 ? imageFile : samePath))
+                    .collect(Collectors.toList());
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            ExcelWriter.createExcelWriter(os, ExcelConfig.builder().writeMode(WriteMode.STREAMING).build())
+                    .write(AvatarFile.class, avatarList)
+                    .doWrite();
+            try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(os.toByteArray()))) {
+                assertEquals(1, workbook.getAllPictures().size());
+                assertEquals(20, workbook.getSheetAt(0).getDrawingPatriarch().getShapes().size());
+            }
+        } finally {
+            Files.delete(imageFile);
+        }
+    }
+
+    @Test
+    @DisplayName("异步写入测试")
+    public void asyncWriterTest() throws Exception {
+        // 进度
+        List<Long> recordList = new CopyOnWriteArrayList<>();
+        AtomicLong totalBytes = new AtomicLong();
+        ExcelConfig excelConfig = ExcelConfig.builder()
+                .writeMode(WriteMode.STREAMING)
+                .progressInterval(100)
+                .progressListener(new WriteProgressListener() {
+                    @Override
+                    public void onRecordsWritten(int sheetIndex, String sheetName, long records) {
+                        recordList.add(records);
+                    }
+
+                    @Override
+                    public void onComplete(long bytes) {
+                        totalBytes.set(bytes);
+                    }
+                })
+                .build();
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ExcelWriter.createExcelWriter(os, excelConfig)
+                .write(Student.class, IntStream.range(0, 250).mapToObj(i -> new Student(i, 18, "学生" + i)))
+                .doWriteAsync()
+                .get(30, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(100L, 200L), recordList);
+        assertEquals(os.size(), totalBytes.get());
+
+        // 取消 (无限数据 写入线程在取消后中止 并释放数据)
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        excelConfig = ExcelConfig.builder()
+                .writeMode(WriteMode.STREAMING)
+                .progressInterval(100)
+                .progressListener(new WriteProgressListener() {
+                    @Override
+                    public void onRecordsWritten(int sheetIndex, String sheetName, long records) {
+                        started.countDown();
+                    }
+                })
+                .build();
+        CompletableFuture<Void> future = ExcelWriter.createExcelWriter(new ByteArrayOutputStream(), excelConfig)
+                .write(Student.class, Stream.iterate(0, i -> i + 1).map(i -> new Student(i, 18, "学生" + i)).onClose(closed::countDown))
+                .doWriteAsync();
+        assertTrue(started.await(30, TimeUnit.SECONDS));
+        future.cancel(true);
+        assertTrue(closed.await(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("直接写入测试")
+    public void directWriterTest() throws IOException {
+        List<Student> studentList = IntStream.range(0, 100).mapToObj(i -> new Student(i, 18, "学生<" + i + ">")).collect(Collectors.toList());
+        byte[][] outputs = new byte[2][];
+        WriteMode[] writeModes = {WriteMode.MEMORY, WriteMode.DIRECT};
+        for (int i = 0; i < writeModes.length; i++) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            ExcelWriter.createExcelWriter(os, ExcelConfig.builder().writeMode(writeModes[i]).build())
+                    .write(Student.class, studentList)
+                    .write(Teacher2.class, Collections.singletonList(new Teacher2(1, 28, "姜老师")))
+                    .doWrite();
+            outputs[i] = os.toByteArray();
+        }
+
+        // 与内存模式的输出内容一致
+        try (XSSFWorkbook expected = new XSSFWorkbook(new ByteArrayInputStream(outputs[0]));
+             XSSFWorkbook actual = new XSSFWorkbook(new ByteArrayInputStream(outputs[1]))) {
+            assertEquals(expected.getNumberOfSheets(), actual.getNumberOfSheets());
+            for (int s = 0; s < expected.getNumberOfSheets(); s++) {
+                XSSFSheet expectedSheet = expected.getSheetAt(s);
+                XSSFSheet actualSheet = actual.getSheetAt(s);
+                assertEquals(expectedSheet.getSheetName(), actualSheet.getSheetName());
+                assertEquals(expectedSheet.getLastRowNum(), actualSheet.getLastRowNum());
+                assertEquals(new HashSet<>(expectedSheet.getMergedRegions()), new HashSet<>(actualSheet.getMergedRegions()));
+                for (int r = 0; r <= expectedSheet.getLastRowNum(); r++) {
+                    XSSFRow expectedRow = expectedSheet.getRow(r);
+                    XSSFRow actualRow = actualSheet.getRow(r);
+                    for (int c = 0; c < expectedRow.getLastCellNum(); c++) {
+                        assertEquals(String.valueOf(expectedRow.getCell(c)), String.valueOf(actualRow.getCell(c)));
+                    }
+                }
+            }
+        }
+
+        try (ExcelReader reader = ExcelReader.createExcelReader(new ByteArrayInputStream(outputs[1]))) {
+            List<Student> result = reader.read(Student.class);
+            assertEquals(100, result.size());
+            assertEquals("学生<99>", result.get(99).getName());
+        }
+    }
+
+    @Test
+    @DisplayName("编译期元数据")
+    public void annotationProcessorTest() throws Exception {
+        Path dir = Files.createTempDirectory("excel-processor");
+        Path source = dir.resolve("demo/Demo.java");
+        Files.createDirectories(source.getParent());
+        Files.write(source, Arrays.asList(
+                "package demo;",
+                "import com.zuijianren.excel.annotations.*;",
+                "import java.util.List;",
+                "@ExcelSheet(\"demo\")",
+                "public class Demo {",
+                "    @ExcelProperty(value = \"id\", order = 0) private int id;",
+                "    @ExcelMultiProperty(value = \"tags\", order = 1) private List<String> tags;",
+                "    public Demo() {}",
+                "    public Demo(int id, List<String> tags) { this.id = id; this.tags = tags; }",
+                "    public int getId() { return id; }",
+                "    public List<String> getTags() { return tags; }",
+                "}"), StandardCharsets.UTF_8);
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> options = Arrays.asList("-d", dir.toString(), "-processor", ExcelSheetProcessor.class.getName(),
+                "-classpath", System.getProperty("java.class.path"), "-encoding", "UTF-8");
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            assertTrue(compiler.getTask(null, fileManager, null, options, null, fileManager.getJavaFileObjects(source.toFile())).call());
+        }
+        assertTrue(Files.exists(dir.resolve(SheetMetadata.className("demo.Demo").replace('.', '/') + ".class")));
+        assertTrue(Files.exists(dir.resolve("META-INF/native-image/excel-metadata/demo.Demo/reflect-config.json")));
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{dir.toUri().toURL()}, getClass().getClassLoader())) {
+            Class<?> demoClass = classLoader.loadClass("demo.Demo");
+            SheetConfig sheetConfig = ExcelParser.getInstance().getSheetConfig(demoClass);
+            PropertyConfig tags = sheetConfig.getPropertyConfigList().get(1);
+            assertNull(tags.getMethod()); // 使用生成的访问器
+            assertTrue(sheetConfig.getPropertyConfigList().get(0).getAccessor() instanceof IntPropertyAccessor);
+            assertEquals(String.class, tags.getWriteType());
+
+            Object demo = demoClass.getConstructor(int.class, List.class).newInstance(7, Arrays.asList("a", "b"));
+            assertEquals(7, sheetConfig.getPropertyConfigList().get(0).getAccessor().get(demo));
+            assertEquals(Arrays.asList("a", "b"), tags.getAccessor().get(demo));
+        }
+    }
+
+    @Test
+    @DisplayName("自动配置")
+    public void autoConfigurationTest() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("excel.write-mode", "STREAMING");
+            properties.put("excel.window-size", "50");
+            properties.put("excel.scan-packages[0]", "com.zuijianren.excel");
+            properties.put("excel.executor.core-size", "2");
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+            context.register(ExcelAutoConfiguration.class, TaskExecutionAutoConfiguration.class);
+            context.registerBean(ExcelConfigCustomizer.class, () -> builder -> builder.progressInterval(10));
+            context.refresh();
+
+            assertSame(ExcelParser.getInstance(), context.getBean(ExcelParser.class));
+            ThreadPoolTaskExecutor executor = context.getBean(ExcelWriterExecutor.class).getTaskExecutor();
+            assertEquals(2, executor.getCorePoolSize());
+            // 写入线程池不替代应用的默认线程池
+            assertEquals(Collections.singleton("applicationTaskExecutor"), context.getBeansOfType(Executor.class).keySet());
+
+            ExcelConfig excelConfig = context.getBean(ExcelWriterFactory.class).configBuilder().build();
+            assertEquals(WriteMode.STREAMING, excelConfig.getWriteMode());
+            assertEquals(50, excelConfig.getWindowSize());
+            assertEquals(10, excelConfig.getProgressInterval());
+            assertSame(executor, excelConfig.getExecutor());
+        }
+    }
+
+    @Test
+    @DisplayName("临时文件空间")
+    public void scratchSpaceTest() throws IOException {
+        Path tempDirectory = Files.createTempDirectory("excel-scratch");
+        List<Student> studentList = IntStream.range(0, 2000).mapToObj(i -> new Student(i, 18, "学生" + i)).collect(Collectors.toList());
+        for (boolean compressTempFiles : new boolean[]{false, true}) {
+            List<String> tempFiles = new ArrayList<>();
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            ExcelConfig excelConfig = ExcelConfig.builder()
+                    .writeMode(WriteMode.STREAMING)
+                    .windowSize(10)
+                    .compressTempFiles(compressTempFiles)
+                    .tempDirectory(tempDirectory.toFile())
+                    .progressInterval(1000)
+                    .progressListener(new WriteProgressListener() {
+                        @Override
+                        public void onRecordsWritten(int sheetIndex, String sheetName, long records) {
+                            // 写入期间 临时文件位于指定目录的子目录中
+                            try (Stream<Path> paths = Files.walk(tempDirectory)) {
+                                paths.filter(Files::isRegularFile).forEach(path -> tempFiles.add(path.getFileName().toString()));
+                            } catch (IOException e) {
+                                throw new IllegalStateException(e);
+                            }
+                        }
+                    })
+                    .build();
+            ExcelWriter.createExcelWriter(os, excelConfig)
+                    .write(Student.class, studentList)
+                    .doWrite();
+            assertTrue(!tempFiles.isEmpty());
+            try (ExcelReader reader = ExcelReader.createExcelReader(new ByteArrayInputStream(os.toByteArray()))) {
+                assertEquals(studentList, reader.read(Student.class));
+            }
+            // 写入完成后 子目录已删除
+            try (Stream<Path> paths = Files.list(tempDirectory)) {
+                assertEquals(0, paths.count());
+            }
+        }
+
+        // 超出配额时 写入中止并清理
+        ExcelConfig quotaConfig = ExcelConfig.builder()
+                .writeMode(WriteMode.STREAMING)
+                .windowSize(10)
+                .tempDirectory(tempDirectory.toFile())
+                .tempFileQuota(16 * 1024)
+                .build();
+        assertThrows(TempFileQuotaExceededException.class, () -> ExcelWriter.createExcelWriter(new ByteArrayOutputStream(), quotaConfig)
+                .write(Student.class, studentList)
+                .doWrite());
+        try (Stream<Path> paths = Files.list(tempDirectory)) {
+            assertEquals(0, paths.count());
+        }
+        Files.delete(tempDirectory);
+    }
+
+    @Test
+    @DisplayName("压缩级别")
+    public void compressionTest() throws IOException {
+        List<Student> studentList = IntStream.range(0, 2000).mapToObj(i -> new Student(i, 18, "学生" + i)).collect(Collectors.toList());
+        CompressionConfig storedSheets = CompressionConfig.builder().sheetLevel(Deflater.NO_COMPRESSION).build();
+        for (WriteMode writeMode : WriteMode.values()) {
+            ByteArrayOutputStream defaultOs = new ByteArrayOutputStream();
+            ExcelWriter.createExcelWriter(defaultOs, ExcelConfig.builder().writeMode(writeMode).build())
+                    .write(Student.class, studentList)
+                    .doWrite();
+            ByteArrayOutputStream storedOs = new ByteArrayOutputStream();
+            ExcelWriter.createExcelWriter(storedOs, ExcelConfig.builder().writeMode(writeMode).compressionConfig(storedSheets).build())
+                    .write(Student.class, studentList)
+                    .doWrite();
+            ByteArrayOutputStream fastOs = new ByteArrayOutputStream();
+            ExcelWriter.createExcelWriter(fastOs, ExcelConfig.builder().writeMode(writeMode).compressionConfig(CompressionConfig.fast()).build())
+                    .write(Student.class, studentList)
+                    .doWrite();
+
+            // 不压缩的 sheet 明显大于默认级别
+            assertTrue(storedOs.size() > defaultOs.size() * 2, writeMode.name());
+            for (ByteArrayOutputStream os : Arrays.asList(storedOs, fastOs)) {
+                try (ExcelReader reader = ExcelReader.createExcelReader(new ByteArrayInputStream(os.toByteArray()))) {
+                    assertEquals(studentList, reader.read(Student.class));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("写入会话测试")
+    public void sessionWriterTest() throws IOException {
+        for (WriteMode writeMode : WriteMode.values()) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            AtomicLong closedStreams = new AtomicLong();
+            try (ExcelWriter excelWriter = ExcelWriter.createExcelWriter(os, ExcelConfig.builder().writeMode(writeMode).build()).open()) {
+                excelWriter.write(Student.class, IntStream.range(0, 300).mapToObj(i -> new Student(i, 18, "学生" + i)).onClose(closedStreams::incrementAndGet));
+                // 写入后 数据立即释放
+                assertEquals(1, closedStreams.get(), writeMode.name());
+                assertTrue(excelWriter.getDataSource().isEmpty());
+                excelWriter.write(Teacher2.class, IntStream.range(0, 10).mapToObj(i -> new Teacher2(i, 28, "老师" + i)).onClose(closedStreams::incrementAndGet));
+                assertEquals(2, closedStreams.get(), writeMode.name());
+            }
+
+            try (ExcelReader reader = ExcelReader.createExcelReader(new ByteArrayInputStream(os.toByteArray()))) {
+                List<Student> studentList = reader.read(Student.class);
+                assertEquals(300, studentList.size(), writeMode.name());
+                assertEquals("学生299", studentList.get(299).getName());
+                assertEquals(10, reader.read(Teacher2.class).size(), writeMode.name());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("工作簿模板")
+    public void workbookTemplateTest() throws IOException {
+        // 模板: 封面 sheet 及自定义字体
+        Path templateFile = Files.createTempFile("excel-template", ".xlsx");
+        try (XSSFWorkbook templateWorkbook = new XSSFWorkbook(); OutputStream templateOs = Files.newOutputStream(templateFile)) {
+            templateWorkbook.createFont().setFontName("模板字体");
+            templateWorkbook.createSheet("封面").createRow(0).createCell(0).setCellValue("公司报表");
+            templateWorkbook.write(templateOs);
+        }
+        try {
+            WorkbookTemplate template = WorkbookTemplateCache.getInstance().getTemplate(templateFile.toFile());
+            assertSame(template, WorkbookTemplateCache.getInstance().getTemplate(templateFile.toFile()));
+            int templateCellStyles = template.newWorkbook().getNumCellStyles();
+
+            for (WriteMode writeMode : WriteMode.values()) {
+                ByteArrayOutputStream os = new ByteArrayOutputStream();
+                AtomicInteger copies = new AtomicInteger();
+                ExcelConfig excelConfig = ExcelConfig.builder()
+                        .writeMode(writeMode)
+                        .xssfWorkbookSupplier(() -> {
+                            copies.incrementAndGet();
+                            return template.newWorkbook();
+                        })
+                        .build();
+                // 写入开始时 才创建副本 (toString, equals, hashCode 不创建)
+                assertNotNull(excelConfig.toString());
+                assertNotEquals(ExcelConfig.builder().build(), excelConfig);
+                excelConfig.hashCode();
+                assertEquals(0, copies.get(), writeMode.name());
+                ExcelWriter.createExcelWriter(os, excelConfig)
+                        .write(Student.class, IntStream.range(0, 10).mapToObj(i -> new Student(i, 18, "学生" + i)))
+                        .doWrite();
+                assertEquals(1, copies.get(), writeMode.name());
+                try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(os.toByteArray()))) {
+                    assertNotNull(workbook.getSheet("学生表"), writeMode.name());
+                    if (writeMode != WriteMode.DIRECT) {
+                        assertEquals("公司报表", workbook.getSheet("封面").getRow(0).getCell(0).getStringCellValue());
+                    }
+                }
+                // 导出时创建的样式 不影响模板
+                assertEquals(templateCellStyles, template.newWorkbook().getNumCellStyles(), writeMode.name());
+            }
+
+            // 自动配置: 获取配置时不创建副本, 写入时使用模板的副本
+            try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+                Map<String, Object> properties = new HashMap<>();
+                properties.put("excel.template", templateFile.toUri().toString());
+                context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+                context.register(ExcelAutoConfiguration.class);
+                context.refresh();
+
+                ExcelConfig excelConfig = context.getBean(ExcelWriterFactory.class).configBuilder().build();
+                assertNotNull(excelConfig.getXssfWorkbookSupplier());
+                assertNotNull(excelConfig.getXssfWorkbook().getSheet("封面"));
+                // 另行指定工作簿时 不使用模板
+                XSSFWorkbook own = new XSSFWorkbook();
+                assertSame(own, context.getBean(ExcelWriterFactory.class).configBuilder().xssfWorkbook(own).build().getXssfWorkbook());
+            }
+        } finally {
+            WorkbookTemplateCache.getInstance().evict(templateFile.toFile());
+            Files.delete(templateFile);
+        }
+    }
+
+    @Test
+    @DisplayName("导出指标")
+    public void metricsTest() throws IOException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MicrometerExcelMetrics metrics = new MicrometerExcelMetrics(registry);
+
+        // 解析耗时
+        ExcelParser.getInstance().setMetrics(metrics);
+        try {
+            ExcelParser.getInstance().evict(Student.class);
+            ExcelParser.getInstance().getSheetConfig(Student.class);
+        } finally {
+            ExcelParser.getInstance().setMetrics(null);
+        }
+        assertEquals(1, registry.get("excel.parse").tag("class", Student.class.getName()).timer().count());
+
+        // 写入 (一对多 每条数据占两行)
+        List<Teacher> teacherList = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Teacher current = new Teacher(i, 28, "姜老师" + i);
+            current.setStudentList(Arrays.asList(student, new Student(2, 19, "姜辞旧2")));
+            teacherList.add(current);
+        }
+        ExcelWriter.createExcelWriter(new ByteArrayOutputStream(), ExcelConfig.builder().metrics(metrics).build())
+                .write(Teacher.class, teacherList)
+                .doWrite();
+        String teacherClass = Teacher.class.getName();
+        assertEquals(10, registry.get("excel.sheet.records").tag("class", teacherClass).counter().count());
+        assertEquals(20, registry.get("excel.sheet.rows").tag("class", teacherClass).counter().count());
+        assertTrue(registry.get("excel.sheet.cells").tag("class", teacherClass).counter().count() >= 20 * 4);
+        assertTrue(registry.get("excel.sheet.merged.regions").tag("class", teacherClass).counter().count() > 10);
+        assertEquals(1, registry.get("excel.workbook.serialize").tag("mode", "memory").timer().count());
+        assertTrue(registry.get("excel.workbook.bytes").tag("mode", "memory").summary().totalAmount() > 0);
+
+        // 直接写入模式
+        ExcelWriter.createExcelWriter(new ByteArrayOutputStream(), ExcelConfig.builder().writeMode(WriteMode.DIRECT).metrics(metrics).build())
+                .write(Student.class, Arrays.asList(student, student))
+                .doWrite();
+        assertEquals(2, registry.get("excel.sheet.rows").tag("class", Student.class.getName()).counter().count());
+        assertEquals(6, registry.get("excel.sheet.cells").tag("class", Student.class.getName()).counter().count());
+        assertEquals(1, registry.get("excel.workbook.write").tag("mode", "direct").tag("outcome", "success").timer().count());
+
+        // 写入失败 (第 6 条数据抛出异常)
+        ExcelWriter failedWriter = ExcelWriter.createExcelWriter(new ByteArrayOutputStream(), ExcelConfig.builder().writeMode(WriteMode.STREAMING).metrics(metrics).build())
+                .write(Student.class, IntStream.range(0, 10).mapToObj(i -> {
+                    if (i == 5) {
+                        throw new IllegalStateException("数据源异常");
+                    }
+                    return new Student(i, 18, "学生" + i);
+                }));
+        assertThrows(IllegalStateException.class, failedWriter::doWrite);
+        assertEquals(1, registry.get("excel.sheet.write").tag("class", Student.class.getName()).tag("outcome", "failure").timer().count());
+        assertEquals(1, registry.get("excel.workbook.write").tag("mode", "streaming").tag("outcome", "failure").timer().count());
+        // 数量类的指标只统计成功的写入
+        assertEquals(2, registry.get("excel.sheet.records").tag("class", Student.class.getName()).counter().count());
+
+        // 取消
+        ExcelWriter cancelledWriter = ExcelWriter.createExcelWriter(new ByteArrayOutputStream(), ExcelConfig.builder().metrics(metrics).build())
+                .write(Student.class, Arrays.asList(student, student));
+        cancelledWriter.cancel();
+        assertThrows(WriteCancelledException.class, cancelledWriter::doWrite);
+        assertEquals(1, registry.get("excel.workbook.write").tag("mode", "memory").tag("outcome", "cancelled").timer().count());
+    }
+
+    @Test
+    @DisplayName("web 响应导出")
+    public void webResponseTest() throws IOException {
+        List<Student> studentList = IntStream.range(0, 100).mapToObj(i -> new Student(i, 18, "学生" + i)).collect(Collectors.toList());
+
+        // spring mvc
+        ResponseEntity<StreamingResponseBody> response = ExcelResponses.of("学生", writer -> writer.write(Student.class, studentList));
+        assertEquals("attachment; filename*=UTF-8''%E5%AD%A6%E7%94%9F.xlsx", response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_LENGTH));
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        response.getBody().writeTo(os);
+        try (ExcelReader reader = ExcelReader.createExcelReader(new ByteArrayInputStream(os.toByteArray()))) {
+            assertEquals(studentList, reader.read(Student.class));
+        }
+
+        // spring webflux (按 1 个数据块请求)
+        ByteArrayOutputStream fluxOs = new ByteArrayOutputStream();
+        ReactiveExcelResponses.body(null, writer -> writer.write(Student.class, studentList))
+                .limitRate(1)
+                .doOnNext(dataBuffer -> {
+                    byte[] bytes = new byte[dataBuffer.readableByteCount()];
+                    dataBuffer.read(bytes);
+                    fluxOs.write(bytes, 0, bytes.length);
+                })
+                .blockLast();
+        try (ExcelReader reader = ExcelReader.createExcelReader(new ByteArrayInputStream(fluxOs.toByteArray()))) {
+            assertEquals(studentList, reader.read(Student.class));
+        }
+    }
+
     @Test
     public void poiTest() throws IOException {
         XSSFWorkbook xssfWorkbook = new XSSFWorkbook();
@@ -3,6 +3,7 @@ package com.zuijianren.excel;
 import com.zuijianren.excel.annotations.ExcelProperty;
 import com.zuijianren.excel.annotations.ExcelSheet;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * @author zuijianren
@@ -10,6 +11,7 @@ import lombok.Data;
  */
 @ExcelSheet("学生表")
 @Data
+@NoArgsConstructor
 public class Student {
     @ExcelProperty(value = {"id"}, order = 0)
     private Integer id;
@@ -6,6 +6,7 @@ import com.zuijianren.excel.annotations.ExcelSheet;
 import com.zuijianren.excel.annotations.style.ExcelSheetNameStyle;
 import com.zuijianren.excel.converter.StringExcelConverter;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.apache.poi.ss.usermodel.IndexedColors;
 
 import java.util.List;
@@ -16,6 +17,7 @@ import java.util.List;
  */
 @ExcelSheet("教师表")
 @Data
+@NoArgsConstructor
 @ExcelSheetNameStyle(bgColor = IndexedColors.AQUA)
 public class Teacher {
 
@@ -4,6 +4,7 @@ import com.zuijianren.excel.annotations.ExcelProperty;
 import com.zuijianren.excel.annotations.ExcelSheet;
 import com.zuijianren.excel.annotations.style.ExcelSheetNameStyle;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.apache.poi.ss.usermodel.IndexedColors;
 
 import java.util.List;
@@ -14,6 +15,7 @@ import java.util.List;
  */
 @ExcelSheet("教师表")
 @Data
+@NoArgsConstructor
 @ExcelSheetNameStyle(bgColor = IndexedColors.AQUA)
 public class Teacher2 {
 